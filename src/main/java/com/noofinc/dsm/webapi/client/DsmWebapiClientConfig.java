@@ -5,35 +5,57 @@ import java.util.Collections;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.noofinc.dsm.webapi.client.core.AuthenticatedDsmWebapiClient;
+import com.noofinc.dsm.webapi.client.core.BatchingDsmWebapiClient;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiClient;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiClientImpl;
 import com.noofinc.dsm.webapi.client.core.LoggingInterceptor;
+import com.noofinc.dsm.webapi.client.core.http.HttpTransport;
+import com.noofinc.dsm.webapi.client.core.http.PooledHttpTransport;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 @ComponentScan
 public class DsmWebapiClientConfig {
 
+    @Value("${dsm.webapi.batch.auto:false}")
+    private boolean autoBatching;
+
+    @Value("${dsm.webapi.logging.maxBodyLength:2048}")
+    private int loggingMaxBodyLength;
+
+    @Value("${dsm.webapi.logging.sampleRate:1}")
+    private int loggingSampleRate;
+
     @Bean
     public DsmWebapiClient unauthenticated() {
         return new DsmWebapiClientImpl();
     }
 
+    @Bean
+    public DsmWebapiClient authenticated() {
+        return new AuthenticatedDsmWebapiClient();
+    }
+
     @Bean
     @Primary
     public DsmWebapiClient dsmRestClient() {
-        return new AuthenticatedDsmWebapiClient();
+        return autoBatching ? new BatchingDsmWebapiClient(authenticated()) : authenticated();
+    }
+
+    @Bean
+    public HttpTransport dsmHttpTransport() {
+        return new PooledHttpTransport();
     }
 
     @Bean
@@ -42,19 +64,26 @@ public class DsmWebapiClientConfig {
         MappingJackson2HttpMessageConverter jsonMessageConverter = new MappingJackson2HttpMessageConverter();
         jsonMessageConverter.setSupportedMediaTypes(Collections.singletonList(MediaType.ALL));
         restTemplate.setMessageConverters(Collections.singletonList(jsonMessageConverter));
-        restTemplate.setInterceptors(Collections.singletonList(new LoggingInterceptor()));
-        restTemplate.setRequestFactory(new BufferingClientHttpRequestFactory(new SimpleClientHttpRequestFactory()));
+        restTemplate.setInterceptors(Collections.singletonList(new LoggingInterceptor(loggingMaxBodyLength, loggingSampleRate)));
+        restTemplate.setRequestFactory(dsmHttpTransport().getRequestFactory());
         return restTemplate;
     }
 
+    @Bean
+    public AsyncRestTemplate dsmWebapiClientAsyncRestTemplate() {
+        AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate(dsmHttpTransport().getAsyncRequestFactory());
+        MappingJackson2HttpMessageConverter jsonMessageConverter = new MappingJackson2HttpMessageConverter();
+        jsonMessageConverter.setSupportedMediaTypes(Collections.singletonList(MediaType.ALL));
+        asyncRestTemplate.setMessageConverters(Collections.singletonList(jsonMessageConverter));
+        return asyncRestTemplate;
+    }
+
     @Bean
     public RestTemplate downloadRestTemplate() {
         RestTemplate restTemplate = new RestTemplate();
         ResourceHttpMessageConverter resourceHttpMessageConverter = new ResourceHttpMessageConverter();
         restTemplate.setMessageConverters(Collections.singletonList(resourceHttpMessageConverter));
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setBufferRequestBody(false);
-        restTemplate.setRequestFactory(factory);
+        restTemplate.setRequestFactory(dsmHttpTransport().getStreamingRequestFactory());
         return restTemplate;
     }
 
@@ -65,9 +94,7 @@ public class DsmWebapiClientConfig {
         MappingJackson2HttpMessageConverter jsonMessageConverter = new MappingJackson2HttpMessageConverter();
         jsonMessageConverter.setSupportedMediaTypes(Collections.singletonList(MediaType.ALL));
         restTemplate.setMessageConverters(Arrays.asList(formHttpMessageConverter, jsonMessageConverter));
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setBufferRequestBody(false);
-        restTemplate.setRequestFactory(factory);
+        restTemplate.setRequestFactory(dsmHttpTransport().getStreamingRequestFactory());
         return restTemplate;
     }
 
@@ -1,32 +1,27 @@
 package com.noofinc.dsm.webapi.client.core;
 
 import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfo;
+import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfoRegistry;
 import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfoService;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import javax.annotation.PostConstruct;
-
 public abstract class AbstractDsmServiceImpl {
 
     @Autowired
     private ApiInfoService apiInfoService;
 
+    @Autowired
+    private ApiInfoRegistry apiInfoRegistry;
+
     @Autowired
     private DsmWebapiClient dsmWebapiClient;
 
     private final String apiId;
 
-    private ApiInfo apiInfo;
-
     public AbstractDsmServiceImpl(String apiId) {
         this.apiId = apiId;
     }
 
-    @PostConstruct
-    public final void init() {
-        apiInfo = apiInfoService.findOne(apiId);
-    }
-
     public DsmWebapiClient getDsmWebapiClient() {
         return dsmWebapiClient;
     }
@@ -40,6 +35,6 @@ public abstract class AbstractDsmServiceImpl {
     }
 
     public ApiInfo getApiInfo() {
-        return apiInfo;
+        return apiInfoRegistry.find(apiId);
     }
 }
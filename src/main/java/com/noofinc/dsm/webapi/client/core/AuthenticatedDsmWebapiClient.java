@@ -1,16 +1,72 @@
 package com.noofinc.dsm.webapi.client.core;
 
 import com.noofinc.dsm.webapi.client.core.authentication.AuthenticationHolder;
+import com.noofinc.dsm.webapi.client.core.authentication.LoginInformation;
+import com.noofinc.dsm.webapi.client.core.exception.SessionExpiredException;
+import com.noofinc.dsm.webapi.client.core.execution.DsmExecutor;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Adds the session id to every request. A request rejected because the session expired is replayed once with a
+ * new session; the NAS did not execute it, so this is safe for mutating requests too.
+ */
 public class AuthenticatedDsmWebapiClient extends DsmWebapiClientImpl {
 
     @Autowired
     private AuthenticationHolder authenticationHolder;
 
+    @Autowired
+    private DsmExecutor dsmExecutor;
+
+    @Override
+    protected String getSessionId() {
+        return authenticationHolder.getLoginInformation().getSid();
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        LoginInformation loginInformation = authenticationHolder.getLoginInformation();
+        try {
+            return super.call(request, responseType, errorHandler);
+        } catch (SessionExpiredException e) {
+            authenticationHolder.renew(loginInformation);
+            return super.call(request, responseType, errorHandler);
+        }
+    }
+
+    @Override
+    public <E> ObjectNode callStreaming(DsmWebapiRequest request, String arrayField, Class<E> elementType, Consumer<? super E> consumer, ErrorHandler errorHandler) {
+        LoginInformation loginInformation = authenticationHolder.getLoginInformation();
+        try {
+            return super.callStreaming(request, arrayField, elementType, consumer, errorHandler);
+        } catch (SessionExpiredException e) {
+            // Nothing was emitted yet, errors come before any data
+            authenticationHolder.renew(loginInformation);
+            return super.callStreaming(request, arrayField, elementType, consumer, errorHandler);
+        }
+    }
+
     @Override
-    public void customizeUri(UriComponentsBuilder uriComponentsBuilder) {
-        uriComponentsBuilder.queryParam("_sid", authenticationHolder.getLoginInformation().getSid());
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        LoginInformation loginInformation = authenticationHolder.getLoginInformation();
+        return super.callAsync(request, responseType, errorHandler).handle((response, error) -> {
+            if(error == null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if(cause instanceof SessionExpiredException) {
+                // Logging in blocks, keep it off the non-blocking client's threads
+                return dsmExecutor.runAsync(() -> authenticationHolder.renew(loginInformation))
+                        .thenCompose(renewed -> super.callAsync(request, responseType, errorHandler));
+            }
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(future -> future);
     }
 }
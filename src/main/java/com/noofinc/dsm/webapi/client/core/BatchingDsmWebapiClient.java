@@ -0,0 +1,137 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Gathers the calls made within a short window and sends them as one {@link CompoundRequest}. A window is flushed
+ * when it expires or as soon as it holds {@code dsm.webapi.batch.maxSize} calls.
+ * <p>
+ * Blocking calls wait for their window to be flushed, so this only pays off when many threads call the NAS at the
+ * same time over a high latency link. Authentication and API info calls are never batched.
+ */
+public class BatchingDsmWebapiClient implements DsmWebapiClient, DisposableBean {
+
+    private final DsmWebapiClient delegate;
+
+    @Value("${dsm.webapi.batch.window:10}")
+    private long windowMillis;
+
+    @Value("${dsm.webapi.batch.maxSize:20}")
+    private int maxSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dsm-webapi-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private CompoundRequest pending;
+
+    public BatchingDsmWebapiClient(DsmWebapiClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType) {
+        return call(request, responseType, null);
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        if(!isBatchable(request)) {
+            return delegate.call(request, responseType, errorHandler);
+        }
+        try {
+            return callAsync(request, responseType, errorHandler).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType) {
+        return callAsync(request, responseType, null);
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        if(!isBatchable(request)) {
+            return delegate.callAsync(request, responseType, errorHandler);
+        }
+        CompletableFuture<T> future;
+        CompoundRequest full = null;
+        lock.lock();
+        try {
+            if(pending == null) {
+                CompoundRequest window = delegate.newCompoundRequest();
+                pending = window;
+                scheduler.schedule(() -> flush(window), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            future = pending.add(request, responseType, errorHandler);
+            if(pending.size() >= maxSize) {
+                full = pending;
+                pending = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(full != null) {
+            full.executeAsync();
+        }
+        return future;
+    }
+
+    @Override
+    public <E> ObjectNode callStreaming(DsmWebapiRequest request, String arrayField, Class<E> elementType, Consumer<? super E> consumer, ErrorHandler errorHandler) {
+        return delegate.callStreaming(request, arrayField, elementType, consumer, errorHandler);
+    }
+
+    @Override
+    public CompoundRequest newCompoundRequest() {
+        return delegate.newCompoundRequest();
+    }
+
+    @Override
+    public URI buildUri(DsmWebapiRequest request) {
+        return delegate.buildUri(request);
+    }
+
+    private void flush(CompoundRequest window) {
+        lock.lock();
+        try {
+            if(pending != window) {
+                // Already flushed because it was full
+                return;
+            }
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        window.executeAsync();
+    }
+
+    private static boolean isBatchable(DsmWebapiRequest request) {
+        return !request.getApi().startsWith("SYNO.API.") && !CompoundRequest.API_ID.equals(request.getApi());
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
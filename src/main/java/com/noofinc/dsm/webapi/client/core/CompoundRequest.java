@@ -0,0 +1,216 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.noofinc.dsm.webapi.client.core.exception.DsmWebApiClientException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Packs several requests into a single SYNO.Entry.Request call, so they cost one HTTP round trip. Each added request
+ * gets its own future, completed with its own response type and error handling once the compound request is executed.
+ * <p>
+ * Obtained from {@link DsmWebapiClient#newCompoundRequest()}, a compound request can only be executed once.
+ */
+public class CompoundRequest {
+
+    // API Infos
+    public static final String API_ID = "SYNO.Entry.Request";
+    private static final String API_VERSION = "1";
+    private static final String API_PATH = "entry.cgi";
+
+    // API Methods
+    private static final String METHOD_REQUEST = "request";
+
+    // Parameters
+    private static final String PARAMETER_COMPOUND = "compound";
+    private static final String PARAMETER_MODE = "mode";
+    private static final String PARAMETER_STOP_WHEN_ERROR = "stop_when_error";
+
+    // Parameters values
+    private static final String PARAMETER_VALUE_MODE_SEQUENTIAL = "\"sequential\"";
+
+    private static final List<String> ENTRY_IDENTIFICATION_FIELDS = Arrays.asList("api", "method", "version");
+
+    private final DsmWebapiClientImpl client;
+    private final ObjectMapper objectMapper;
+    private final List<Entry<?>> entries = new ArrayList<>();
+    private boolean executed;
+
+    CompoundRequest(DsmWebapiClientImpl client, ObjectMapper objectMapper) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+    }
+
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> add(DsmWebapiRequest request, Class<T> responseType) {
+        return add(request, responseType, null);
+    }
+
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> add(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        if(executed) {
+            throw new IllegalStateException("Compound request already executed");
+        }
+        Entry<T> entry = new Entry<>(request, responseType, errorHandler);
+        entries.add(entry);
+        return entry.future;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sends all added requests in one call and blocks until every future is completed.
+     */
+    public void execute() {
+        try {
+            executeAsync().join();
+        } catch (CompletionException e) {
+            // Failures are reported through each request's future
+        }
+    }
+
+    public CompletableFuture<Void> executeAsync() {
+        if(executed) {
+            throw new IllegalStateException("Compound request already executed");
+        }
+        executed = true;
+        if(entries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if(entries.size() == 1) {
+            return executeSingle(entries.get(0));
+        }
+        CompletableFuture<CompoundResponse> response;
+        try {
+            response = client.callAsync(toRequest(), CompoundResponse.class);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        return response.handle((compoundResponse, error) -> {
+            if(error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                entries.forEach(entry -> entry.future.completeExceptionally(cause));
+            } else {
+                dispatch(compoundResponse.getData().getResults());
+            }
+            return null;
+        });
+    }
+
+    private <T extends DsmWebapiResponse<?>> CompletableFuture<Void> executeSingle(Entry<T> entry) {
+        return client.callAsync(entry.request, entry.responseType, entry.errorHandler).handle((response, error) -> {
+            if(error != null) {
+                entry.future.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                entry.future.complete(response);
+            }
+            return null;
+        });
+    }
+
+    DsmWebapiRequest toRequest() {
+        ArrayNode compound = objectMapper.createArrayNode();
+        boolean post = false;
+        for (Entry<?> entry : entries) {
+            post |= entry.request.isPost();
+            ObjectNode node = compound.addObject()
+                    .put("api", entry.request.getApi())
+                    .put("method", entry.request.getMethod())
+                    .put("version", Integer.parseInt(entry.request.getVersion()));
+            for (Map.Entry<String, String> parameter : entry.request.getParameters().entrySet()) {
+                node.put(parameter.getKey(), parameter.getValue());
+            }
+        }
+        try {
+            DsmWebapiRequest request = new DsmWebapiRequest(API_ID, API_VERSION, API_PATH, METHOD_REQUEST)
+                    .parameter(PARAMETER_STOP_WHEN_ERROR, false)
+                    .parameter(PARAMETER_MODE, PARAMETER_VALUE_MODE_SEQUENTIAL)
+                    .parameter(PARAMETER_COMPOUND, objectMapper.writeValueAsString(compound));
+            return post ? request.post() : request;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize compound request", e);
+        }
+    }
+
+    private void dispatch(List<JsonNode> results) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry<?> entry = entries.get(i);
+            if(i < results.size()) {
+                entry.complete(results.get(i));
+            } else {
+                entry.future.completeExceptionally(new DsmWebApiClientException("No result for " + entry.request.getApi() + "#" + entry.request.getMethod() + " in compound response"));
+            }
+        }
+    }
+
+    private class Entry<T extends DsmWebapiResponse<?>> {
+
+        private final DsmWebapiRequest request;
+        private final Class<T> responseType;
+        private final ErrorHandler errorHandler;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Entry(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+            this.request = request;
+            this.responseType = responseType;
+            this.errorHandler = errorHandler;
+        }
+
+        private void complete(JsonNode result) {
+            try {
+                if(result instanceof ObjectNode) {
+                    ((ObjectNode) result).remove(ENTRY_IDENTIFICATION_FIELDS);
+                }
+                T response = objectMapper.treeToValue(result, responseType);
+                client.handleFailure(request, errorHandler, response);
+                future.complete(response);
+            } catch (JsonProcessingException e) {
+                future.completeExceptionally(new DsmWebApiClientException("Could not read compound result for " + request.getApi() + "#" + request.getMethod(), e));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    public static class CompoundResult {
+
+        private final boolean hasFail;
+        private final List<JsonNode> results = new ArrayList<>();
+
+        @JsonCreator
+        public CompoundResult(@JsonProperty("has_fail") boolean hasFail, @JsonProperty("result") List<JsonNode> results) {
+            this.hasFail = hasFail;
+            if(results != null) {
+                this.results.addAll(results);
+            }
+        }
+
+        public boolean hasFail() {
+            return hasFail;
+        }
+
+        public List<JsonNode> getResults() {
+            return Collections.unmodifiableList(results);
+        }
+    }
+
+    public static class CompoundResponse extends DsmWebapiResponse<CompoundResult> {
+
+        public CompoundResponse(@JsonProperty("success") boolean success, @JsonProperty("data") CompoundResult data, @JsonProperty("error") DsmWebApiResponseError error) {
+            super(success, data, error);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.noofinc.dsm.webapi.client.core;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface DsmWebapiClient {
 
@@ -8,5 +12,26 @@ public interface DsmWebapiClient {
 
     <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler);
 
+    /**
+     * Non-blocking variant of {@link #call(DsmWebapiRequest, Class, ErrorHandler)}. Errors, including the ones raised by
+     * the error handler, complete the returned future exceptionally.
+     */
+    <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType);
+
+    <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler);
+
+    /**
+     * Hands each element of the {@code arrayField} array of the response data to the consumer as soon as it is parsed,
+     * instead of building the whole response. Failures are handled before the first element is emitted.
+     *
+     * @return the other fields of the response data
+     */
+    <E> ObjectNode callStreaming(DsmWebapiRequest request, String arrayField, Class<E> elementType, Consumer<? super E> consumer, ErrorHandler errorHandler);
+
+    /**
+     * Starts a compound request: requests added to it are sent together in a single SYNO.Entry.Request call.
+     */
+    CompoundRequest newCompoundRequest();
+
     URI buildUri(DsmWebapiRequest request);
 }
@@ -1,5 +1,7 @@
 package com.noofinc.dsm.webapi.client.core;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.noofinc.dsm.webapi.client.core.exception.BadRequestException;
 import com.noofinc.dsm.webapi.client.core.exception.DsmWebApiErrorException;
 import com.noofinc.dsm.webapi.client.core.exception.PermissionDeniedException;
@@ -7,12 +9,25 @@ import com.noofinc.dsm.webapi.client.core.exception.SessionExpiredException;
 import com.noofinc.dsm.webapi.client.core.exception.UnknownErrorException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.AsyncRequestCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 public class DsmWebapiClientImpl implements DsmWebapiClient {
 
@@ -20,9 +35,29 @@ public class DsmWebapiClientImpl implements DsmWebapiClient {
     @Qualifier("dsmWebapiClientRestTemplate")
     private RestTemplate restTemplate;
 
+    @Autowired
+    @Qualifier("dsmWebapiClientAsyncRestTemplate")
+    private AsyncRestTemplate asyncRestTemplate;
+
     @Autowired
     private DsmUrlProvider dsmUrlProvider;
 
+    @Value("${dsm.webapi.coalescing.enabled:true}")
+    private boolean coalescing;
+
+    // Encoded query length above which a request is posted, whatever the request asks for
+    @Value("${dsm.webapi.post.threshold:4096}")
+    private int postThreshold;
+
+    private static final int MAX_REUSED_URI_BUILDER_CAPACITY = 8192;
+
+    private static final ThreadLocal<StringBuilder> URI_BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private volatile UriPrefixes uriPrefixes;
+
+    // Read-only requests currently on the wire, keyed on response type, session and canonical request
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlightReads = new ConcurrentHashMap<>();
+
     @Override
     public <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType) {
         return call(request, responseType, null);
@@ -30,35 +65,194 @@ public class DsmWebapiClientImpl implements DsmWebapiClient {
 
     @Override
     public <T extends DsmWebapiResponse<?>> T call(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
-        T response = restTemplate.getForObject(buildUri(request), responseType);
+        T response = isCoalesced(request) ? fetchCoalesced(request, responseType) : fetch(request, responseType);
 
         handleFailure(request, errorHandler, response);
         return response;
     }
 
-    public void customizeUri(UriComponentsBuilder uriComponentsBuilder) {
-        // Template method
+    @Override
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType) {
+        return callAsync(request, responseType, null);
+    }
+
+    @Override
+    public <T extends DsmWebapiResponse<?>> CompletableFuture<T> callAsync(DsmWebapiRequest request, Class<T> responseType, ErrorHandler errorHandler) {
+        CompletableFuture<T> future = isCoalesced(request) ? fetchCoalescedAsync(request, responseType) : fetchAsync(request, responseType);
+        return future.thenApply(response -> {
+            handleFailure(request, errorHandler, response);
+            return response;
+        });
+    }
+
+    private <T extends DsmWebapiResponse<?>> T fetch(DsmWebapiRequest request, Class<T> responseType) {
+        HttpCall call = buildHttpCall(request);
+        if(call.body == null) {
+            return restTemplate.getForObject(call.uri, responseType);
+        }
+        return restTemplate.execute(call.uri, HttpMethod.POST, call.requestCallback(), new HttpMessageConverterExtractor<>(responseType, restTemplate.getMessageConverters()));
+    }
+
+    private <T extends DsmWebapiResponse<?>> CompletableFuture<T> fetchAsync(DsmWebapiRequest request, Class<T> responseType) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            HttpCall call = buildHttpCall(request);
+            if(call.body == null) {
+                asyncRestTemplate.getForEntity(call.uri, responseType).addCallback(
+                        entity -> future.complete(entity.getBody()),
+                        future::completeExceptionally);
+            } else {
+                asyncRestTemplate.execute(call.uri, HttpMethod.POST, call.asyncRequestCallback(), new HttpMessageConverterExtractor<>(responseType, asyncRestTemplate.getMessageConverters())).addCallback(
+                        future::complete,
+                        future::completeExceptionally);
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private boolean isCoalesced(DsmWebapiRequest request) {
+        return coalescing && ReadOnlyRequests.isReadOnly(request);
+    }
+
+    /**
+     * Concurrent identical read-only calls share a single HTTP request. Only the raw response is shared, error
+     * handling still happens per caller.
+     */
+    private <T extends DsmWebapiResponse<?>> T fetchCoalesced(DsmWebapiRequest request, Class<T> responseType) {
+        String key = coalescingKey(request, responseType);
+        CompletableFuture<T> own = new CompletableFuture<>();
+        CompletableFuture<?> inFlight = inFlightReads.putIfAbsent(key, own);
+        if(inFlight != null) {
+            try {
+                return responseType.cast(inFlight.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            T response = fetch(request, responseType);
+            own.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightReads.remove(key, own);
+        }
+    }
+
+    // A read sent with a session that has just been replaced must not be shared with callers of the new session
+    private String coalescingKey(DsmWebapiRequest request, Class<?> responseType) {
+        return responseType.getName() + '\0' + getSessionId() + '\0' + request.getCanonicalForm();
+    }
+
+    private <T extends DsmWebapiResponse<?>> CompletableFuture<T> fetchCoalescedAsync(DsmWebapiRequest request, Class<T> responseType) {
+        String key = coalescingKey(request, responseType);
+        CompletableFuture<T> own = new CompletableFuture<>();
+        CompletableFuture<?> inFlight = inFlightReads.putIfAbsent(key, own);
+        if(inFlight != null) {
+            return inFlight.thenApply(responseType::cast);
+        }
+        fetchAsync(request, responseType).whenComplete((response, error) -> {
+            inFlightReads.remove(key, own);
+            if(error != null) {
+                own.completeExceptionally(error);
+            } else {
+                own.complete(response);
+            }
+        });
+        return own;
+    }
+
+    @Override
+    public <E> ObjectNode callStreaming(DsmWebapiRequest request, String arrayField, Class<E> elementType, Consumer<? super E> consumer, ErrorHandler errorHandler) {
+        StreamingResponseReader reader = new StreamingResponseReader(this, getObjectMapper());
+        HttpCall call = buildHttpCall(request);
+        return restTemplate.execute(call.uri, call.body == null ? HttpMethod.GET : HttpMethod.POST, call.body == null ? null : call.requestCallback(),
+                response -> reader.read(response.getBody(), request, arrayField, elementType, consumer, errorHandler));
+    }
+
+    @Override
+    public CompoundRequest newCompoundRequest() {
+        return new CompoundRequest(this, getObjectMapper());
+    }
+
+    // Compound and streamed responses are decoded exactly like plain responses
+    private ObjectMapper getObjectMapper() {
+        return restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(MappingJackson2HttpMessageConverter.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No JSON message converter configured"))
+                .getObjectMapper();
+    }
+
+    /**
+     * Template method: the session id sent with every request, if any.
+     */
+    protected String getSessionId() {
+        return null;
     }
 
+    /**
+     * Always a GET uri, with every parameter in the query string: for downloads and uploads, which do not go through
+     * the JSON calls.
+     */
     @Override
     public URI buildUri(DsmWebapiRequest request) {
-        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-                .fromHttpUrl(dsmUrlProvider.getDsmUrl())
-                .path("webapi/")
-                .path(request.getPath())
-                .queryParam("api", request.getApi())
-                .queryParam("version", request.getVersion())
-                .queryParam("method", request.getMethod());
+        return buildHttpCall(request, false).uri;
+    }
+
+    private HttpCall buildHttpCall(DsmWebapiRequest request) {
+        return buildHttpCall(request, true);
+    }
+
+    /**
+     * Encodes the parameters once. The query is moved to a form body when the request asks for it or when it is
+     * longer than {@code postThreshold}; the body then holds exactly what the query string would have held.
+     */
+    private HttpCall buildHttpCall(DsmWebapiRequest request, boolean postAllowed) {
+        // Before taking the builder: the first lookup logs in, which builds another uri on this thread
+        String sessionId = getSessionId();
+        StringBuilder url = URI_BUILDER.get();
+        url.setLength(0);
+        url.append(getUriPrefix(request.getPath()));
+        int queryStart = url.length();
+        QueryStringEncoder.appendParameter(url, queryStart, "api", request.getApi());
+        QueryStringEncoder.appendParameter(url, queryStart, "version", request.getVersion());
+        QueryStringEncoder.appendParameter(url, queryStart, "method", request.getMethod());
         for (Map.Entry<String, String> entry : request.getParameters().entrySet()) {
-            uriComponentsBuilder.queryParam(entry.getKey(), entry.getValue());
+            QueryStringEncoder.appendParameter(url, queryStart, entry.getKey(), entry.getValue());
+        }
+        if(sessionId != null) {
+            QueryStringEncoder.appendParameter(url, queryStart, "_sid", sessionId);
         }
-        customizeUri(uriComponentsBuilder);
-        String url = uriComponentsBuilder.toUriString();
-        int queryStart = url.indexOf("?");
-        return createUriQuietly(url, queryStart);
+        HttpCall call;
+        if(postAllowed && (request.isPost() || url.length() - queryStart > postThreshold)) {
+            // Without the trailing '?'
+            call = new HttpCall(createUriQuietly(url.substring(0, queryStart - 1)), url.substring(queryStart));
+        } else {
+            call = new HttpCall(createUriQuietly(url.toString()), null);
+        }
+        if(url.capacity() > MAX_REUSED_URI_BUILDER_CAPACITY) {
+            URI_BUILDER.remove();
+        }
+        return call;
     }
 
-    private <T extends DsmWebapiResponse<?>> void handleFailure(DsmWebapiRequest request, ErrorHandler errorHandler, T response) {
+    private String getUriPrefix(String path) {
+        String dsmUrl = dsmUrlProvider.getDsmUrl();
+        UriPrefixes prefixes = uriPrefixes;
+        if(prefixes == null || !prefixes.dsmUrl.equals(dsmUrl)) {
+            prefixes = new UriPrefixes(dsmUrl);
+            uriPrefixes = prefixes;
+        }
+        return prefixes.get(path);
+    }
+
+    <T extends DsmWebapiResponse<?>> void handleFailure(DsmWebapiRequest request, ErrorHandler errorHandler, T response) {
         if(!response.isSuccess()) {
             int code = response.getError().getCode();
             handleGenericErrors(response);
@@ -87,6 +281,8 @@ public class DsmWebapiClientImpl implements DsmWebapiClient {
                     throw new SessionExpiredException("Session timeout", error);
                 case GenericErrorCodes.ERROR_CODE_DUPLICATE_LOGIN:
                     throw new SessionExpiredException("Session interrupted by duplicate login", error);
+                case GenericErrorCodes.ERROR_CODE_SID_NOT_FOUND:
+                    throw new SessionExpiredException("Session id not found", error);
                 default:
                     //skip
             }
@@ -99,11 +295,61 @@ public class DsmWebapiClientImpl implements DsmWebapiClient {
         }
     }
 
-    private URI createUriQuietly(String url, int queryStart) {
+    private URI createUriQuietly(String url) {
         try {
-            return new URI(url.substring(0, queryStart) + url.substring(queryStart).replace("/", "%2F"));
+            return new URI(url);
         } catch (URISyntaxException e) {
             throw new IllegalStateException("Could not build uri form url: " + url, e);
         }
     }
+
+    private static class HttpCall {
+
+        private final URI uri;
+        // Form encoded parameters of a POST, null for a GET
+        private final String body;
+
+        private HttpCall(URI uri, String body) {
+            this.uri = uri;
+            this.body = body;
+        }
+
+        private RequestCallback requestCallback() {
+            byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+            return request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                request.getHeaders().setContentLength(bytes.length);
+                request.getBody().write(bytes);
+            };
+        }
+
+        private AsyncRequestCallback asyncRequestCallback() {
+            byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+            return request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                request.getHeaders().setContentLength(bytes.length);
+                request.getBody().write(bytes);
+            };
+        }
+    }
+
+    /**
+     * "scheme://host:port/webapi/path?" for each api path, computed once per DSM url.
+     */
+    private static class UriPrefixes {
+
+        private final String dsmUrl;
+        private final String webapiUrl;
+        private final ConcurrentMap<String, String> prefixesByPath = new ConcurrentHashMap<>();
+
+        private UriPrefixes(String dsmUrl) {
+            this.dsmUrl = dsmUrl;
+            this.webapiUrl = (dsmUrl.endsWith("/") ? dsmUrl.substring(0, dsmUrl.length() - 1) : dsmUrl) + "/webapi/";
+        }
+
+        private String get(String path) {
+            String prefix = prefixesByPath.get(path);
+            return prefix != null ? prefix : prefixesByPath.computeIfAbsent(path, p -> webapiUrl + p + '?');
+        }
+    }
 }
@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -16,6 +17,7 @@ public class DsmWebapiRequest {
     private final String path;
     private final String method;
     private final Map<String, String> parameters = new HashMap<>();
+    private boolean post;
 
     public DsmWebapiRequest(String api, String version, String path, String method) {
         this.api = api;
@@ -40,10 +42,39 @@ public class DsmWebapiRequest {
         return method;
     }
 
+    public boolean isPost() {
+        return post;
+    }
+
+    /**
+     * Sends the parameters as a form encoded body instead of the query string, e.g. to keep credentials out of
+     * access logs. Longer requests are posted anyway, see {@code dsm.webapi.post.threshold}.
+     */
+    public DsmWebapiRequest post() {
+        this.post = true;
+        return this;
+    }
+
     public Map<String, String> getParameters() {
         return Collections.unmodifiableMap(parameters);
     }
 
+    /**
+     * Identifies the request independently of parameter insertion order. Two requests with the same canonical form
+     * ask the NAS for the same thing.
+     */
+    public String getCanonicalForm() {
+        StringBuilder canonicalForm = new StringBuilder()
+                .append(api).append('\0')
+                .append(version).append('\0')
+                .append(path).append('\0')
+                .append(method);
+        for (Map.Entry<String, String> parameter : new TreeMap<>(parameters).entrySet()) {
+            canonicalForm.append('\0').append(parameter.getKey()).append('=').append(parameter.getValue());
+        }
+        return canonicalForm.toString();
+    }
+
     public DsmWebapiRequest parameter(String key, String value) {
         this.parameters.put(key, value);
         return this;
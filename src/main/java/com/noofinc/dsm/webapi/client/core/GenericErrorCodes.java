@@ -10,6 +10,7 @@ public final class GenericErrorCodes {
     public static final int ERROR_CODE_PERMISSION_DENIED = 105;
     public static final int ERROR_CODE_SESSION_TIMEOUT = 106;
     public static final int ERROR_CODE_DUPLICATE_LOGIN = 107;
+    public static final int ERROR_CODE_SID_NOT_FOUND = 119;
 
     private GenericErrorCodes() {
         throw new UnsupportedOperationException("Cannot instantiate");
@@ -1,34 +1,160 @@
 package com.noofinc.dsm.webapi.client.core;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
+/**
+ * Wire logging at DEBUG level. When DEBUG is off the response is returned untouched. When it is on, the response body
+ * is not buffered: the first {@code maxBodyLength} bytes are captured while the message converter reads the stream,
+ * and logged once the response is closed. With a sample rate of N, only one response body out of N is captured.
+ */
 public class LoggingInterceptor implements ClientHttpRequestInterceptor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoggingInterceptor.class);
 
+    private static final int DEFAULT_MAX_BODY_LENGTH = 2048;
+
+    private static final Pattern PASSWORD = Pattern.compile("(?<=(^|&)passwd=)[^&]*");
+
+    private final int maxBodyLength;
+    private final int sampleRate;
+    private final AtomicLong responseCount = new AtomicLong();
+
+    public LoggingInterceptor() {
+        this(DEFAULT_MAX_BODY_LENGTH, 1);
+    }
+
+    public LoggingInterceptor(int maxBodyLength, int sampleRate) {
+        this.maxBodyLength = maxBodyLength;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if(!LOGGER.isDebugEnabled()) {
+            return execution.execute(request, body);
+        }
+        LOGGER.debug("Request Method: {}, Request Headers: {}, Request URI: {}", request.getMethod(), request.getHeaders(), request.getURI());
+        if(body.length > 0) {
+            LOGGER.debug("Request body: {}", PASSWORD.matcher(truncate(body, body.length)).replaceAll("***"));
+        }
         ClientHttpResponse response = execution.execute(request, body);
-        log(request,body,response);
-        return response;
+        if(responseCount.getAndIncrement() % sampleRate != 0) {
+            return response;
+        }
+        return new LoggingClientHttpResponse(response, maxBodyLength);
     }
 
-    private void log(HttpRequest request, byte[] body, ClientHttpResponse response) {
-        try {
-            LOGGER.debug("Request Method: {}, Request Headers: {}, Request URI: {}", request.getMethod(), request.getHeaders(), request.getURI());
-            LOGGER.debug("Request body: {}", new String(body));
-            LOGGER.debug("Response body: {}", IOUtils.toString(response.getBody()));
-        } catch (IOException e) {
-            // The logger should not interfere with exceptions
-            LOGGER.warn("Exception occurred while logging response", e);
+    private String truncate(byte[] bytes, long totalLength) {
+        int length = (int) Math.min(Math.min(bytes.length, totalLength), maxBodyLength);
+        String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        return totalLength > length ? text + "... (" + totalLength + " bytes)" : text;
+    }
+
+    private class LoggingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final int maxBodyLength;
+        private CapturingInputStream body;
+
+        private LoggingClientHttpResponse(ClientHttpResponse response, int maxBodyLength) {
+            this.response = response;
+            this.maxBodyLength = maxBodyLength;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if(body == null) {
+                body = new CapturingInputStream(response.getBody(), maxBodyLength);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if(body != null) {
+                LOGGER.debug("Response body: {}", truncate(body.getCaptured(), body.getCount()));
+            }
+            response.close();
+        }
+    }
+
+    private static class CapturingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream captured;
+        private final int maxLength;
+        private long count;
+
+        private CapturingInputStream(InputStream in, int maxLength) {
+            super(in);
+            this.maxLength = maxLength;
+            this.captured = new ByteArrayOutputStream(Math.min(maxLength, 512));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if(read >= 0) {
+                if(count < maxLength) {
+                    captured.write(read);
+                }
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if(read > 0) {
+                if(count < maxLength) {
+                    captured.write(b, off, (int) Math.min(read, maxLength - count));
+                }
+                count += read;
+            }
+            return read;
+        }
+
+        private byte[] getCaptured() {
+            return captured.toByteArray();
+        }
+
+        private long getCount() {
+            return count;
         }
     }
 }
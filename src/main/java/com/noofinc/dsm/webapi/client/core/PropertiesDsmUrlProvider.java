@@ -11,8 +11,15 @@ public class PropertiesDsmUrlProvider implements DsmUrlProvider {
     @Value("${dsm.webapi.port:5000}")
     private String port;
 
+    private volatile String dsmUrl;
+
     @Override
     public String getDsmUrl() {
-        return String.format("%s://%s:%s", scheme, host, port);
+        String url = dsmUrl;
+        if(url == null) {
+            url = String.format("%s://%s:%s", scheme, host, port);
+            dsmUrl = url;
+        }
+        return url;
     }
 }
@@ -0,0 +1,115 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single pass percent-encoding of query parameters, straight into the caller's builder.
+ * <p>
+ * Produces the same output as Spring's {@code UriComponentsBuilder} query param encoding followed by the
+ * {@code "/"} to {@code "%2F"} replacement the DSM webapi needs: unreserved characters and
+ * {@code !$'()*,:;?@} are kept, anything else is UTF-8 percent-encoded.
+ */
+public final class QueryStringEncoder {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] ALLOWED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c : "-._~!$'()*,:;?@".toCharArray()) {
+            ALLOWED[c] = true;
+        }
+    }
+
+    private QueryStringEncoder() {
+        throw new UnsupportedOperationException("Cannot instantiate");
+    }
+
+    /**
+     * Appends {@code key=value}, preceded by {@code &} unless nothing was appended since {@code queryStart}, the offset
+     * in the builder where the query starts. A null value is rendered as the key alone.
+     */
+    public static void appendParameter(StringBuilder builder, int queryStart, String key, String value) {
+        // Not from the last character: values may end with '?', which is not encoded
+        if(builder.length() > queryStart) {
+            builder.append('&');
+        }
+        appendEncoded(builder, key);
+        if(value != null) {
+            builder.append('=');
+            appendEncoded(builder, value);
+        }
+    }
+
+    public static void appendEncoded(StringBuilder builder, String value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if(c < 128) {
+                if(ALLOWED[c]) {
+                    builder.append(c);
+                } else {
+                    appendEscaped(builder, c);
+                }
+                i++;
+            } else {
+                // Encode the whole non-ASCII run at once, so surrogate pairs are handled by the UTF-8 encoder
+                int end = i + 1;
+                while (end < length && value.charAt(end) >= 128) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    int unsigned = b & 0xFF;
+                    if(unsigned < 128 && ALLOWED[unsigned]) {
+                        // Replacement character of malformed input
+                        builder.append((char) unsigned);
+                    } else {
+                        appendEscaped(builder, unsigned);
+                    }
+                }
+                i = end;
+            }
+        }
+    }
+
+    /**
+     * Length of the output of {@link #appendEncoded} for this value, computed without encoding it.
+     */
+    public static int encodedLength(String value) {
+        int length = value.length();
+        int encodedLength = 0;
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if(c < 128) {
+                encodedLength += ALLOWED[c] ? 1 : 3;
+            } else if(c < 0x800) {
+                encodedLength += 6;
+            } else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                encodedLength += 12;
+                i++;
+            } else if(Character.isSurrogate(c)) {
+                // Malformed, replaced by '?'
+                encodedLength += 1;
+            } else {
+                encodedLength += 9;
+            }
+            i++;
+        }
+        return encodedLength;
+    }
+
+    private static void appendEscaped(StringBuilder builder, int b) {
+        builder.append('%').append(HEX_DIGITS[b >> 4]).append(HEX_DIGITS[b & 0xF]);
+    }
+}
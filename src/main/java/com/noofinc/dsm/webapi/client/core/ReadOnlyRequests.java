@@ -0,0 +1,29 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Classifies requests by method. Only methods known to have no side effect on the NAS are read-only, anything else
+ * (start, create, rename, delete, upload, add, edit...) is treated as mutating.
+ */
+public final class ReadOnlyRequests {
+
+    private static final Set<String> READ_ONLY_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "query",
+            "get",
+            "getinfo",
+            "list",
+            "list_share",
+            "status")));
+
+    private ReadOnlyRequests() {
+        throw new UnsupportedOperationException("Cannot instantiate");
+    }
+
+    public static boolean isReadOnly(DsmWebapiRequest request) {
+        return READ_ONLY_METHODS.contains(request.getMethod()) && !CompoundRequest.API_ID.equals(request.getApi());
+    }
+}
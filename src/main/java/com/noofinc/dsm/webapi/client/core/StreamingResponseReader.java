@@ -0,0 +1,77 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.noofinc.dsm.webapi.client.core.exception.DsmWebApiClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads a response envelope token by token, handing each element of one array of its data to a consumer as soon as
+ * it is parsed, so that memory does not grow with the number of elements.
+ * <p>
+ * DSM only sends {@code data} with successful responses, and sends {@code error} without {@code data}: a failure is
+ * thus always handled before the first element is emitted.
+ */
+class StreamingResponseReader {
+
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_ERROR = "error";
+    private static final String FIELD_SUCCESS = "success";
+
+    private final DsmWebapiClientImpl client;
+    private final ObjectMapper objectMapper;
+
+    StreamingResponseReader(DsmWebapiClientImpl client, ObjectMapper objectMapper) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+    }
+
+    <E> ObjectNode read(InputStream body, DsmWebapiRequest request, String arrayField, Class<E> elementType, Consumer<? super E> consumer, ErrorHandler errorHandler) throws IOException {
+        ObjectNode data = objectMapper.createObjectNode();
+        boolean success = false;
+        DsmWebApiResponseError error = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if(FIELD_DATA.equals(field) && value == JsonToken.START_OBJECT) {
+                    readData(parser, data, arrayField, elementType, consumer);
+                } else if(FIELD_ERROR.equals(field) && value == JsonToken.START_OBJECT) {
+                    error = objectMapper.readValue(parser, DsmWebApiResponseError.class);
+                } else if(FIELD_SUCCESS.equals(field)) {
+                    success = parser.getValueAsBoolean();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        client.handleFailure(request, errorHandler, new DsmWebapiResponse<>(success, data, error));
+        return data;
+    }
+
+    private <E> void readData(JsonParser parser, ObjectNode data, String arrayField, Class<E> elementType, Consumer<? super E> consumer) throws IOException {
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if(arrayField.equals(field) && value == JsonToken.START_ARRAY) {
+                while(parser.nextToken() != JsonToken.END_ARRAY) {
+                    consumer.accept(objectMapper.readValue(parser, elementType));
+                }
+            } else {
+                data.set(field, objectMapper.readTree(parser));
+            }
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+        if(actual != expected) {
+            throw new DsmWebApiClientException("Unexpected " + actual + " at " + parser.getCurrentLocation() + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.noofinc.dsm.webapi.client.core.apiinfo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.noofinc.dsm.webapi.client.core.DsmUrlProvider;
+import com.noofinc.dsm.webapi.client.core.execution.DsmExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Information about every API of the NAS, resolved with a single SYNO.API.Info query=all call the first time an API
+ * is needed. An API missing from it is looked up again once, the registry may predate a DSM upgrade, then reported
+ * missing without any call until the registry is reloaded.
+ * <p>
+ * The registry is persisted to {@code dsm.webapi.apiInfo.cacheDirectory} (the temp directory by default, empty to
+ * disable), one file per DSM url and version. The version is taken from the max versions of {@code SYNO.API.Auth} and
+ * {@code SYNO.API.Info}, asked for with a small query before the cache is read, so that the copy written by another
+ * DSM release is not used. When the file exists, the registry is loaded from it and revalidated in the background.
+ * When the NAS does not answer that query, the newest file of the url is used.
+ */
+@Component
+public class ApiInfoRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiInfoRegistry.class);
+
+    private static final String CACHE_FILE_PREFIX = "dsm-webapi-api-info-";
+    private static final String CACHE_FILE_SUFFIX = ".json";
+    private static final List<String> VERSION_APIS = Collections.unmodifiableList(Arrays.asList("SYNO.API.Auth", "SYNO.API.Info"));
+
+    @Autowired
+    private ApiInfoService apiInfoService;
+
+    @Autowired
+    private DsmUrlProvider dsmUrlProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DsmExecutor dsmExecutor;
+
+    @Value("${dsm.webapi.apiInfo.cacheDirectory:#{systemProperties['java.io.tmpdir']}}")
+    private String cacheDirectory;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Registry registry;
+
+    public ApiInfo find(String apiId) {
+        Registry current = registry;
+        if(current == null) {
+            current = load();
+        }
+        ApiInfo apiInfo = current.apiInfos.get(apiId);
+        if(apiInfo == null) {
+            if(current.missing.contains(apiId)) {
+                throw new ApiNotFoundException(apiId);
+            }
+            // The cached copy may predate a DSM upgrade
+            Registry reloaded = reload(current);
+            apiInfo = reloaded.apiInfos.get(apiId);
+            if(apiInfo == null) {
+                reloaded.missing.add(apiId);
+                throw new ApiNotFoundException(apiId);
+            }
+        }
+        return apiInfo;
+    }
+
+    public Collection<ApiInfo> findAll() {
+        Registry current = registry;
+        return (current != null ? current : load()).apiInfos.values();
+    }
+
+    private Registry load() {
+        loadLock.lock();
+        try {
+            if(registry == null) {
+                Map<String, ApiInfo> cached = readCache();
+                if(cached != null) {
+                    registry = new Registry(cached);
+                    dsmExecutor.runAsync(this::revalidate);
+                } else {
+                    registry = new Registry(fetch());
+                }
+            }
+            return registry;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Registry reload(Registry stale) {
+        loadLock.lock();
+        try {
+            if(registry == stale) {
+                registry = new Registry(fetch());
+            }
+            return registry;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void revalidate() {
+        try {
+            Map<String, ApiInfo> fetched = fetch();
+            loadLock.lock();
+            try {
+                registry = new Registry(fetched);
+            } finally {
+                loadLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not revalidate cached API information, keeping the cached copy", e);
+        }
+    }
+
+    private Map<String, ApiInfo> fetch() {
+        Map<String, ApiInfo> fetched = toMap(apiInfoService.findAll());
+        writeCache(fetched);
+        return fetched;
+    }
+
+    private Map<String, ApiInfo> readCache() {
+        if(Strings.isNullOrEmpty(cacheDirectory)) {
+            return null;
+        }
+        Path cacheFile;
+        try {
+            cacheFile = getCacheFile(toMap(apiInfoService.find(VERSION_APIS)));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not get the DSM version, using the latest API information cache", e);
+            cacheFile = getLatestCacheFile();
+        }
+        if(cacheFile == null || !Files.isReadable(cacheFile)) {
+            return null;
+        }
+        try {
+            return toMap(objectMapper.readValue(cacheFile.toFile(), ApiInfo.ApiInfoList.class).getApiInfos());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable API information cache {}", cacheFile, e);
+            return null;
+        }
+    }
+
+    private void writeCache(Map<String, ApiInfo> apiInfos) {
+        if(Strings.isNullOrEmpty(cacheDirectory)) {
+            return;
+        }
+        Path cacheFile = getCacheFile(apiInfos);
+        Map<String, Map<String, String>> content = new TreeMap<>();
+        for (ApiInfo apiInfo : apiInfos.values()) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("minVersion", apiInfo.getMinVersion());
+            fields.put("maxVersion", apiInfo.getMaxVersion());
+            fields.put("path", apiInfo.getPath());
+            fields.put("requestFormat", apiInfo.getRequestFormat());
+            content.put(apiInfo.getApi(), fields);
+        }
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temporaryFile = Files.createTempFile(cacheFile.getParent(), CACHE_FILE_PREFIX, ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), content);
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write API information cache {}", cacheFile, e);
+        }
+    }
+
+    private Path getCacheFile(Map<String, ApiInfo> apiInfos) {
+        StringBuilder version = new StringBuilder();
+        for (String api : VERSION_APIS) {
+            ApiInfo apiInfo = apiInfos.get(api);
+            version.append(version.length() == 0 ? "v" : ".").append(apiInfo != null ? sanitize(apiInfo.getMaxVersion()) : "0");
+        }
+        return Paths.get(cacheDirectory, getCacheFilePrefix() + version + CACHE_FILE_SUFFIX);
+    }
+
+    private Path getLatestCacheFile() {
+        Pattern name = Pattern.compile(Pattern.quote(getCacheFilePrefix()) + "v[^.]+(\\.[^.]+)*" + Pattern.quote(CACHE_FILE_SUFFIX));
+        Path latest = null;
+        FileTime latestTime = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(cacheDirectory), getCacheFilePrefix() + "*" + CACHE_FILE_SUFFIX)) {
+            for (Path file : files) {
+                if(name.matcher(file.getFileName().toString()).matches()) {
+                    FileTime time = Files.getLastModifiedTime(file);
+                    if(latestTime == null || time.compareTo(latestTime) > 0) {
+                        latest = file;
+                        latestTime = time;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not look for an API information cache in {}", cacheDirectory, e);
+        }
+        return latest;
+    }
+
+    private String getCacheFilePrefix() {
+        return CACHE_FILE_PREFIX + sanitize(dsmUrlProvider.getDsmUrl()) + "-";
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[^A-Za-z0-9.-]", "_");
+    }
+
+    private static Map<String, ApiInfo> toMap(List<ApiInfo> apiInfos) {
+        Map<String, ApiInfo> map = new LinkedHashMap<>();
+        for (ApiInfo apiInfo : apiInfos) {
+            map.put(apiInfo.getApi(), apiInfo);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static class Registry {
+
+        private final Map<String, ApiInfo> apiInfos;
+        // Forgotten with the registry: a reload may bring them
+        private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+        private Registry(Map<String, ApiInfo> apiInfos) {
+            this.apiInfos = apiInfos;
+        }
+    }
+}
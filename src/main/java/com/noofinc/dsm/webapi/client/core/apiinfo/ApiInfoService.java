@@ -1,9 +1,12 @@
 package com.noofinc.dsm.webapi.client.core.apiinfo;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ApiInfoService {
     List<ApiInfo> findAll();
 
+    List<ApiInfo> find(Collection<String> apis);
+
     ApiInfo findOne(String api);
 }
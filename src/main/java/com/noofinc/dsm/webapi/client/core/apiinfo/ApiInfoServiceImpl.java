@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -41,6 +42,22 @@ public class ApiInfoServiceImpl implements ApiInfoService {
         }
     }
 
+    @Override
+    public List<ApiInfo> find(Collection<String> apis) {
+        DsmWebapiRequest request = new DsmWebapiRequest(
+                FILESTATION_INFO_API,
+                FILESTATION_INFO_API_VERSION,
+                FILESTATION_INFO_API_PATH,
+                FILESTATION_INFO_API_LIST_METHOD)
+                .parameter(FILES_PARAMETERS, String.join(",", apis));
+        ApiInfoWebapiResponse response = restClient.call(request, ApiInfoWebapiResponse.class);
+        if(response.isSuccess()) {
+            return response.getData().getApiInfos();
+        } else {
+            throw new AssertionError("Cannot happen");
+        }
+    }
+
     @Override
     public ApiInfo findOne(String api) {
         DsmWebapiRequest request = new DsmWebapiRequest(
@@ -1,30 +1,105 @@
 package com.noofinc.dsm.webapi.client.core.authentication;
 
+import com.noofinc.dsm.webapi.client.core.execution.DsmExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Holds the current DSM session. Reading it is lock-free; logging in, at startup, ahead of the idle timeout or after
+ * the session expired, is done by one thread while the others wait for its result. The replaced session is then logged
+ * out in the background, so that sessions renewed ahead of their idle timeout do not pile up on the NAS.
+ */
 @Component
 public class AuthenticationHolder {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthenticationHolder.class);
+
+    // lastUse is only written when it is at least this old, to keep the read path free of writes
+    private static final long LAST_USE_RESOLUTION_MILLIS = 1000;
+
     @Autowired
     private AuthenticationProvider authenticationProvider;
 
     @Autowired
     private AuthenticationService authenticationService;
 
-    private LoginInformation loginInformation;
+    @Autowired
+    private DsmExecutor dsmExecutor;
+
+    @Value("${dsm.webapi.session.idleTimeout:900}")
+    private int idleTimeoutSeconds;
+
+    @Value("${dsm.webapi.session.refreshMargin:60}")
+    private int refreshMarginSeconds;
 
-    public synchronized LoginInformation getLoginInformation() {
-        if(loginInformation == null) {
-            loginInformation = authenticationProvider.getLoginInformation();
+    // Not synchronized: a virtual thread blocked on a monitor during login would pin its carrier
+    private final ReentrantLock loginLock = new ReentrantLock();
+
+    private volatile LoginInformation loginInformation;
+
+    private volatile long lastUse;
+
+    public LoginInformation getLoginInformation() {
+        LoginInformation current = loginInformation;
+        long now = System.currentTimeMillis();
+        if(current == null || isCloseToIdleTimeout(now)) {
+            current = renew(current);
+        } else if(now - lastUse >= LAST_USE_RESOLUTION_MILLIS) {
+            lastUse = now;
         }
-        return loginInformation;
+        return current;
+    }
+
+    /**
+     * Logs in again unless another thread already replaced the given session, in which case its new session is
+     * returned. Threads that find the same session expired at the same time thus share a single login.
+     */
+    public LoginInformation renew(LoginInformation expired) {
+        loginLock.lock();
+        try {
+            if(loginInformation == expired) {
+                loginInformation = authenticationProvider.getLoginInformation();
+                lastUse = System.currentTimeMillis();
+                if(expired != null) {
+                    logoutQuietly(expired);
+                }
+            }
+            return loginInformation;
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    private void logoutQuietly(LoginInformation replaced) {
+        try {
+            dsmExecutor.runAsync(() -> authenticationService.logout(replaced)).whenComplete((result, e) -> {
+                if(e != null) {
+                    // Most likely already expired on the NAS
+                    LOGGER.debug("Could not log out the replaced session", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Could not log out the replaced session, the executor is shut down", e);
+        }
+    }
+
+    private boolean isCloseToIdleTimeout(long now) {
+        long refreshAfterMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds - refreshMarginSeconds);
+        return idleTimeoutSeconds > refreshMarginSeconds && now - lastUse >= refreshAfterMillis;
     }
 
     @PreDestroy
     public void destroy() {
-        authenticationService.logout(loginInformation);
+        if(loginInformation != null) {
+            authenticationService.logout(loginInformation);
+        }
     }
 }
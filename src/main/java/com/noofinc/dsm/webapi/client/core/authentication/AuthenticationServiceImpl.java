@@ -5,7 +5,7 @@ import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
 import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfo;
-import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfoService;
+import com.noofinc.dsm.webapi.client.core.apiinfo.ApiInfoRegistry;
 import com.noofinc.dsm.webapi.client.core.authentication.exception.InvalidLoginException;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiClient;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
@@ -13,8 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
-
 @Component
 public class AuthenticationServiceImpl implements AuthenticationService {
 
@@ -30,6 +28,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private static final String PARAMETER_LOGOUT = "logout";
     private static final String PARAMETER_PASSWD = "passwd";
     private static final String PARAMETER_SESSION = "session";
+    private static final String PARAMETER_SID = "_sid";
 
     // Parameters values
     private static final String PARAMETER_VALUE_SID = "sid";
@@ -39,30 +38,28 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private DsmWebapiClient restClient;
 
     @Autowired
-    private ApiInfoService apiInfoService;
-
-    private ApiInfo apiInfo;
-
-    @PostConstruct
-    public void init() {
-        this.apiInfo = apiInfoService.findOne(API_ID);
-    }
+    private ApiInfoRegistry apiInfoRegistry;
 
     @Override
     public LoginInformation login(String username, String password, String session) throws InvalidLoginException {
+        ApiInfo apiInfo = apiInfoRegistry.find(API_ID);
         DsmWebapiRequest request = new DsmWebapiRequest(apiInfo.getApi(), apiInfo.getMaxVersion(), apiInfo.getPath(), METHOD_LOGIN)
                 .parameter(PARAMETER_ACCOUNT, username)
                 .parameter(PARAMETER_PASSWD, password)
                 .parameter(PARAMETER_SESSION, session)
-                .parameter(PARAMETER_FORMAT, PARAMETER_VALUE_SID);
+                .parameter(PARAMETER_FORMAT, PARAMETER_VALUE_SID)
+                .post();
         LoginWebapiResponse response = restClient.call(request, LoginWebapiResponse.class, new LoginErrorHandler());
         return new LoginInformation(username, session, response.getData().getSid());
     }
 
     @Override
     public void logout(LoginInformation loginInformation) {
+        ApiInfo apiInfo = apiInfoRegistry.find(API_ID);
         DsmWebapiRequest request = new DsmWebapiRequest(apiInfo.getApi(), apiInfo.getMaxVersion(), apiInfo.getPath(), PARAMETER_LOGOUT)
-                .parameter(PARAMETER_SESSION, loginInformation.getSession());
+                .parameter(PARAMETER_SESSION, loginInformation.getSession())
+                // The client is unauthenticated: name the session to end, which may not be the current one
+                .parameter(PARAMETER_SID, loginInformation.getSid());
         DsmWebapiResponse response = restClient.call(request, DsmWebapiResponse.class);
     }
 
@@ -0,0 +1,76 @@
+package com.noofinc.dsm.webapi.client.core.execution;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor for blocking work. The library runs its own background work on it (api info revalidation, session renewal,
+ * reading the paths of a batch); the synchronous service methods (copy/move, delete, dir size, search...) still
+ * block the thread calling them, so callers wanting to run many of them at once submit them here, through
+ * {@link #supplyAsync} or {@link #runAsync}.
+ * <p>
+ * With {@code dsm.webapi.execution.mode=VIRTUAL} each submitted call gets its own virtual thread, so tens of thousands
+ * of synchronous operations can wait on the NAS at the same time without growing the number of platform threads.
+ * The connection pool (see {@code dsm.webapi.http.maxConnectionsPerHost}) still bounds how many requests are on the
+ * wire; the other callers wait for a connection without pinning their carrier. The mode only applies to this
+ * executor: the remote tree walker keeps its own pool, bounded by {@code dsm.webapi.walk.maxConcurrentLists}.
+ */
+@Component
+public class DsmExecutor implements InitializingBean, DisposableBean {
+
+    private static final String THREAD_NAME_PREFIX = "dsm-webapi-worker-";
+
+    @Value("${dsm.webapi.execution.mode:PLATFORM}")
+    private ExecutionMode executionMode;
+
+    @Value("${dsm.webapi.execution.platformThreads:32}")
+    private int platformThreads;
+
+    private ExecutorService executorService;
+
+    @Override
+    public void afterPropertiesSet() {
+        if(executionMode == ExecutionMode.VIRTUAL) {
+            if(!VirtualThreads.isSupported()) {
+                throw new IllegalStateException("Execution mode " + ExecutionMode.VIRTUAL + " requires Java 21 or later");
+            }
+            executorService = VirtualThreads.newThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executorService = Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executorService);
+    }
+
+    public CompletableFuture<Void> runAsync(Runnable call) {
+        return CompletableFuture.runAsync(call, executorService);
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,14 @@
+package com.noofinc.dsm.webapi.client.core.execution;
+
+public enum ExecutionMode {
+
+    /**
+     * Blocking calls submitted to {@link DsmExecutor} run on a bounded pool of platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * Every blocking call submitted to {@link DsmExecutor} runs on its own virtual thread. Requires Java 21.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,111 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection manager letting no more callers into the pool than it has connections. The others wait on a fair
+ * semaphore instead of waiting in the pool, whose lease waits inside a monitor and would pin a virtual thread to its
+ * carrier: with more virtual threads than carriers waiting there, the threads that would give the connections back
+ * never run again.
+ */
+class GatedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+
+    private final Semaphore permits;
+
+    GatedConnectionManager(HttpClientConnectionManager delegate, int maxConnections) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        return new ConnectionRequest() {
+
+            private volatile ConnectionRequest request;
+
+            private volatile boolean cancelled;
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                if(!(timeout > 0 ? permits.tryAcquire(timeout, timeUnit) : acquire())) {
+                    throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+                }
+                try {
+                    if(cancelled) {
+                        throw new InterruptedException("Connection request cancelled");
+                    }
+                    request = delegate.requestConnection(route, state);
+                    long remaining = timeout > 0 ? Math.max(1, timeUnit.toNanos(timeout) - (System.nanoTime() - start)) : 0;
+                    return request.get(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException | ExecutionException | ConnectionPoolTimeoutException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                cancelled = true;
+                ConnectionRequest current = request;
+                return current == null || current.cancel();
+            }
+        };
+    }
+
+    private boolean acquire() throws InterruptedException {
+        permits.acquire();
+        return true;
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration, TimeUnit timeUnit) {
+        try {
+            delegate.releaseConnection(connection, newState, validDuration, timeUnit);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(connection, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(connection, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+        delegate.closeIdleConnections(idleTime, timeUnit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,21 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * Provides the HTTP connections used by every RestTemplate talking to DSM.
+ * <p>
+ * Declare a bean named {@code dsmHttpTransport} to replace the default pooled implementation.
+ */
+public interface HttpTransport {
+
+    ClientHttpRequestFactory getRequestFactory();
+
+    /**
+     * Same connections as {@link #getRequestFactory()}, but request bodies are streamed instead of buffered.
+     */
+    ClientHttpRequestFactory getStreamingRequestFactory();
+
+    AsyncClientHttpRequestFactory getAsyncRequestFactory();
+}
@@ -0,0 +1,139 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive transport backed by bounded Apache HttpClient connection pools, one for blocking calls and one for the
+ * non-blocking (NIO) calls. Both pools share the same limits and timeouts.
+ */
+public class PooledHttpTransport implements HttpTransport, InitializingBean, DisposableBean {
+
+    @Value("${dsm.webapi.http.maxConnections:50}")
+    private int maxConnections;
+
+    @Value("${dsm.webapi.http.maxConnectionsPerHost:20}")
+    private int maxConnectionsPerHost;
+
+    @Value("${dsm.webapi.http.idleTimeout:30000}")
+    private long idleTimeout;
+
+    @Value("${dsm.webapi.http.validateAfterInactivity:2000}")
+    private int validateAfterInactivity;
+
+    @Value("${dsm.webapi.http.connectTimeout:10000}")
+    private int connectTimeout;
+
+    @Value("${dsm.webapi.http.readTimeout:60000}")
+    private int readTimeout;
+
+    @Value("${dsm.webapi.http.connectionRequestTimeout:30000}")
+    private int connectionRequestTimeout;
+
+    private CloseableHttpClient httpClient;
+
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    private ScheduledExecutorService asyncConnectionEvictor;
+
+    @Override
+    public void afterPropertiesSet() throws IOReactorException {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+
+        httpClient = HttpClients.custom()
+                // Callers beyond the pool size wait outside of it, see GatedConnectionManager
+                .setConnectionManager(new GatedConnectionManager(connectionManager, Math.min(maxConnections, maxConnectionsPerHost)))
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+
+        PoolingNHttpClientConnectionManager asyncConnectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+        asyncConnectionManager.setMaxTotal(maxConnections);
+        asyncConnectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        httpAsyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(asyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        httpAsyncClient.start();
+
+        // The NIO client has no built-in evictor
+        asyncConnectionEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dsm-webapi-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000, idleTimeout / 2);
+        asyncConnectionEvictor.scheduleWithFixedDelay(() -> {
+            asyncConnectionManager.closeExpiredConnections();
+            asyncConnectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        }, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Override
+    public ClientHttpRequestFactory getStreamingRequestFactory() {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setBufferRequestBody(false);
+        return factory;
+    }
+
+    @Override
+    public AsyncClientHttpRequestFactory getAsyncRequestFactory() {
+        return new HttpComponentsAsyncClientHttpRequestFactory(httpClient, httpAsyncClient);
+    }
+
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public CloseableHttpAsyncClient getHttpAsyncClient() {
+        return httpAsyncClient;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if(asyncConnectionEvictor != null) {
+            asyncConnectionEvictor.shutdownNow();
+        }
+        if(httpAsyncClient != null) {
+            httpAsyncClient.close();
+        }
+        if(httpClient != null) {
+            httpClient.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+public class SimpleHttpTransport implements HttpTransport {
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return new SimpleClientHttpRequestFactory();
+    }
+
+    @Override
+    public ClientHttpRequestFactory getStreamingRequestFactory() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setBufferRequestBody(false);
+        return factory;
+    }
+
+    @Override
+    public AsyncClientHttpRequestFactory getAsyncRequestFactory() {
+        // Not actually non-blocking: every request holds a thread while waiting for the response
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setTaskExecutor(new SimpleAsyncTaskExecutor("dsm-webapi-async-"));
+        return factory;
+    }
+}
@@ -19,8 +19,8 @@ public class BackgroundTask {
     //Map<String, Object> params;
     String path;
     String processingPath;
-    Integer progress;
-    Integer total;
+    Double progress;
+    Long total;
 
 
     @JsonCreator
@@ -33,8 +33,8 @@ public class BackgroundTask {
             //@JsonProperty("params") Map<String, Object> params,
             @JsonProperty("path") String path,
             @JsonProperty("processing_path") String processingPath,
-            @JsonProperty("progress") Integer progress,
-            @JsonProperty("total") Integer total
+            @JsonProperty("progress") Double progress,
+            @JsonProperty("total") Long total
     ) {
         this.api = api;
         this.version = version;
@@ -48,6 +48,45 @@ public class BackgroundTask {
         this.total = total;
     }
 
+    public String getApi() {
+        return api;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public boolean isFinished() {
+        return Boolean.TRUE.equals(finished);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getProcessingPath() {
+        return processingPath;
+    }
+
+    /**
+     * Between 0 and 1, null when unknown.
+     */
+    public Double getProgress() {
+        return progress;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
 
     public static class TaskList extends PaginatedList<BackgroundTask> {
 
@@ -2,13 +2,23 @@ package com.noofinc.dsm.webapi.client.filestation.background;
 
 
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BackgroundTaskService {
     BackgroundTask.TaskList list();
     BackgroundTask.TaskList list(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter);
+    CompletableFuture<BackgroundTask.TaskList> listAsync(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter);
+    /**
+     * Hands each task to the consumer as soon as it is parsed, returns the total number of tasks.
+     */
+    int list(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter, Consumer<? super BackgroundTask> consumer);
+    Stream<BackgroundTask> stream(StreamOptions options);
     void clear(List<String> taskIds);
     void clear();
 
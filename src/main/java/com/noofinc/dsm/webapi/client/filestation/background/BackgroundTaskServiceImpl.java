@@ -6,11 +6,16 @@ import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
 public class BackgroundTaskServiceImpl extends AbstractDsmServiceImpl implements BackgroundTaskService {
@@ -29,6 +34,10 @@ public class BackgroundTaskServiceImpl extends AbstractDsmServiceImpl implements
     private static final String PARAMETER_API_FILTER = "api_filter";
     private static final String PARAMETER_TASKID = "taskid";
 
+    // Response fields
+    private static final String FIELD_TASKS = "tasks";
+    private static final String FIELD_TOTAL = "total";
+
     public BackgroundTaskServiceImpl() { super(API_ID); }
 
     @Override
@@ -38,17 +47,39 @@ public class BackgroundTaskServiceImpl extends AbstractDsmServiceImpl implements
 
     @Override
     public BackgroundTask.TaskList list(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter) {
+        BackgroundTaskListResponse response = getDsmWebapiClient().call(buildListRequest(paginationAndSorting, apiFilter), BackgroundTaskListResponse.class);
+        return response.getData();
+
+    }
+
+    @Override
+    public CompletableFuture<BackgroundTask.TaskList> listAsync(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter) {
+        return getDsmWebapiClient().callAsync(buildListRequest(paginationAndSorting, apiFilter), BackgroundTaskListResponse.class)
+                .thenApply(BackgroundTaskListResponse::getData);
+    }
+
+    @Override
+    public int list(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter, Consumer<? super BackgroundTask> consumer) {
+        return getDsmWebapiClient().callStreaming(buildListRequest(paginationAndSorting, apiFilter), FIELD_TASKS, BackgroundTask.class, consumer, null)
+                .path(FIELD_TOTAL).asInt();
+    }
+
+    @Override
+    public Stream<BackgroundTask> stream(StreamOptions options) {
+        return PageSpliterator.stream(page -> getDsmWebapiClient().callAsync(buildListRequest(page, Optional.<String>empty()), BackgroundTaskListResponse.class)
+                .thenApply(BackgroundTaskListResponse::getData), options);
+    }
+
+    private DsmWebapiRequest buildListRequest(PaginationAndSorting paginationAndSorting, Optional<String> apiFilter) {
         DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_LIST)
                 .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
                 .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
                 ;
 
         if (apiFilter != null && apiFilter.isPresent()) {
-            request.parameter(PARAMETER_API_FILTER, apiFilter);
+            request.parameter(PARAMETER_API_FILTER, apiFilter.get());
         }
-        BackgroundTaskListResponse response = getDsmWebapiClient().call(request, BackgroundTaskListResponse.class);
-        return response.getData();
-
+        return request;
     }
 
     @Override
@@ -0,0 +1,44 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Values of the {@code additional} parameter of the list, getinfo, search and share list calls. DSM only computes and
+ * sends the requested fields; the others are absent from the model: {@code null}, {@link com.noofinc.dsm.webapi.client.filestation.filelist.FileProperties#UNKNOWN_SIZE} or
+ * {@link CompactFile#UNKNOWN}.
+ */
+public enum AdditionalField {
+    REAL_PATH("real_path"), SIZE("size"), OWNER("owner"), TIME("time"), PERM("perm"), TYPE("type"), MOUNT_POINT_TYPE("mount_point_type"),
+    // Shares only
+    SYNC_SHARE("sync_share"), VOLUME_STATUS("volume_status");
+
+    public static final Set<AdditionalField> NONE = Collections.unmodifiableSet(EnumSet.noneOf(AdditionalField.class));
+
+    /**
+     * Every field of a file: {@code real_path,size,owner,time,perm,type}.
+     */
+    public static final Set<AdditionalField> FILE_FIELDS = Collections.unmodifiableSet(EnumSet.range(REAL_PATH, TYPE));
+
+    private final String representation;
+
+    AdditionalField(String representation) {
+        this.representation = representation;
+    }
+
+    public String getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * Joins the fields in declaration order, so equal sets always give the same parameter value.
+     */
+    public static String join(Set<AdditionalField> fields) {
+        return fields.stream()
+                .sorted()
+                .map(AdditionalField::getRepresentation)
+                .collect(Collectors.joining(","));
+    }
+}
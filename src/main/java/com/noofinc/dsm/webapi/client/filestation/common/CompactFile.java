@@ -0,0 +1,177 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.noofinc.dsm.webapi.client.core.timezone.TimeZoneUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Memory-lean alternative to {@link File} for catalogs of millions of entries: times are epoch seconds, size is a
+ * long, owner, group and types are shared through {@link StringDictionary}, and the directory flag, posix mode and
+ * ACL are packed into a single int. The name is derived from the path, the real path and children are not kept.
+ * <p>
+ * Times and size are {@link #UNKNOWN} when the NAS did not return them.
+ */
+@JsonDeserialize(using = CompactFileDeserializer.class)
+public class CompactFile {
+
+    public static final long UNKNOWN = -1;
+
+    // posix is the octal mode written in decimal by DSM (e.g. 755), at most 7777: 13 bits
+    static final int POSIX_MASK = 0x1FFF;
+    static final int FLAG_DIRECTORY = 1 << 13;
+    static final int FLAG_ACL_MODE = 1 << 14;
+    static final int FLAG_ACL_APPEND = 1 << 15;
+    static final int FLAG_ACL_DELETE = 1 << 16;
+    static final int FLAG_ACL_EXECUTE = 1 << 17;
+    static final int FLAG_ACL_READ = 1 << 18;
+    static final int FLAG_ACL_WRITE = 1 << 19;
+
+    private final String path;
+    private final String owner;
+    private final String group;
+    private final String type;
+    private final String mountPointType;
+    private final long size;
+    private final long lastAccessTime;
+    private final long lastModificationTime;
+    private final long lastChangeTime;
+    private final long creationTime;
+    private final int uid;
+    private final int gid;
+    private final int flags;
+
+    CompactFile(String path, String owner, String group, String type, String mountPointType, long size,
+                long lastAccessTime, long lastModificationTime, long lastChangeTime, long creationTime, int uid, int gid, int flags) {
+        this.path = path;
+        this.owner = StringDictionary.intern(owner);
+        this.group = StringDictionary.intern(group);
+        this.type = StringDictionary.intern(type);
+        this.mountPointType = StringDictionary.intern(mountPointType);
+        this.size = size;
+        this.lastAccessTime = lastAccessTime;
+        this.lastModificationTime = lastModificationTime;
+        this.lastChangeTime = lastChangeTime;
+        this.creationTime = creationTime;
+        this.uid = uid;
+        this.gid = gid;
+        this.flags = flags;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    public boolean isDirectory() {
+        return (flags & FLAG_DIRECTORY) != 0;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    public int getGid() {
+        return gid;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getMountPointType() {
+        return mountPointType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastAccessEpochSecond() {
+        return lastAccessTime;
+    }
+
+    public long getLastModificationEpochSecond() {
+        return lastModificationTime;
+    }
+
+    public long getLastChangeEpochSecond() {
+        return lastChangeTime;
+    }
+
+    public long getCreationEpochSecond() {
+        return creationTime;
+    }
+
+    public LocalDateTime getLastAccessTime() {
+        return toLocalDateTime(lastAccessTime);
+    }
+
+    public LocalDateTime getLastModificationTime() {
+        return toLocalDateTime(lastModificationTime);
+    }
+
+    public LocalDateTime getLastChangeTime() {
+        return toLocalDateTime(lastChangeTime);
+    }
+
+    public LocalDateTime getCreationTime() {
+        return toLocalDateTime(creationTime);
+    }
+
+    public int getPosix() {
+        return flags & POSIX_MASK;
+    }
+
+    public boolean isAclMode() {
+        return (flags & FLAG_ACL_MODE) != 0;
+    }
+
+    public boolean isAclAppend() {
+        return (flags & FLAG_ACL_APPEND) != 0;
+    }
+
+    public boolean isAclDelete() {
+        return (flags & FLAG_ACL_DELETE) != 0;
+    }
+
+    public boolean isAclExecute() {
+        return (flags & FLAG_ACL_EXECUTE) != 0;
+    }
+
+    public boolean isAclRead() {
+        return (flags & FLAG_ACL_READ) != 0;
+    }
+
+    public boolean isAclWrite() {
+        return (flags & FLAG_ACL_WRITE) != 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond) {
+        return epochSecond == UNKNOWN ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, TimeZoneUtil.getOffset());
+    }
+
+    public static class CompactFileList extends PaginatedList<CompactFile> {
+
+        @JsonCreator
+        public CompactFileList(@JsonProperty("total") int total,
+                               @JsonProperty("offset") int offset,
+                               @JsonProperty("files") List<CompactFile> files) {
+            super(total, offset, files);
+        }
+    }
+}
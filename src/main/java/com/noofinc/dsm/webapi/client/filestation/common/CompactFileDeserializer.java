@@ -0,0 +1,158 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a listing entry straight into a {@link CompactFile}, without building the intermediate objects of
+ * {@link File}. Entries without a name, as getinfo returns for missing paths, get a null path.
+ */
+public class CompactFileDeserializer extends StdDeserializer<CompactFile> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected CompactFileDeserializer() {
+        super(CompactFile.class);
+    }
+
+    @Override
+    public CompactFile deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        Entry entry = new Entry();
+        readObject(parser, entry, Section.FILE);
+        String path = entry.name == null ? null : entry.path;
+        return new CompactFile(path, entry.owner, entry.group, entry.type, entry.mountPointType, entry.size,
+                entry.lastAccessTime, entry.lastModificationTime, entry.lastChangeTime, entry.creationTime, entry.uid, entry.gid, entry.flags);
+    }
+
+    private enum Section { FILE, ADDITIONAL, OWNER, TIME, PERM, ACL }
+
+    private static class Entry {
+        private String name;
+        private String path;
+        private String owner;
+        private String group;
+        private String type;
+        private String mountPointType;
+        private long size = CompactFile.UNKNOWN;
+        private long lastAccessTime = CompactFile.UNKNOWN;
+        private long lastModificationTime = CompactFile.UNKNOWN;
+        private long lastChangeTime = CompactFile.UNKNOWN;
+        private long creationTime = CompactFile.UNKNOWN;
+        private int uid;
+        private int gid;
+        private int flags;
+    }
+
+    private static void readObject(JsonParser parser, Entry entry, Section section) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if(token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if(value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if(value == JsonToken.START_OBJECT) {
+                Section child = childSection(section, field);
+                if(child != null) {
+                    readObject(parser, entry, child);
+                } else {
+                    parser.skipChildren();
+                }
+            } else if(value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, entry, section, field);
+            }
+        }
+    }
+
+    private static Section childSection(Section section, String field) {
+        switch (section) {
+            case FILE:
+                return "additional".equals(field) ? Section.ADDITIONAL : null;
+            case ADDITIONAL:
+                switch (field) {
+                    case "owner": return Section.OWNER;
+                    case "time": return Section.TIME;
+                    case "perm": return Section.PERM;
+                    default: return null;
+                }
+            case PERM:
+                return "acl".equals(field) ? Section.ACL : null;
+            default:
+                return null;
+        }
+    }
+
+    private static void readValue(JsonParser parser, Entry entry, Section section, String field) throws IOException {
+        switch (section) {
+            case FILE:
+                switch (field) {
+                    case "name": entry.name = parser.getText(); break;
+                    case "path": entry.path = parser.getText(); break;
+                    case "isdir": flag(parser, entry, CompactFile.FLAG_DIRECTORY); break;
+                    default: break;
+                }
+                break;
+            case ADDITIONAL:
+                switch (field) {
+                    case "size": entry.size = parser.getValueAsLong(CompactFile.UNKNOWN); break;
+                    case "type": entry.type = parser.getText(); break;
+                    case "mount_point_type": entry.mountPointType = parser.getText(); break;
+                    default: break;
+                }
+                break;
+            case OWNER:
+                switch (field) {
+                    case "user": entry.owner = parser.getText(); break;
+                    case "group": entry.group = parser.getText(); break;
+                    case "uid": entry.uid = parser.getValueAsInt(); break;
+                    case "gid": entry.gid = parser.getValueAsInt(); break;
+                    default: break;
+                }
+                break;
+            case TIME:
+                long epochSecond = parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : CompactFile.UNKNOWN;
+                switch (field) {
+                    case "atime": entry.lastAccessTime = epochSecond; break;
+                    case "mtime": entry.lastModificationTime = epochSecond; break;
+                    case "ctime": entry.lastChangeTime = epochSecond; break;
+                    case "crtime": entry.creationTime = epochSecond; break;
+                    default: break;
+                }
+                break;
+            case PERM:
+                switch (field) {
+                    case "posix": entry.flags |= parser.getValueAsInt() & CompactFile.POSIX_MASK; break;
+                    case "is_acl_mode": flag(parser, entry, CompactFile.FLAG_ACL_MODE); break;
+                    default: break;
+                }
+                break;
+            case ACL:
+                switch (field) {
+                    case "append": flag(parser, entry, CompactFile.FLAG_ACL_APPEND); break;
+                    case "del": flag(parser, entry, CompactFile.FLAG_ACL_DELETE); break;
+                    case "exec": flag(parser, entry, CompactFile.FLAG_ACL_EXECUTE); break;
+                    case "read": flag(parser, entry, CompactFile.FLAG_ACL_READ); break;
+                    case "write": flag(parser, entry, CompactFile.FLAG_ACL_WRITE); break;
+                    default: break;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void flag(JsonParser parser, Entry entry, int flag) throws IOException {
+        if(parser.getValueAsBoolean()) {
+            entry.flags |= flag;
+        }
+    }
+}
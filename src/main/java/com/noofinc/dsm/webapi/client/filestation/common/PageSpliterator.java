@@ -0,0 +1,116 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a paginated listing one page at a time. While a page is consumed the following ones are already requested,
+ * up to {@link StreamOptions#getMaxPages()} pages held in total. The first page is awaited before anything else is
+ * requested, since it gives the total.
+ */
+public class PageSpliterator<T> implements Spliterator<T>, AutoCloseable {
+
+    private final Function<PaginationAndSorting, CompletableFuture<? extends PaginatedList<T>>> pageFetcher;
+    private final StreamOptions options;
+    private final Deque<CompletableFuture<? extends PaginatedList<T>>> pendingPages = new ArrayDeque<>();
+
+    private Iterator<T> currentPage = Collections.emptyIterator();
+    private int nextOffset;
+    private int consumed;
+    private int total = -1;
+
+    public PageSpliterator(Function<PaginationAndSorting, CompletableFuture<? extends PaginatedList<T>>> pageFetcher, StreamOptions options) {
+        this.pageFetcher = pageFetcher;
+        this.options = options;
+    }
+
+    public static <T> Stream<T> stream(Function<PaginationAndSorting, CompletableFuture<? extends PaginatedList<T>>> pageFetcher, StreamOptions options) {
+        PageSpliterator<T> spliterator = new PageSpliterator<>(pageFetcher, options);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while(!currentPage.hasNext()) {
+            if(!nextPage()) {
+                return false;
+            }
+        }
+        consumed++;
+        action.accept(currentPage.next());
+        return true;
+    }
+
+    private boolean nextPage() {
+        if(pendingPages.isEmpty()) {
+            if(!hasMorePages()) {
+                return false;
+            }
+            requestPage();
+        }
+        PaginatedList<T> page = join(pendingPages.poll());
+        if(page.getElements().isEmpty()) {
+            // The listing shrank while being walked
+            close();
+            total = consumed;
+            return false;
+        }
+        total = page.getTotal();
+        currentPage = page.getElements().iterator();
+        while(pendingPages.size() < options.getMaxPages() - 1 && hasMorePages()) {
+            requestPage();
+        }
+        return true;
+    }
+
+    private boolean hasMorePages() {
+        return total < 0 || nextOffset < total;
+    }
+
+    private void requestPage() {
+        pendingPages.add(pageFetcher.apply(options.page(nextOffset)));
+        nextOffset += options.getPageSize();
+    }
+
+    private static <P> P join(CompletableFuture<P> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        // Pages are already fetched concurrently, splitting would only defeat the memory bound
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return total < 0 ? Long.MAX_VALUE : Math.max(0, total - consumed);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Drops the prefetched pages; responses still on the wire are discarded when they arrive.
+     */
+    @Override
+    public void close() {
+        pendingPages.forEach(page -> page.cancel(false));
+        pendingPages.clear();
+    }
+}
@@ -0,0 +1,66 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.noofinc.dsm.webapi.client.core.QueryStringEncoder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits path lists into the comma separated chunks sent as one {@code path} parameter.
+ */
+public final class PathChunks {
+
+    private PathChunks() {
+        throw new UnsupportedOperationException("Cannot instantiate");
+    }
+
+    /**
+     * Splits the paths so that each comma separated chunk encodes to at most {@code maxLength} characters. A path
+     * longer than that on its own gets a chunk of its own.
+     */
+    public static List<List<String>> chunk(List<String> paths, int maxLength) {
+        List<List<String>> chunks = new ArrayList<>();
+        chunk(paths.iterator(), maxLength).forEachRemaining(chunks::add);
+        return chunks;
+    }
+
+    /**
+     * Lazy counterpart of {@link #chunk(List, int)}: the paths are read as the chunks are, one chunk ahead at most.
+     */
+    public static Iterator<List<String>> chunk(Iterator<String> paths, int maxLength) {
+        return new Iterator<List<String>>() {
+
+            private String pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || paths.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<String> chunk = new ArrayList<>();
+                int length = 0;
+                while (pending != null || paths.hasNext()) {
+                    String path = pending != null ? pending : paths.next();
+                    pending = null;
+                    int pathLength = QueryStringEncoder.encodedLength(path);
+                    int separatorLength = chunk.isEmpty() ? 0 : 1;
+                    if(!chunk.isEmpty() && length + separatorLength + pathLength > maxLength) {
+                        // Opens the next chunk
+                        pending = path;
+                        break;
+                    }
+                    chunk.add(path);
+                    length += separatorLength + pathLength;
+                }
+                return chunk;
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+/**
+ * How a listing is streamed: {@code pageSize} elements are requested per call, and at most {@code maxPages} pages are
+ * held at a time, the one being consumed plus the ones prefetched ahead of it.
+ */
+public class StreamOptions {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int DEFAULT_MAX_PAGES = 2;
+
+    private static final StreamOptions DEFAULT_STREAM_OPTIONS = createBuilder().build();
+
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int maxPages = DEFAULT_MAX_PAGES;
+    private PaginationAndSorting.Sort sortBy = PaginationAndSorting.Sort.NAME;
+    private PaginationAndSorting.SortDirection sortDirection = PaginationAndSorting.SortDirection.ASC;
+
+    private StreamOptions() {
+        super();
+    }
+
+    private StreamOptions(StreamOptions streamOptions) {
+        this.pageSize = streamOptions.pageSize;
+        this.maxPages = streamOptions.maxPages;
+        this.sortBy = streamOptions.sortBy;
+        this.sortDirection = streamOptions.sortDirection;
+    }
+
+    public static StreamOptions getDefaultStreamOptions() {
+        return DEFAULT_STREAM_OPTIONS;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public PaginationAndSorting.Sort getSortBy() {
+        return sortBy;
+    }
+
+    public PaginationAndSorting.SortDirection getSortDirection() {
+        return sortDirection;
+    }
+
+    PaginationAndSorting page(int offset) {
+        return new PaginationAndSorting(offset, pageSize, sortBy, sortDirection);
+    }
+
+    public static StreamOptionsBuilder createBuilder() {
+        return new StreamOptionsBuilder();
+    }
+
+    public static class StreamOptionsBuilder {
+
+        private StreamOptions template = new StreamOptions();
+
+        private StreamOptionsBuilder() {
+            super();
+        }
+
+        public StreamOptionsBuilder pageSize(int pageSize) {
+            if(pageSize <= 0) {
+                throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+            }
+            template.pageSize = pageSize;
+            return this;
+        }
+
+        public StreamOptionsBuilder maxPages(int maxPages) {
+            if(maxPages <= 0) {
+                throw new IllegalArgumentException("Max pages must be positive: " + maxPages);
+            }
+            template.maxPages = maxPages;
+            return this;
+        }
+
+        public StreamOptionsBuilder sortBy(PaginationAndSorting.Sort sortBy) {
+            template.sortBy = sortBy;
+            return this;
+        }
+
+        public StreamOptionsBuilder sortDirection(PaginationAndSorting.SortDirection sortDirection) {
+            template.sortDirection = sortDirection;
+            return this;
+        }
+
+        public StreamOptions build() {
+            return new StreamOptions(template);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares one instance of the strings that repeat across millions of entries: owner and group names, file types,
+ * mount point types. Once {@link #MAX_SIZE} distinct strings are held, new ones are returned as they are.
+ */
+public final class StringDictionary {
+
+    public static final int MAX_SIZE = 1 << 16;
+
+    private static final ConcurrentMap<String, String> STRINGS = new ConcurrentHashMap<>();
+
+    private StringDictionary() {
+        throw new UnsupportedOperationException("Cannot instantiate");
+    }
+
+    public static String intern(String value) {
+        if(value == null) {
+            return null;
+        }
+        String shared = STRINGS.get(value);
+        if(shared != null) {
+            return shared;
+        }
+        if(STRINGS.size() >= MAX_SIZE) {
+            return value;
+        }
+        shared = STRINGS.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+}
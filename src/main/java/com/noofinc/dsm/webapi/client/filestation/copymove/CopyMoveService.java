@@ -1,9 +1,13 @@
 package com.noofinc.dsm.webapi.client.filestation.copymove;
 
 import com.noofinc.dsm.webapi.client.filestation.common.OverwriteBehavior;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
 
 @Service
 public interface CopyMoveService {
@@ -21,4 +25,35 @@ public interface CopyMoveService {
     void synchronousCopy(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
 
     void synchronousMove(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
+
+    CompletableFuture<String> startAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior, boolean removeSource, boolean accurateProgress, Optional<String> searchTaskId);
+
+    CompletableFuture<CopyMoveStatus> statusAsync(String taskId);
+
+    CompletableFuture<Void> stopAsync(String taskId);
+
+    /**
+     * Starts a copy and completes with the final status once the task is finished.
+     */
+    CompletableFuture<CopyMoveStatus> copyAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
+
+    /**
+     * Starts a move and completes with the final status once the task is finished.
+     */
+    CompletableFuture<CopyMoveStatus> moveAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
+
+    /**
+     * Copies all the paths into the folder, packing them into as few tasks as the request size allows and running
+     * several tasks at a time. Failed paths are reported by the result rather than thrown.
+     */
+    TaskBatchResult copyAll(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
+
+    TaskBatchResult moveAll(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior);
+
+    /**
+     * Same as {@link #copyAll}; the listener, if any, gets the share of the paths copied so far, between 0 and 1.
+     */
+    CompletableFuture<TaskBatchResult> copyAllAsync(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior, DoubleConsumer progressListener);
+
+    CompletableFuture<TaskBatchResult> moveAllAsync(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior, DoubleConsumer progressListener);
 }
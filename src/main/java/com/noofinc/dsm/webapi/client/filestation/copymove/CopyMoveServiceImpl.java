@@ -8,16 +8,28 @@ import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
 import com.noofinc.dsm.webapi.client.filestation.common.OverwriteBehavior;
+import com.noofinc.dsm.webapi.client.filestation.common.PathChunks;
 import com.noofinc.dsm.webapi.client.filestation.common.TaskId;
 import com.noofinc.dsm.webapi.client.filestation.exception.CouldNotCopyOrMoveFilesException;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileAlreadyExistsException;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
-import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileMetadataCache;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskSupervisor;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskType;
 import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.DoubleConsumer;
 
 @Service
 public class CopyMoveServiceImpl extends AbstractDsmServiceImpl implements CopyMoveService {
@@ -47,6 +59,18 @@ public class CopyMoveServiceImpl extends AbstractDsmServiceImpl implements CopyM
     @Value("${dsm.webapi.synchronousCopyMove.timeout:30}")
     private int synchronousCopyMoveTimeout;
 
+    @Value("${dsm.webapi.copyMove.maxPathLength:32000}")
+    private int batchMaxPathLength;
+
+    @Value("${dsm.webapi.copyMove.maxConcurrentTasks:4}")
+    private int batchMaxConcurrentTasks;
+
+    @Autowired
+    private TaskSupervisor taskSupervisor;
+
+    @Autowired
+    private FileMetadataCache metadataCache;
+
     public CopyMoveServiceImpl() {
         super(API_ID);
     }
@@ -63,30 +87,22 @@ public class CopyMoveServiceImpl extends AbstractDsmServiceImpl implements CopyM
 
     @Override
     public String start(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior, boolean removeSource, boolean accurateProgress, Optional<String> searchTaskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
-                .parameter(PARAMETER_PATH, path)
-                .parameter(PARAMETER_DEST_FOLDER_PATH, destinationFolderPath)
-                .optionalParameter(PARAMETER_OVERWRITE, getOverwriteParameterValue(overwriteBehavior))
-                .parameter(PARAMETER_REMOVE_SRC, removeSource ? PARAMETER_VALUE_TRUE : PARAMETER_VALUE_FALSE)
-                .parameter(PARAMETER_ACCURATE_PROGRESS, accurateProgress ? PARAMETER_VALUE_TRUE : PARAMETER_VALUE_FALSE)
-                .optionalParameter(PARAMETER_SEARCH_TASKID, searchTaskId);
+        DsmWebapiRequest request = buildStartRequest(path, destinationFolderPath, overwriteBehavior, removeSource, accurateProgress, searchTaskId);
         StartCopyMoveResponse response = getDsmWebapiClient().call(request, StartCopyMoveResponse.class, new CopyMoveErrorHandler());
+        taskStarted(response.getData().getTaskId(), path, destinationFolderPath, searchTaskId);
         return response.getData().getTaskId();
     }
 
     @Override
     public CopyMoveStatus status(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_STATUS)
-                .parameter(PARAMETER_TASKID, taskId);
-        CopyMoveStatusResponse response = getDsmWebapiClient().call(request, CopyMoveStatusResponse.class, new CopyMoveErrorHandler());
+        CopyMoveStatusResponse response = getDsmWebapiClient().call(buildTaskRequest(METHOD_STATUS, taskId), CopyMoveStatusResponse.class, new CopyMoveErrorHandler());
+        taskStatus(taskId, response.getData());
         return response.getData();
     }
 
     @Override
     public void stop(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_STOP)
-                .parameter(PARAMETER_TASKID, taskId);
-        getDsmWebapiClient().call(request, DsmWebapiResponse.class, new CopyMoveErrorHandler());
+        getDsmWebapiClient().call(buildTaskRequest(METHOD_STOP, taskId), DsmWebapiResponse.class, new CopyMoveErrorHandler());
     }
 
     @Override
@@ -99,6 +115,120 @@ public class CopyMoveServiceImpl extends AbstractDsmServiceImpl implements CopyM
         waitForCompletion(startMove(path, destinationFolderPath, overwriteBehavior));
     }
 
+    @Override
+    public CompletableFuture<String> startAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior, boolean removeSource, boolean accurateProgress, Optional<String> searchTaskId) {
+        DsmWebapiRequest request = buildStartRequest(path, destinationFolderPath, overwriteBehavior, removeSource, accurateProgress, searchTaskId);
+        return getDsmWebapiClient().callAsync(request, StartCopyMoveResponse.class, new CopyMoveErrorHandler())
+                .thenApply(response -> {
+                    taskStarted(response.getData().getTaskId(), path, destinationFolderPath, searchTaskId);
+                    return response.getData().getTaskId();
+                });
+    }
+
+    @Override
+    public CompletableFuture<CopyMoveStatus> statusAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest(METHOD_STATUS, taskId), CopyMoveStatusResponse.class, new CopyMoveErrorHandler())
+                .thenApply(response -> {
+                    taskStatus(taskId, response.getData());
+                    return response.getData();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest(METHOD_STOP, taskId), DsmWebapiResponse.class, new CopyMoveErrorHandler())
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<CopyMoveStatus> copyAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior) {
+        return startAsync(path, destinationFolderPath, overwriteBehavior, false, true, Optional.empty())
+                .thenCompose(this::waitForCompletionAsync);
+    }
+
+    @Override
+    public CompletableFuture<CopyMoveStatus> moveAsync(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior) {
+        return startAsync(path, destinationFolderPath, overwriteBehavior, true, true, Optional.empty())
+                .thenCompose(this::waitForCompletionAsync);
+    }
+
+    @Override
+    public TaskBatchResult copyAll(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior) {
+        return join(copyAllAsync(paths, destinationFolderPath, overwriteBehavior, null));
+    }
+
+    @Override
+    public TaskBatchResult moveAll(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior) {
+        return join(moveAllAsync(paths, destinationFolderPath, overwriteBehavior, null));
+    }
+
+    @Override
+    public CompletableFuture<TaskBatchResult> copyAllAsync(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior, DoubleConsumer progressListener) {
+        return startBatch(paths, destinationFolderPath, overwriteBehavior, false, progressListener);
+    }
+
+    @Override
+    public CompletableFuture<TaskBatchResult> moveAllAsync(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior, DoubleConsumer progressListener) {
+        return startBatch(paths, destinationFolderPath, overwriteBehavior, true, progressListener);
+    }
+
+    private CompletableFuture<TaskBatchResult> startBatch(Collection<String> paths, String destinationFolderPath, OverwriteBehavior overwriteBehavior, boolean removeSource, DoubleConsumer progressListener) {
+        // Long path lists are posted, so the cap is about what a task should hold rather than the URL length
+        List<List<String>> chunks = PathChunks.chunk(new ArrayList<>(new LinkedHashSet<>(paths)), batchMaxPathLength);
+        return taskSupervisor.runBatch(TaskType.COPY_MOVE, chunks, batchMaxConcurrentTasks,
+                chunk -> startAsync(String.join(",", chunk), destinationFolderPath, overwriteBehavior, removeSource, true, Optional.empty()),
+                this::stopAsync, progressListener);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private CompletableFuture<CopyMoveStatus> waitForCompletionAsync(String taskId) {
+        return taskSupervisor.supervise(TaskType.COPY_MOVE, taskId, synchronousCopyMoveTimeout * 1000L)
+                .thenApply(result -> result.getStatus(CopyMoveStatus.class))
+                .whenComplete((status, error) -> stopAsync(taskId));
+    }
+
+    private void taskStarted(String taskId, String path, String destinationFolderPath, Optional<String> searchTaskId) {
+        if(searchTaskId.isPresent()) {
+            // The copied or moved paths are search results, unknown here
+            metadataCache.invalidateAll();
+            return;
+        }
+        List<String> paths = new ArrayList<>();
+        for (String source : FileMetadataCache.splitPaths(path)) {
+            paths.add(source);
+            paths.add(FileMetadataCache.childPath(destinationFolderPath, FilenameUtils.getName(source)));
+        }
+        metadataCache.taskStarted(taskId, paths);
+    }
+
+    private void taskStatus(String taskId, CopyMoveStatus status) {
+        if(status.isFinished()) {
+            metadataCache.taskFinished(taskId);
+        }
+    }
+
+    private DsmWebapiRequest buildStartRequest(String path, String destinationFolderPath, OverwriteBehavior overwriteBehavior, boolean removeSource, boolean accurateProgress, Optional<String> searchTaskId) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
+                .parameter(PARAMETER_PATH, path)
+                .parameter(PARAMETER_DEST_FOLDER_PATH, destinationFolderPath)
+                .optionalParameter(PARAMETER_OVERWRITE, getOverwriteParameterValue(overwriteBehavior))
+                .parameter(PARAMETER_REMOVE_SRC, removeSource ? PARAMETER_VALUE_TRUE : PARAMETER_VALUE_FALSE)
+                .parameter(PARAMETER_ACCURATE_PROGRESS, accurateProgress ? PARAMETER_VALUE_TRUE : PARAMETER_VALUE_FALSE)
+                .optionalParameter(PARAMETER_SEARCH_TASKID, searchTaskId);
+    }
+
+    private DsmWebapiRequest buildTaskRequest(String method, String taskId) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), method)
+                .parameter(PARAMETER_TASKID, taskId);
+    }
+
     private Optional<String> getOverwriteParameterValue(OverwriteBehavior overwriteBehavior) {
         switch (overwriteBehavior) {
             case OVERWRITE:
@@ -111,20 +241,10 @@ public class CopyMoveServiceImpl extends AbstractDsmServiceImpl implements CopyM
 
     private void waitForCompletion(String taskId) {
         try {
-            long start = System.currentTimeMillis();
-            while (System.currentTimeMillis() - start <= synchronousCopyMoveTimeout * 1000) {
-                CopyMoveStatus status = this.status(taskId);
-                if(status.isFinished()) {
-                    return;
-                }
-                Thread.sleep(100);
-            }
-        } catch (InterruptedException e) {
-            throw new IllegalStateException("Thread interrupted", e);
+            taskSupervisor.waitFor(TaskType.COPY_MOVE, taskId, synchronousCopyMoveTimeout * 1000L);
         } finally {
             stop(taskId);
         }
-        throw new TaskTimeOutException();
     }
 
     private static class StartCopyMoveResponse extends DsmWebapiResponse<TaskId> {
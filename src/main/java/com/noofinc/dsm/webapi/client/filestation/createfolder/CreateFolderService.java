@@ -2,9 +2,13 @@ package com.noofinc.dsm.webapi.client.filestation.createfolder;
 
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface CreateFolderService {
 
     File createFolder(String parentPath, String name);
 
     File createFolder(String parentPath, String name, boolean createParents);
+
+    CompletableFuture<File> createFolderAsync(String parentPath, String name, boolean createParents);
 }
@@ -7,13 +7,17 @@ import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 import com.noofinc.dsm.webapi.client.filestation.exception.CouldNotCreateFolderException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileMetadataCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class CreateFolderServiceImpl extends AbstractDsmServiceImpl implements CreateFolderService {
@@ -32,7 +36,10 @@ public class CreateFolderServiceImpl extends AbstractDsmServiceImpl implements C
     private static final String PARAMETER_NAME = "name";
 
     // Parameters values
-    private static final String PARAMETER_VALUE_ADDITIONAL = "real_path,size,owner,time,perm,type";
+    private static final String PARAMETER_VALUE_ADDITIONAL = AdditionalField.join(AdditionalField.FILE_FIELDS);
+
+    @Autowired
+    private FileMetadataCache metadataCache;
 
     public CreateFolderServiceImpl() {
         super(API_ID);
@@ -45,13 +52,28 @@ public class CreateFolderServiceImpl extends AbstractDsmServiceImpl implements C
 
     @Override
     public File createFolder(String parentPath, String name, boolean createParents) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiInfo().getApi(), API_VERSION, getApiInfo().getPath(), METHOD_CREATE)
+        DsmWebapiRequest request = buildCreateRequest(parentPath, name, createParents);
+        CreateFolderResponse response = getDsmWebapiClient().call(request, CreateFolderResponse.class, new CreateFolderErrorHandler());
+        metadataCache.invalidate(parentPath, name, createParents);
+        return response.getData().getFolders().get(0);
+    }
+
+    @Override
+    public CompletableFuture<File> createFolderAsync(String parentPath, String name, boolean createParents) {
+        DsmWebapiRequest request = buildCreateRequest(parentPath, name, createParents);
+        return getDsmWebapiClient().callAsync(request, CreateFolderResponse.class, new CreateFolderErrorHandler())
+                .thenApply(response -> {
+                    metadataCache.invalidate(parentPath, name, createParents);
+                    return response.getData().getFolders().get(0);
+                });
+    }
+
+    private DsmWebapiRequest buildCreateRequest(String parentPath, String name, boolean createParents) {
+        return new DsmWebapiRequest(getApiInfo().getApi(), API_VERSION, getApiInfo().getPath(), METHOD_CREATE)
                 .parameter(PARAMETER_FOLDER_PATH, parentPath)
                 .parameter(PARAMETER_NAME, name)
                 .parameter(PARAMETER_FORCE_PARENT, createParents)
                 .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
-        CreateFolderResponse response = getDsmWebapiClient().call(request, CreateFolderResponse.class, new CreateFolderErrorHandler());
-        return response.getData().getFolders().get(0);
     }
 
     public static class FolderList {
@@ -1,6 +1,12 @@
 package com.noofinc.dsm.webapi.client.filestation.delete;
 
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
+
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Stream;
 
 public interface DeleteService {
 
@@ -10,5 +16,45 @@ public interface DeleteService {
 
     void stop(String taskId);
 
+    /**
+     * Starts a delete and waits until the task is finished.
+     */
     void synchronousDelete(String path, boolean recursive, Optional<String> searchTaskId);
+
+    CompletableFuture<String> startAsync(String path, boolean recursive, boolean accurateProgress, Optional<String> searchTaskId);
+
+    CompletableFuture<DeleteStatus> statusAsync(String taskId);
+
+    CompletableFuture<Void> stopAsync(String taskId);
+
+    /**
+     * Starts a delete and completes with the final status once the task is finished.
+     */
+    CompletableFuture<DeleteStatus> deleteAsync(String path, boolean recursive, Optional<String> searchTaskId);
+
+    /**
+     * Deletes the paths in batches of multi-path tasks, several of them at a time, and waits for all of them. A failed
+     * task does not stop the others, its paths are reported in the result. When recursive, paths inside another listed
+     * folder are left to it.
+     */
+    TaskBatchResult deleteAll(Collection<String> paths, boolean recursive);
+
+    /**
+     * Same as {@link #deleteAll(Collection, boolean)}, reading the paths as tasks get started rather than all at once.
+     * The paths are taken as they come: duplicates and paths inside another listed folder are not weeded out, the
+     * latter may be reported as not found once their folder is gone.
+     */
+    TaskBatchResult deleteAll(Stream<String> paths, boolean recursive);
+
+    /**
+     * Deletes the hits of a search, once it is finished, as {@link #deleteAll(Stream, boolean)} does, reading them
+     * page by page. The search task is left to the caller.
+     */
+    TaskBatchResult deleteSearchResults(String searchTaskId, boolean recursive);
+
+    CompletableFuture<TaskBatchResult> deleteAllAsync(Collection<String> paths, boolean recursive, DoubleConsumer progressListener);
+
+    CompletableFuture<TaskBatchResult> deleteAllAsync(Stream<String> paths, boolean recursive, DoubleConsumer progressListener);
+
+    CompletableFuture<TaskBatchResult> deleteSearchResultsAsync(String searchTaskId, boolean recursive, DoubleConsumer progressListener);
 }
@@ -6,13 +6,33 @@ import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
+import com.noofinc.dsm.webapi.client.filestation.common.PathChunks;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.noofinc.dsm.webapi.client.filestation.common.TaskId;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
 import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileMetadataCache;
+import com.noofinc.dsm.webapi.client.filestation.search.SearchService;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskSupervisor;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Stream;
 
 @Component
 public class DeleteServiceImpl extends AbstractDsmServiceImpl implements DeleteService {
@@ -24,61 +44,186 @@ public class DeleteServiceImpl extends AbstractDsmServiceImpl implements DeleteS
     @Value("${dsm.webapi.synchronousDelete.timeout:30}")
     private int synchronousDeleteTimeout;
 
+    @Value("${dsm.webapi.delete.maxPathLength:32000}")
+    private int batchMaxPathLength;
+
+    @Value("${dsm.webapi.delete.maxConcurrentTasks:4}")
+    private int batchMaxConcurrentTasks;
+
+    @Autowired
+    private TaskSupervisor taskSupervisor;
+
+    @Autowired
+    private FileMetadataCache metadataCache;
+
+    @Autowired
+    private SearchService searchService;
+
     public DeleteServiceImpl() {
         super(API_ID);
     }
 
     @Override
     public String start(String path, boolean recursive, boolean accurateProgress, Optional<String> searchTaskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), "start")
-                .parameter(PARAMETER_PATH, path)
-                .parameter("accurate_progress", accurateProgress)
-                .parameter("recursive", recursive)
-                .optionalParameter("search_taskid", searchTaskId);
-        return getDsmWebapiClient().call(request, StartDeleteResponse.class, new DeleteErrorHandler()).getData().getTaskId();
+        DsmWebapiRequest request = buildStartRequest(path, recursive, accurateProgress, searchTaskId);
+        String taskId = getDsmWebapiClient().call(request, StartDeleteResponse.class, new DeleteErrorHandler()).getData().getTaskId();
+        taskStarted(taskId, path, searchTaskId);
+        return taskId;
     }
 
     @Override
     public DeleteStatus status(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), "status")
-                .parameter("taskid", taskId);
-        return getDsmWebapiClient().call(request, DeleteStatusResponse.class, new DeleteErrorHandler()).getData();
+        DeleteStatus status = getDsmWebapiClient().call(buildTaskRequest("status", taskId), DeleteStatusResponse.class, new DeleteErrorHandler()).getData();
+        taskStatus(taskId, status);
+        return status;
     }
 
     @Override
     public void stop(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), "stop")
-                .parameter("taskid", taskId);
-        getDsmWebapiClient().call(request, DsmWebapiResponse.class, new DeleteErrorHandler());
+        getDsmWebapiClient().call(buildTaskRequest("stop", taskId), DsmWebapiResponse.class, new DeleteErrorHandler());
     }
 
     @Override
     public void synchronousDelete(String path, boolean recursive, Optional<String> searchTaskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), "start")
+        waitForCompletion(start(path, recursive, false, searchTaskId));
+    }
+
+    @Override
+    public CompletableFuture<String> startAsync(String path, boolean recursive, boolean accurateProgress, Optional<String> searchTaskId) {
+        DsmWebapiRequest request = buildStartRequest(path, recursive, accurateProgress, searchTaskId);
+        return getDsmWebapiClient().callAsync(request, StartDeleteResponse.class, new DeleteErrorHandler())
+                .thenApply(response -> {
+                    taskStarted(response.getData().getTaskId(), path, searchTaskId);
+                    return response.getData().getTaskId();
+                });
+    }
+
+    @Override
+    public CompletableFuture<DeleteStatus> statusAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest("status", taskId), DeleteStatusResponse.class, new DeleteErrorHandler())
+                .thenApply(response -> {
+                    taskStatus(taskId, response.getData());
+                    return response.getData();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest("stop", taskId), DsmWebapiResponse.class, new DeleteErrorHandler())
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<DeleteStatus> deleteAsync(String path, boolean recursive, Optional<String> searchTaskId) {
+        return startAsync(path, recursive, false, searchTaskId)
+                .thenCompose(taskId -> taskSupervisor.supervise(TaskType.DELETE, taskId, synchronousDeleteTimeout * 1000L)
+                        .thenApply(result -> result.getStatus(DeleteStatus.class))
+                        .whenComplete((status, error) -> {
+                            if(error != null) {
+                                //Attempt to stop the delete mid-flight if we time out
+                                stopAsync(taskId);
+                            }
+                        }));
+    }
+
+    @Override
+    public TaskBatchResult deleteAll(Collection<String> paths, boolean recursive) {
+        return join(deleteAllAsync(paths, recursive, null));
+    }
+
+    @Override
+    public TaskBatchResult deleteAll(Stream<String> paths, boolean recursive) {
+        return join(deleteAllAsync(paths, recursive, null));
+    }
+
+    @Override
+    public TaskBatchResult deleteSearchResults(String searchTaskId, boolean recursive) {
+        return join(deleteSearchResultsAsync(searchTaskId, recursive, null));
+    }
+
+    @Override
+    public CompletableFuture<TaskBatchResult> deleteAllAsync(Collection<String> paths, boolean recursive, DoubleConsumer progressListener) {
+        Set<String> distinctPaths = new LinkedHashSet<>(paths);
+        if(recursive) {
+            // Deleting a folder takes its content along, which would then fail as not found
+            distinctPaths.removeIf(path -> hasAncestor(path, distinctPaths));
+        }
+        // Long path lists are posted, so the cap is about what a task should hold rather than the URL length
+        List<List<String>> chunks = PathChunks.chunk(new ArrayList<>(distinctPaths), batchMaxPathLength);
+        return taskSupervisor.runBatch(TaskType.DELETE, chunks, batchMaxConcurrentTasks,
+                chunk -> startAsync(String.join(",", chunk), recursive, true, Optional.empty()),
+                this::stopAsync, progressListener);
+    }
+
+    @Override
+    public CompletableFuture<TaskBatchResult> deleteAllAsync(Stream<String> paths, boolean recursive, DoubleConsumer progressListener) {
+        return taskSupervisor.runBatch(TaskType.DELETE, PathChunks.chunk(paths.iterator(), batchMaxPathLength), batchMaxConcurrentTasks,
+                chunk -> startAsync(String.join(",", chunk), recursive, true, Optional.empty()),
+                this::stopAsync, progressListener);
+    }
+
+    @Override
+    public CompletableFuture<TaskBatchResult> deleteSearchResultsAsync(String searchTaskId, boolean recursive, DoubleConsumer progressListener) {
+        return taskSupervisor.supervise(TaskType.SEARCH, searchTaskId).thenCompose(finished -> {
+            Stream<String> paths = PageSpliterator.stream(page -> searchService.getResultAsync(searchTaskId, page, AdditionalField.NONE), StreamOptions.getDefaultStreamOptions())
+                    .map(File::getPath);
+            return deleteAllAsync(paths, recursive, progressListener).whenComplete((result, error) -> paths.close());
+        });
+    }
+
+    private static boolean hasAncestor(String path, Set<String> paths) {
+        for (int index = path.lastIndexOf('/'); index > 0; index = path.lastIndexOf('/', index - 1)) {
+            if(paths.contains(path.substring(0, index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private void taskStarted(String taskId, String path, Optional<String> searchTaskId) {
+        if(searchTaskId.isPresent()) {
+            // The deleted paths are search results, unknown here
+            metadataCache.invalidateAll();
+        } else {
+            metadataCache.taskStarted(taskId, FileMetadataCache.splitPaths(path));
+        }
+    }
+
+    private void taskStatus(String taskId, DeleteStatus status) {
+        if(status.isFinished()) {
+            metadataCache.taskFinished(taskId);
+        }
+    }
+
+    private DsmWebapiRequest buildStartRequest(String path, boolean recursive, boolean accurateProgress, Optional<String> searchTaskId) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), "start")
                 .parameter(PARAMETER_PATH, path)
+                .parameter("accurate_progress", accurateProgress)
                 .parameter("recursive", recursive)
                 .optionalParameter("search_taskid", searchTaskId);
-        getDsmWebapiClient().call(request, StartDeleteResponse.class, new DeleteErrorHandler()).getData().getTaskId();
+    }
+
+    private DsmWebapiRequest buildTaskRequest(String method, String taskId) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), method)
+                .parameter("taskid", taskId);
     }
 
     private DeleteStatus waitForCompletion(String taskId) {
         try {
-            long start = System.currentTimeMillis();
-            while (System.currentTimeMillis() - start <= synchronousDeleteTimeout * 1000) {
-                DeleteStatus status = this.status(taskId);
-                if(status.isFinished()) {
-                    return status;
-                }
-                Thread.sleep(100);
-            }
-        } catch (InterruptedException e) {
-            throw new IllegalStateException("Thread interrupted", e);
+            return taskSupervisor.waitFor(TaskType.DELETE, taskId, synchronousDeleteTimeout * 1000L).getStatus(DeleteStatus.class);
+        } catch (TaskTimeOutException e) {
+            //Attempt to stop the delete mid-flight if we time out
+            try{ stop(taskId); } catch (Exception stopException){ /*eat it*/ }
+            throw e;
         }
-
-        //Attempt to stop the delete mid-flight if we time out
-        try{ stop(taskId); } catch (Exception e){ /*eat it*/ }
-
-        throw new TaskTimeOutException();
     }
 
     private static class StartDeleteResponse extends DsmWebapiResponse<TaskId> {
@@ -105,7 +250,9 @@ public class DeleteServiceImpl extends AbstractDsmServiceImpl implements DeleteS
                         DsmWebApiResponseError innerError = error.getErrors().get(0);
                         switch (innerError.getCode()) {
                             case 408:
-                                throw new FileNotFoundException(request.getParameters().get(PARAMETER_PATH), innerError);
+                                // The path parameter may list several paths
+                                String path = innerError.getDetailValue(PARAMETER_PATH);
+                                throw new FileNotFoundException(path != null ? path : request.getParameters().get(PARAMETER_PATH), innerError);
                         }
                     }
             }
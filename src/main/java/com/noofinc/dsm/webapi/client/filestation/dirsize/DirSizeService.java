@@ -1,5 +1,7 @@
 package com.noofinc.dsm.webapi.client.filestation.dirsize;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface DirSizeService {
 
     String start(String path);
@@ -9,4 +11,15 @@ public interface DirSizeService {
     void stop(String id);
 
     DirSizeResult synchronousDirSize(String path);
+
+    CompletableFuture<String> startAsync(String path);
+
+    CompletableFuture<DirSizeResult> statusAsync(String taskId);
+
+    CompletableFuture<Void> stopAsync(String taskId);
+
+    /**
+     * Starts a dir size computation and completes with the final result once the task is finished.
+     */
+    CompletableFuture<DirSizeResult> dirSizeAsync(String path);
 }
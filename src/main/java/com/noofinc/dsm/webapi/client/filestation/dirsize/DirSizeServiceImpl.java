@@ -9,11 +9,13 @@ import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
 import com.noofinc.dsm.webapi.client.filestation.common.TaskId;
 import com.noofinc.dsm.webapi.client.filestation.exception.NoSuchTaskException;
-import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskSupervisor;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-//import static com.jayway.awaitility.Awaitility.await;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class DirSizeServiceImpl extends AbstractDsmServiceImpl implements DirSizeService {
@@ -34,51 +36,74 @@ public class DirSizeServiceImpl extends AbstractDsmServiceImpl implements DirSiz
     @Value("${dsm.webapi.synchronousDirSize.timeout:30}")
     private int synchronousDirSizeTimeout;
 
+    @Autowired
+    private TaskSupervisor taskSupervisor;
+
     public DirSizeServiceImpl() {
         super(API_ID);
     }
 
     @Override
     public String start(String path) {
-        DsmWebapiRequest request = new DsmWebapiRequest(this.getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
-                .parameter(PARAMETER_PATH, path);
-        StartDirSizeResponse response = getDsmWebapiClient().call(request, StartDirSizeResponse.class);
+        StartDirSizeResponse response = getDsmWebapiClient().call(buildStartRequest(path), StartDirSizeResponse.class);
         return response.getData().getTaskId();
     }
 
     @Override
     public DirSizeResult status(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(this.getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_STATUS)
-                .parameter(PARAMETER_TASKID, taskId);
-        DirSizeStatusResponse response = getDsmWebapiClient().call(request, DirSizeStatusResponse.class, new DirSizeStatusErrorHandler());
+        DirSizeStatusResponse response = getDsmWebapiClient().call(buildTaskRequest(METHOD_STATUS, taskId), DirSizeStatusResponse.class, new DirSizeStatusErrorHandler());
         return response.getData();
     }
 
     @Override
     public void stop(String taskId) {
-        DsmWebapiRequest request = new DsmWebapiRequest(this.getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_STOP)
-                .parameter(PARAMETER_TASKID, taskId);
-        DsmWebapiResponse response = getDsmWebapiClient().call(request, DsmWebapiResponse.class);
+        DsmWebapiResponse response = getDsmWebapiClient().call(buildTaskRequest(METHOD_STOP, taskId), DsmWebapiResponse.class);
     }
 
     @Override
     public DirSizeResult synchronousDirSize(String path) {
         String taskId = start(path);
         try {
-            long start = System.currentTimeMillis();
-            while (System.currentTimeMillis() - start <= synchronousDirSizeTimeout * 1000) {
-                DirSizeResult status = this.status(taskId);
-                if(status.isFinished()) {
-                    return status;
-                }
-                Thread.sleep(100);
-            }
-        } catch (InterruptedException e) {
-            throw new IllegalStateException("Thread interrupted", e);
+            return taskSupervisor.waitFor(TaskType.DIR_SIZE, taskId, synchronousDirSizeTimeout * 1000L).getStatus(DirSizeResult.class);
         } finally {
             stop(taskId);
         }
-        throw new TaskTimeOutException();
+    }
+
+    @Override
+    public CompletableFuture<String> startAsync(String path) {
+        return getDsmWebapiClient().callAsync(buildStartRequest(path), StartDirSizeResponse.class)
+                .thenApply(response -> response.getData().getTaskId());
+    }
+
+    @Override
+    public CompletableFuture<DirSizeResult> statusAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest(METHOD_STATUS, taskId), DirSizeStatusResponse.class, new DirSizeStatusErrorHandler())
+                .thenApply(DirSizeStatusResponse::getData);
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync(String taskId) {
+        return getDsmWebapiClient().callAsync(buildTaskRequest(METHOD_STOP, taskId), DsmWebapiResponse.class)
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<DirSizeResult> dirSizeAsync(String path) {
+        return startAsync(path).thenCompose(taskId ->
+                taskSupervisor.supervise(TaskType.DIR_SIZE, taskId, synchronousDirSizeTimeout * 1000L)
+                        .thenApply(result -> result.getStatus(DirSizeResult.class))
+                        .whenComplete((result, error) -> stopAsync(taskId)));
+    }
+
+    private DsmWebapiRequest buildStartRequest(String path) {
+        return new DsmWebapiRequest(this.getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
+                .parameter(PARAMETER_PATH, path);
+    }
+
+    private DsmWebapiRequest buildTaskRequest(String method, String taskId) {
+        return new DsmWebapiRequest(this.getApiId(), API_VERSION, getApiInfo().getPath(), method)
+                .parameter(PARAMETER_TASKID, taskId);
     }
 
     public static class StartDirSizeResponse extends DsmWebapiResponse<TaskId> {
@@ -1,13 +1,16 @@
 package com.noofinc.dsm.webapi.client.filestation.favorite;
 
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FavoriteService {
 
     Favorite.FavoriteList list(PaginationAndSorting paginationAndSorting, Optional<String> statusFilter);
     Favorite.FavoriteList list();
+    Stream<Favorite> stream(StreamOptions options);
     void add();
     void delete();
     void clearBroken();
@@ -11,7 +11,9 @@ import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
 import com.noofinc.dsm.webapi.client.filestation.common.FileType;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
 import com.noofinc.dsm.webapi.client.filestation.favorite.Favorite;
 import com.noofinc.dsm.webapi.client.filestation.favorite.FavoriteService;
@@ -21,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class FavoriteServiceImpl extends AbstractDsmServiceImpl implements FavoriteService {
@@ -49,12 +52,7 @@ public class FavoriteServiceImpl extends AbstractDsmServiceImpl implements Favor
 
     @Override
     public Favorite.FavoriteList list(PaginationAndSorting paginationAndSorting, Optional<String> statusFilter) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_LIST)
-                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
-                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
-                .parameter(PARAMETER_STATUS_FILTER, statusFilter)
-                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
-        FavoriteListResponse response = getDsmWebapiClient().call(request, FavoriteListResponse.class);
+        FavoriteListResponse response = getDsmWebapiClient().call(buildListRequest(paginationAndSorting, statusFilter), FavoriteListResponse.class);
         return response.getData();
     }
 
@@ -63,6 +61,11 @@ public class FavoriteServiceImpl extends AbstractDsmServiceImpl implements Favor
         return list(new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC), Optional.<String>empty());
     }
 
+    @Override
+    public Stream<Favorite> stream(StreamOptions options) {
+        return PageSpliterator.stream(page -> getDsmWebapiClient().callAsync(buildListRequest(page, Optional.<String>empty()), FavoriteListResponse.class)
+                .thenApply(FavoriteListResponse::getData), options);
+    }
 
     @Override
     public void add() {
@@ -89,6 +92,14 @@ public class FavoriteServiceImpl extends AbstractDsmServiceImpl implements Favor
 
     }
 
+    private DsmWebapiRequest buildListRequest(PaginationAndSorting paginationAndSorting, Optional<String> statusFilter) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_LIST)
+                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
+                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
+                .optionalParameter(PARAMETER_STATUS_FILTER, statusFilter)
+                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
+    }
+
     private static class FavoriteListResponse extends DsmWebapiResponse<Favorite.FavoriteList> {
 
         @JsonCreator
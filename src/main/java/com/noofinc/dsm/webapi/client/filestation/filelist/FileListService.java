@@ -1,21 +1,97 @@
 package com.noofinc.dsm.webapi.client.filestation.filelist;
 
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 import com.noofinc.dsm.webapi.client.filestation.common.FileType;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface FileListService {
 
     File.FileList list(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath);
 
+    /**
+     * Only fetches the given additional fields, the others are absent from the listed files.
+     */
+    File.FileList list(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath, Set<AdditionalField> additional);
+
     List<File> list(String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath);
 
     List<File> list(String folderPath);
 
+    /**
+     * Lists a folder lazily, page by page. Close the stream to drop prefetched pages when it is not consumed entirely.
+     */
+    Stream<File> stream(String folderPath, StreamOptions options);
+
+    Stream<File> stream(String folderPath);
+
+    Stream<File> stream(String folderPath, StreamOptions options, Set<AdditionalField> additional);
+
+    CompactFile.CompactFileList listCompact(PaginationAndSorting paginationAndSorting, String folderPath);
+
+    /**
+     * Hands each entry to the consumer as soon as it is parsed: memory does not grow with the size of the listing.
+     *
+     * @return the total number of entries in the folder
+     */
+    int list(PaginationAndSorting paginationAndSorting, String folderPath, Consumer<? super File> consumer);
+
+    int list(PaginationAndSorting paginationAndSorting, String folderPath, Set<AdditionalField> additional, Consumer<? super File> consumer);
+
+    int listCompact(PaginationAndSorting paginationAndSorting, String folderPath, Consumer<? super CompactFile> consumer);
+
+    int listCompact(PaginationAndSorting paginationAndSorting, String folderPath, Set<AdditionalField> additional, Consumer<? super CompactFile> consumer);
+
+    Stream<CompactFile> streamCompact(String folderPath, StreamOptions options);
+
+    Stream<CompactFile> streamCompact(String folderPath, StreamOptions options, Set<AdditionalField> additional);
+
     List<File> getFiles(List<String> paths);
 
+    List<File> getFiles(List<String> paths, Set<AdditionalField> additional);
+
     File getFile(String path);
+
+    /**
+     * Like {@link #stat(String)}, only fetching the fields needed to tell whether the path exists.
+     */
+    boolean exists(String path);
+
+    /**
+     * An empty result when the path does not exist. Missing paths are reported without raising any exception.
+     */
+    Optional<File> stat(String path);
+
+    /**
+     * The result of each distinct path, in input order, empty for missing paths. The paths are sent in getinfo chunks,
+     * several chunks per round trip, as for {@link #getFiles(List)}.
+     */
+    Map<String, Optional<File>> statAll(Collection<String> paths);
+
+    Map<String, Optional<File>> statAll(Collection<String> paths, Set<AdditionalField> additional);
+
+    CompletableFuture<File.FileList> listAsync(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath);
+
+    CompletableFuture<File.FileList> listAsync(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath, Set<AdditionalField> additional);
+
+    CompletableFuture<List<File>> listAsync(String folderPath);
+
+    CompletableFuture<List<File>> getFilesAsync(List<String> paths);
+
+    CompletableFuture<List<File>> getFilesAsync(List<String> paths, Set<AdditionalField> additional);
+
+    CompletableFuture<File> getFileAsync(String path);
+
+    CompletableFuture<Map<String, Optional<File>>> statAllAsync(Collection<String> paths);
 }
@@ -3,22 +3,43 @@ package com.noofinc.dsm.webapi.client.filestation.filelist;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
 import com.noofinc.dsm.webapi.client.filestation.common.ErrorCodes;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 import com.google.common.base.Joiner;
 import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
+import com.noofinc.dsm.webapi.client.core.CompoundRequest;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
 import com.noofinc.dsm.webapi.client.filestation.common.FileType;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.PathChunks;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileListService {
@@ -43,9 +64,28 @@ public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileL
     private static final String PARAMETER_SORT_BY = "sort_by";
     private static final String PARAMETER_SORT_DIRECTION = "sort_direction";
 
+    // Response fields
+    private static final String FIELD_FILES = "files";
+    private static final String FIELD_TOTAL = "total";
+
     // Parameter values
-    private static final String PARAMETER_VALUE_ADDITIONAL = "real_path,size,owner,time,perm,type,mount_point_type";
+    private static final Set<AdditionalField> PARAMETER_VALUE_ADDITIONAL = Collections.unmodifiableSet(EnumSet.of(
+            AdditionalField.REAL_PATH, AdditionalField.SIZE, AdditionalField.OWNER, AdditionalField.TIME, AdditionalField.PERM, AdditionalField.TYPE, AdditionalField.MOUNT_POINT_TYPE));
+
+    private static final PaginationAndSorting ALL_BY_NAME = new PaginationAndSorting(0, 0 /* zero == no limit (all) */, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+    // Encoded length of the getinfo path parameter, kept well below the usual 8 KB request line limit
+    @Value("${dsm.webapi.getinfo.maxPathLength:6000}")
+    private int maxPathLength;
+
+    @Value("${dsm.webapi.getinfo.maxConcurrentRequests:4}")
+    private int maxConcurrentRequests;
+
+    @Value("${dsm.webapi.getinfo.chunksPerRoundTrip:8}")
+    private int chunksPerRoundTrip;
 
+    @Autowired
+    private FileMetadataCache metadataCache;
 
     public FileListServiceImpl() {
         super(API_ID);
@@ -53,16 +93,12 @@ public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileL
 
     @Override
     public File.FileList list(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_LIST)
-                .parameter(PARAMETER_FOLDER_PATH, folderPath)
-                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
-                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
-                .parameter(PARAMETER_SORT_BY, paginationAndSorting.getSortBy().getRepresentation())
-                .parameter(PARAMETER_SORT_DIRECTION, paginationAndSorting.getSortDirection().getRepresentation())
-                .parameter(PARAMETER_PATTERN, Joiner.on(',').join(patterns.orElse(Collections.<String>emptyList())))
-                .parameter(PARAMETER_FILETYPE, fileType.orElse(FileType.ALL).getRepresentation())
-                .parameter(PARAMETER_GOTO_PATH, gotoPath.orElse(""))
-                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
+        return list(paginationAndSorting, folderPath, patterns, fileType, gotoPath, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public File.FileList list(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath, Set<AdditionalField> additional) {
+        DsmWebapiRequest request = buildListRequest(paginationAndSorting, folderPath, patterns, fileType, gotoPath, additional);
         FileListResponse response = getDsmWebapiClient().call(request, FileListResponse.class, new FileListErrorHandler(folderPath));
         return response.getData();
     }
@@ -71,7 +107,7 @@ public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileL
     public List<File> list(String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath) {
         //default limit to zero (all)
         return list(
-                new PaginationAndSorting(0, 0 /* zero == no limit (all) */, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC)
+                ALL_BY_NAME
                 , folderPath
                 , patterns
                 , fileType
@@ -81,24 +117,354 @@ public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileL
 
     @Override
     public List<File> list(String folderPath) {
-        return list(folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty());
+        if(!metadataCache.isEnabled()) {
+            return list(folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty());
+        }
+        List<File> cached = metadataCache.getListing(folderPath);
+        if(cached != null) {
+            return cached;
+        }
+        long generation = metadataCache.getGeneration();
+        List<File> files = list(folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty());
+        metadataCache.putListing(folderPath, files, generation);
+        return files;
+    }
+
+    @Override
+    public Stream<File> stream(String folderPath, StreamOptions options) {
+        return stream(folderPath, options, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public Stream<File> stream(String folderPath, StreamOptions options, Set<AdditionalField> additional) {
+        return PageSpliterator.stream(page -> listAsync(page, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty(), additional), options);
+    }
+
+    @Override
+    public Stream<File> stream(String folderPath) {
+        return stream(folderPath, StreamOptions.getDefaultStreamOptions());
+    }
+
+    @Override
+    public CompactFile.CompactFileList listCompact(PaginationAndSorting paginationAndSorting, String folderPath) {
+        DsmWebapiRequest request = buildListRequest(paginationAndSorting, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty(), PARAMETER_VALUE_ADDITIONAL);
+        return getDsmWebapiClient().call(request, CompactFileListResponse.class, new FileListErrorHandler(folderPath)).getData();
+    }
+
+    @Override
+    public int list(PaginationAndSorting paginationAndSorting, String folderPath, Consumer<? super File> consumer) {
+        return list(paginationAndSorting, folderPath, PARAMETER_VALUE_ADDITIONAL, consumer);
+    }
+
+    @Override
+    public int list(PaginationAndSorting paginationAndSorting, String folderPath, Set<AdditionalField> additional, Consumer<? super File> consumer) {
+        return streamList(paginationAndSorting, folderPath, additional, File.class, consumer);
+    }
+
+    @Override
+    public int listCompact(PaginationAndSorting paginationAndSorting, String folderPath, Consumer<? super CompactFile> consumer) {
+        return listCompact(paginationAndSorting, folderPath, PARAMETER_VALUE_ADDITIONAL, consumer);
+    }
+
+    @Override
+    public int listCompact(PaginationAndSorting paginationAndSorting, String folderPath, Set<AdditionalField> additional, Consumer<? super CompactFile> consumer) {
+        return streamList(paginationAndSorting, folderPath, additional, CompactFile.class, consumer);
+    }
+
+    private <E> int streamList(PaginationAndSorting paginationAndSorting, String folderPath, Set<AdditionalField> additional, Class<E> elementType, Consumer<? super E> consumer) {
+        DsmWebapiRequest request = buildListRequest(paginationAndSorting, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty(), additional);
+        return getDsmWebapiClient().callStreaming(request, FIELD_FILES, elementType, consumer, new FileListErrorHandler(folderPath))
+                .path(FIELD_TOTAL).asInt();
+    }
+
+    @Override
+    public Stream<CompactFile> streamCompact(String folderPath, StreamOptions options) {
+        return streamCompact(folderPath, options, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public Stream<CompactFile> streamCompact(String folderPath, StreamOptions options, Set<AdditionalField> additional) {
+        return PageSpliterator.stream(page -> {
+            DsmWebapiRequest request = buildListRequest(page, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty(), additional);
+            return getDsmWebapiClient().callAsync(request, CompactFileListResponse.class, new FileListErrorHandler(folderPath))
+                    .thenApply(CompactFileListResponse::getData);
+        }, options);
     }
 
     @Override
     public List<File> getFiles(List<String> paths) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_GET_INFO)
+        return getFiles(paths, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public List<File> getFiles(List<String> paths, Set<AdditionalField> additional) {
+        if(!isCached(additional)) {
+            return existingFiles(getInfo(paths, additional));
+        }
+        return inPathOrder(paths, getInfoByPath(paths, additional));
+    }
+
+    @Override
+    public File getFile(String path) {
+        return firstOrNull(getFiles(Collections.singletonList(path)));
+    }
+
+    @Override
+    public boolean exists(String path) {
+        // Cached entries have the default fields
+        Set<AdditionalField> additional = metadataCache.isEnabled() ? PARAMETER_VALUE_ADDITIONAL : AdditionalField.NONE;
+        return getInfoByPath(Collections.singletonList(path), additional).get(path) != null;
+    }
+
+    @Override
+    public Optional<File> stat(String path) {
+        return Optional.ofNullable(getFile(path));
+    }
+
+    @Override
+    public Map<String, Optional<File>> statAll(Collection<String> paths) {
+        return statAll(paths, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public Map<String, Optional<File>> statAll(Collection<String> paths, Set<AdditionalField> additional) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(paths));
+        return stats(distinct, getInfoByPath(distinct, additional));
+    }
+
+    @Override
+    public CompletableFuture<File.FileList> listAsync(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath) {
+        return listAsync(paginationAndSorting, folderPath, patterns, fileType, gotoPath, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public CompletableFuture<File.FileList> listAsync(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath, Set<AdditionalField> additional) {
+        DsmWebapiRequest request = buildListRequest(paginationAndSorting, folderPath, patterns, fileType, gotoPath, additional);
+        return getDsmWebapiClient().callAsync(request, FileListResponse.class, new FileListErrorHandler(folderPath))
+                .thenApply(FileListResponse::getData);
+    }
+
+    @Override
+    public CompletableFuture<List<File>> listAsync(String folderPath) {
+        if(!metadataCache.isEnabled()) {
+            return listAsync(ALL_BY_NAME, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty())
+                    .thenApply(File.FileList::getElements);
+        }
+        List<File> cached = metadataCache.getListing(folderPath);
+        if(cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = metadataCache.getGeneration();
+        return listAsync(ALL_BY_NAME, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty())
+                .thenApply(list -> {
+                    metadataCache.putListing(folderPath, list.getElements(), generation);
+                    return list.getElements();
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<File>> getFilesAsync(List<String> paths) {
+        return getFilesAsync(paths, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public CompletableFuture<List<File>> getFilesAsync(List<String> paths, Set<AdditionalField> additional) {
+        if(!isCached(additional)) {
+            return getInfoAsync(paths, additional).thenApply(FileListServiceImpl::existingFiles);
+        }
+        return getInfoByPathAsync(paths, additional).thenApply(known -> inPathOrder(paths, known));
+    }
+
+    @Override
+    public CompletableFuture<File> getFileAsync(String path) {
+        return getFilesAsync(Collections.singletonList(path)).thenApply(FileListServiceImpl::firstOrNull);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Optional<File>>> statAllAsync(Collection<String> paths) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(paths));
+        return getInfoByPathAsync(distinct, PARAMETER_VALUE_ADDITIONAL).thenApply(known -> stats(distinct, known));
+    }
+
+    // The cache holds entries with the default fields only
+    private boolean isCached(Set<AdditionalField> additional) {
+        return metadataCache.isEnabled() && PARAMETER_VALUE_ADDITIONAL.equals(additional);
+    }
+
+    /**
+     * Puts the cached paths in {@code known}, a null file for the ones known to be missing, and returns the others.
+     */
+    private List<String> lookup(List<String> paths, Map<String, File> known) {
+        List<String> misses = new ArrayList<>();
+        for (String path : paths) {
+            FileMetadataCache.Entry entry = metadataCache.get(path);
+            if(entry == null) {
+                misses.add(path);
+            } else {
+                known.put(path, entry.getFile());
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * The entry of each path, null for the missing ones, read from the cache when it applies.
+     */
+    private Map<String, File> getInfoByPath(List<String> paths, Set<AdditionalField> additional) {
+        Map<String, File> known = new HashMap<>();
+        boolean cached = isCached(additional);
+        List<String> misses = cached ? lookup(paths, known) : paths;
+        if(!misses.isEmpty()) {
+            long generation = metadataCache.getGeneration();
+            index(misses, getInfo(misses, additional), known, cached, generation);
+        }
+        return known;
+    }
+
+    private CompletableFuture<Map<String, File>> getInfoByPathAsync(List<String> paths, Set<AdditionalField> additional) {
+        Map<String, File> known = new HashMap<>();
+        boolean cached = isCached(additional);
+        List<String> misses = cached ? lookup(paths, known) : paths;
+        if(misses.isEmpty()) {
+            return CompletableFuture.completedFuture(known);
+        }
+        long generation = metadataCache.getGeneration();
+        return getInfoAsync(misses, additional).thenApply(entries -> {
+            index(misses, entries, known, cached, generation);
+            return known;
+        });
+    }
+
+    // getinfo answers one entry per requested path, in order, without a name when the path does not exist
+    private void index(List<String> paths, List<File> entries, Map<String, File> known, boolean cached, long generation) {
+        boolean aligned = entries.size() == paths.size();
+        for (int i = 0; i < entries.size(); i++) {
+            File file = entries.get(i).getName() != null ? entries.get(i) : null;
+            String path = aligned ? paths.get(i) : entries.get(i).getPath();
+            if(aligned && cached) {
+                metadataCache.put(path, file, generation);
+            }
+            known.put(path, file);
+        }
+    }
+
+    private static Map<String, Optional<File>> stats(List<String> paths, Map<String, File> known) {
+        Map<String, Optional<File>> stats = new LinkedHashMap<>();
+        for (String path : paths) {
+            stats.put(path, Optional.ofNullable(known.get(path)));
+        }
+        return stats;
+    }
+
+    private static List<File> inPathOrder(List<String> paths, Map<String, File> known) {
+        List<File> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            File file = known.get(path);
+            if(file != null) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Raw getinfo entries of the paths, missing ones included.
+     */
+    private List<File> getInfo(List<String> paths, Set<AdditionalField> additional) {
+        List<List<String>> chunks = PathChunks.chunk(paths, maxPathLength);
+        if(chunks.size() > 1) {
+            try {
+                return getChunksAsync(chunks, additional).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        return getDsmWebapiClient().call(buildGetInfoRequest(paths, additional), FileListResponse.class).getData().getElements();
+    }
+
+    private CompletableFuture<List<File>> getInfoAsync(List<String> paths, Set<AdditionalField> additional) {
+        List<List<String>> chunks = PathChunks.chunk(paths, maxPathLength);
+        if(chunks.size() > 1) {
+            return getChunksAsync(chunks, additional);
+        }
+        return getDsmWebapiClient().callAsync(buildGetInfoRequest(paths, additional), FileListResponse.class)
+                .thenApply(response -> response.getData().getElements());
+    }
+
+    /**
+     * Sends the chunks over at most {@code maxConcurrentRequests} lanes, {@code chunksPerRoundTrip} chunks per
+     * compound request, each lane sending its next round trip once the previous one is answered, and concatenates the
+     * results in chunk order.
+     */
+    private CompletableFuture<List<File>> getChunksAsync(List<List<String>> chunks, Set<AdditionalField> additional) {
+        AtomicReferenceArray<List<File>> results = new AtomicReferenceArray<>(chunks.size());
+        int perRoundTrip = Math.max(1, chunksPerRoundTrip);
+        int roundTrips = (chunks.size() + perRoundTrip - 1) / perRoundTrip;
+        int lanes = Math.max(1, Math.min(maxConcurrentRequests, roundTrips));
+        CompletableFuture<?>[] laneFutures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            laneFutures[lane] = getChunksAsync(chunks, lane, lanes, perRoundTrip, additional, results);
+        }
+        return CompletableFuture.allOf(laneFutures).thenApply(done -> {
+            List<File> files = new ArrayList<>();
+            for (int i = 0; i < results.length(); i++) {
+                files.addAll(results.get(i));
+            }
+            return files;
+        });
+    }
+
+    private CompletableFuture<Void> getChunksAsync(List<List<String>> chunks, int roundTrip, int step, int perRoundTrip, Set<AdditionalField> additional, AtomicReferenceArray<List<File>> results) {
+        int from = roundTrip * perRoundTrip;
+        if(from >= chunks.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int to = Math.min(from + perRoundTrip, chunks.size());
+        CompletableFuture<?> sent;
+        if(to - from == 1) {
+            sent = getDsmWebapiClient().callAsync(buildGetInfoRequest(chunks.get(from), additional), FileListResponse.class)
+                    .thenAccept(response -> results.set(from, response.getData().getElements()));
+        } else {
+            CompoundRequest compoundRequest = getDsmWebapiClient().newCompoundRequest();
+            CompletableFuture<?>[] responses = new CompletableFuture<?>[to - from];
+            for (int i = from; i < to; i++) {
+                int index = i;
+                responses[i - from] = compoundRequest.add(buildGetInfoRequest(chunks.get(i), additional), FileListResponse.class)
+                        .thenAccept(response -> results.set(index, response.getData().getElements()));
+            }
+            compoundRequest.executeAsync();
+            sent = CompletableFuture.allOf(responses);
+        }
+        return sent.thenCompose(done -> getChunksAsync(chunks, roundTrip + step, step, perRoundTrip, additional, results));
+    }
+
+    private DsmWebapiRequest buildListRequest(PaginationAndSorting paginationAndSorting, String folderPath, Optional<List<String>> patterns, Optional<FileType> fileType, Optional<String> gotoPath, Set<AdditionalField> additional) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_LIST)
+                .parameter(PARAMETER_FOLDER_PATH, folderPath)
+                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
+                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
+                .parameter(PARAMETER_SORT_BY, paginationAndSorting.getSortBy().getRepresentation())
+                .parameter(PARAMETER_SORT_DIRECTION, paginationAndSorting.getSortDirection().getRepresentation())
+                .parameter(PARAMETER_PATTERN, Joiner.on(',').join(patterns.orElse(Collections.<String>emptyList())))
+                .parameter(PARAMETER_FILETYPE, fileType.orElse(FileType.ALL).getRepresentation())
+                .parameter(PARAMETER_GOTO_PATH, gotoPath.orElse(""))
+                .optionalStringParameter(PARAMETER_ADDITIONAL, AdditionalField.join(additional));
+    }
+
+    private DsmWebapiRequest buildGetInfoRequest(List<String> paths, Set<AdditionalField> additional) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_GET_INFO)
                 .parameter(PARAMETER_PATH, Joiner.on(',').join(paths))
-                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
-        FileListResponse response = getDsmWebapiClient().call(request, FileListResponse.class);
-        return response.getData().getElements()
+                .optionalStringParameter(PARAMETER_ADDITIONAL, AdditionalField.join(additional));
+    }
+
+    private static List<File> existingFiles(List<File> entries) {
+        return entries
                 .stream()
                 .filter(file -> file.getName() != null)
                 .collect(Collectors.toList());
     }
 
-    @Override
-    public File getFile(String path) {
-        List<File> files = getFiles(Collections.singletonList(path));
+    private static File firstOrNull(List<File> files) {
         return files.isEmpty() ? null : files.get(0);
     }
 
@@ -113,6 +479,17 @@ public class FileListServiceImpl extends AbstractDsmServiceImpl implements FileL
         }
     }
 
+    private static class CompactFileListResponse extends DsmWebapiResponse<CompactFile.CompactFileList> {
+
+        @JsonCreator
+        public CompactFileListResponse(
+                @JsonProperty("success") boolean success,
+                @JsonProperty("data") CompactFile.CompactFileList data,
+                @JsonProperty("error") DsmWebApiResponseError error) {
+            super(success, data, error);
+        }
+    }
+
     private static class FileListErrorHandler implements ErrorHandler {
         private final String folderPath;
 
@@ -0,0 +1,397 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Entries and full listings read by {@link FileListService}, kept for {@code dsm.webapi.metadataCache.ttl} milliseconds,
+ * and the paths found missing for {@code dsm.webapi.metadataCache.negativeTtl}. Entries and listed children together
+ * are bounded by {@code dsm.webapi.metadataCache.maxEntries}, least recently used first: half of it goes to entries,
+ * listed children included, and the other half to listings, weighed by their number of children. Disabled by default.
+ * <p>
+ * The file station services that modify the NAS invalidate the paths they touch, along with their subtree, their
+ * parent and the listing of their parent, once the change is made and again when a background task finishes, so a
+ * caller always reads its own writes. Changes made by other clients are seen once the entries expire.
+ */
+@Component
+public class FileMetadataCache {
+
+    @Value("${dsm.webapi.metadataCache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dsm.webapi.metadataCache.maxEntries:100000}")
+    private long maxEntries;
+
+    @Value("${dsm.webapi.metadataCache.ttl:30000}")
+    private long ttlMillis;
+
+    @Value("${dsm.webapi.metadataCache.negativeTtl:5000}")
+    private long negativeTtlMillis;
+
+    private Cache<String, Entry> entries;
+
+    private Cache<String, List<File>> listings;
+
+    // Keys of both caches in order, so that a subtree is a range of them. Always added after the cache entry.
+    private final NavigableSet<String> entryKeys = new ConcurrentSkipListSet<>();
+    private final NavigableSet<String> listingKeys = new ConcurrentSkipListSet<>();
+
+    // Paths touched by background tasks that are still running, invalidated again once they are finished
+    private final Cache<String, Collection<String>> pendingTasks = CacheBuilder.newBuilder().maximumSize(10_000).build();
+
+    // Bumped by every invalidation: a read started before it must not be cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder listingHits = new LongAdder();
+    private final LongAdder listingMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void initFileMetadataCache() {
+        // Listed children are kept both in their listing and as entries, so each cache gets its share of the bound
+        long maxListingWeight = maxEntries / 2;
+        entries = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries - maxListingWeight)
+                .expireAfterWrite(Math.max(ttlMillis, negativeTtlMillis), TimeUnit.MILLISECONDS)
+                .removalListener(removalListener(entryKeys, () -> entries))
+                .build();
+        listings = CacheBuilder.newBuilder()
+                .maximumWeight(maxListingWeight)
+                .<String, List<File>>weigher((folderPath, children) -> children.size() + 1)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .removalListener(removalListener(listingKeys, () -> listings))
+                .build();
+    }
+
+    /**
+     * Counts the evictions and drops the removed keys from their index, unless they were put again meanwhile.
+     */
+    private <V> RemovalListener<String, V> removalListener(NavigableSet<String> keys, Supplier<Cache<String, V>> cache) {
+        return notification -> {
+            if(notification.getCause() == RemovalCause.SIZE) {
+                evictions.increment();
+            }
+            if(notification.getCause() != RemovalCause.REPLACED) {
+                String key = notification.getKey();
+                keys.remove(key);
+                if(cache.get().asMap().containsKey(key)) {
+                    keys.add(key);
+                }
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Forgets {@code path}, its subtree, the entry and listing of its parent, and the missing marks of its ancestors.
+     */
+    public void invalidate(String path) {
+        if(!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        String normalized = normalize(path);
+        invalidateSubtree(entries, entryKeys, normalized);
+        invalidateSubtree(listings, listingKeys, normalized);
+        String parent = parentOf(normalized);
+        if(parent != null) {
+            entries.invalidate(parent);
+            listings.invalidate(parent);
+        }
+        for (String ancestor = parent; ancestor != null; ancestor = parentOf(ancestor)) {
+            Entry entry = entries.getIfPresent(ancestor);
+            if(entry != null && entry.file == null) {
+                entries.invalidate(ancestor);
+            }
+        }
+    }
+
+    /**
+     * Forgets the child {@code name} of {@code parentPath}, see {@link #invalidate(String)}.
+     */
+    public void invalidate(String parentPath, String name) {
+        invalidate(childPath(parentPath, name));
+    }
+
+    /**
+     * Forgets the child {@code name} of {@code parentPath}, and the entries and listings of all its ancestors when the
+     * write may have created missing parent folders.
+     */
+    public void invalidate(String parentPath, String name, boolean createParents) {
+        invalidate(parentPath, name);
+        if(enabled && createParents) {
+            for (String ancestor = normalize(parentPath); ancestor != null; ancestor = parentOf(ancestor)) {
+                entries.invalidate(ancestor);
+                listings.invalidate(ancestor);
+            }
+        }
+    }
+
+    private static void invalidateSubtree(Cache<String, ?> cache, NavigableSet<String> keys, String path) {
+        cache.invalidate(path);
+        String subtreePrefix = path.equals("/") ? path : path + "/";
+        cache.invalidateAll(new ArrayList<>(keys.subSet(subtreePrefix, true, subtreePrefix + Character.MAX_VALUE, true)));
+    }
+
+    public void invalidate(Collection<String> paths) {
+        paths.forEach(this::invalidate);
+    }
+
+    public void invalidateAll() {
+        if(!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        entries.invalidateAll();
+        listings.invalidateAll();
+    }
+
+    /**
+     * Invalidates the paths now and once {@link #taskFinished(String)} is called for the task.
+     */
+    public void taskStarted(String taskId, Collection<String> paths) {
+        if(!enabled) {
+            return;
+        }
+        pendingTasks.put(taskId, paths);
+        invalidate(paths);
+    }
+
+    public void taskFinished(String taskId) {
+        if(!enabled) {
+            return;
+        }
+        Collection<String> paths = pendingTasks.getIfPresent(taskId);
+        if(paths != null) {
+            pendingTasks.invalidate(taskId);
+            invalidate(paths);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), negativeHits.sum(), misses.sum(), listingHits.sum(), listingMisses.sum(), evictions.sum());
+    }
+
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * The cached entry of the path, null when the path is not cached.
+     */
+    Entry get(String path) {
+        Entry entry = entries.getIfPresent(normalize(path));
+        if(entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            entries.invalidate(normalize(path));
+            entry = null;
+        }
+        if(entry == null) {
+            misses.increment();
+        } else if(entry.file == null) {
+            negativeHits.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches what a getinfo call returned for the path, a null file meaning it does not exist. Ignored when the cache
+     * was invalidated since {@code readGeneration}.
+     */
+    void put(String path, File file, long readGeneration) {
+        put(path, new Entry(file, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(file != null ? ttlMillis : negativeTtlMillis)), readGeneration);
+    }
+
+    private void put(String path, Entry entry, long readGeneration) {
+        String key = normalize(path);
+        if(generation.get() == readGeneration) {
+            entries.put(key, entry);
+            entryKeys.add(key);
+            if(generation.get() != readGeneration) {
+                // Invalidated while being put
+                entries.asMap().remove(key, entry);
+            }
+        }
+    }
+
+    List<File> getListing(String folderPath) {
+        List<File> children = listings.getIfPresent(normalize(folderPath));
+        if(children == null) {
+            listingMisses.increment();
+        } else {
+            listingHits.increment();
+        }
+        return children;
+    }
+
+    void putListing(String folderPath, List<File> children, long readGeneration) {
+        if(generation.get() != readGeneration) {
+            return;
+        }
+        String key = normalize(folderPath);
+        List<File> listing = Collections.unmodifiableList(children);
+        listings.put(key, listing);
+        listingKeys.add(key);
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        for (File child : children) {
+            put(child.getPath(), new Entry(child, expiresAt), readGeneration);
+        }
+        if(generation.get() != readGeneration) {
+            listings.asMap().remove(key, listing);
+        }
+    }
+
+    /**
+     * The paths a {@code path} parameter may stand for: itself, and each of its parts when it lists several paths
+     * separated by commas.
+     */
+    public static List<String> splitPaths(String pathParameter) {
+        List<String> paths = new ArrayList<>();
+        paths.add(pathParameter);
+        if(pathParameter.indexOf(',') >= 0) {
+            paths.addAll(Arrays.asList(pathParameter.split(",")));
+        }
+        return paths;
+    }
+
+    /**
+     * The path of the child {@code name} of {@code parentPath}, whether or not the parent path ends with a slash.
+     */
+    public static String childPath(String parentPath, String name) {
+        return parentPath.endsWith("/") ? parentPath + name : parentPath + "/" + name;
+    }
+
+    /**
+     * Drops repeated and trailing slashes, so that equal paths always give the same key.
+     */
+    private static String normalize(String path) {
+        if(path.indexOf("//") < 0 && (path.length() <= 1 || !path.endsWith("/"))) {
+            return path;
+        }
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if(c != '/' || normalized.length() == 0 || normalized.charAt(normalized.length() - 1) != '/') {
+                normalized.append(c);
+            }
+        }
+        if(normalized.length() > 1 && normalized.charAt(normalized.length() - 1) == '/') {
+            normalized.setLength(normalized.length() - 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The parent of a normalized path, {@code "/"} for a share, null for the root.
+     */
+    private static String parentOf(String path) {
+        int separator = path.lastIndexOf('/');
+        if(separator < 0 || path.equals("/")) {
+            return null;
+        }
+        return separator == 0 ? "/" : path.substring(0, separator);
+    }
+
+    static class Entry {
+
+        private final File file;
+        private final long expiresAt;
+
+        private Entry(File file, long expiresAt) {
+            this.file = file;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * The cached file, null when the path is known not to exist.
+         */
+        File getFile() {
+            return file;
+        }
+    }
+
+    public static class Stats {
+
+        private final long hitCount;
+        private final long negativeHitCount;
+        private final long missCount;
+        private final long listingHitCount;
+        private final long listingMissCount;
+        private final long evictionCount;
+
+        public Stats(long hitCount, long negativeHitCount, long missCount, long listingHitCount, long listingMissCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.negativeHitCount = negativeHitCount;
+            this.missCount = missCount;
+            this.listingHitCount = listingHitCount;
+            this.listingMissCount = listingMissCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Lookups answered from a cached "does not exist".
+         */
+        public long getNegativeHitCount() {
+            return negativeHitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getListingHitCount() {
+            return listingHitCount;
+        }
+
+        public long getListingMissCount() {
+            return listingMissCount;
+        }
+
+        /**
+         * Entries and listings dropped to stay within the size bound.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public double getHitRate() {
+            long lookups = hitCount + negativeHitCount + missCount;
+            return lookups == 0 ? 1.0 : (double) (hitCount + negativeHitCount) / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, negativeHits=%d, misses=%d, listingHits=%d, listingMisses=%d, evictions=%d",
+                    hitCount, negativeHitCount, missCount, listingHitCount, listingMissCount, evictionCount);
+        }
+    }
+}
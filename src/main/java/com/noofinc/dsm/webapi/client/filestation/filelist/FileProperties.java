@@ -7,8 +7,13 @@ import com.noofinc.dsm.webapi.client.filestation.common.User;
 
 public class FileProperties {
 
+    /**
+     * Size of an entry listed without {@link com.noofinc.dsm.webapi.client.filestation.common.AdditionalField#SIZE}.
+     */
+    public static final long UNKNOWN_SIZE = -1;
+
     private final String realPath;
-    private final int size;
+    private final long size;
     private final User owner;
     private final TimeInformation timeInformation;
     private final FilePermission filePermission;
@@ -18,14 +23,14 @@ public class FileProperties {
     @JsonCreator
     public FileProperties(
             @JsonProperty("real_path") String realPath,
-            @JsonProperty("size") int size,
+            @JsonProperty("size") Long size,
             @JsonProperty("owner") User owner,
             @JsonProperty("time") TimeInformation timeInformation,
             @JsonProperty("perm") FilePermission filePermission,
             @JsonProperty("mount_point_type") String mountPointType,
             @JsonProperty("type") String type) {
         this.realPath = realPath;
-        this.size = size;
+        this.size = size == null ? UNKNOWN_SIZE : size;
         this.owner = owner;
         this.timeInformation = timeInformation;
         this.filePermission = filePermission;
@@ -37,7 +42,7 @@ public class FileProperties {
         return realPath;
     }
 
-    public int getSize() {
+    public long getSize() {
         return size;
     }
 
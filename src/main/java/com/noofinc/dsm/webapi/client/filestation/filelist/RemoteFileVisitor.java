@@ -0,0 +1,22 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+
+import java.nio.file.FileVisitResult;
+
+/**
+ * Visitor of a remote tree walked by {@link RemoteTreeWalker}, the counterpart of {@link java.nio.file.FileVisitor}.
+ * Directories are walked in parallel, so callbacks for different directories are made concurrently.
+ */
+public interface RemoteFileVisitor {
+
+    FileVisitResult preVisitDirectory(File directory, int depth);
+
+    FileVisitResult visitFile(File file, int depth);
+
+    /**
+     * Called once the whole subtree of the directory has been visited, or with the exception that interrupted its
+     * listing.
+     */
+    FileVisitResult postVisitDirectory(File directory, RuntimeException exception);
+}
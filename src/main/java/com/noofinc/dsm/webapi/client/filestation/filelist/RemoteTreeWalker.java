@@ -0,0 +1,171 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.FileType;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.FileVisitResult;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Walks a remote tree like {@link java.nio.file.Files#walkFileTree}, listing directories in parallel on a fork/join
+ * pool. Listings are paginated so huge directories are never held in memory, and at most
+ * {@code dsm.webapi.walk.maxConcurrentLists} list requests are on the wire at a time.
+ * <p>
+ * As with {@code Files.walkFileTree}, directories at the maximum depth are given to
+ * {@link RemoteFileVisitor#visitFile(File, int)}. {@link FileVisitResult#SKIP_SIBLINGS} stops the listing of the
+ * current directory, {@link FileVisitResult#TERMINATE} stops the whole walk. Only the failure of a listing is given to
+ * {@link RemoteFileVisitor#postVisitDirectory(File, RuntimeException)}: an exception thrown by the visitor stops the
+ * walk and is rethrown by {@code walk}.
+ */
+@Component
+public class RemoteTreeWalker {
+
+    @Autowired
+    private FileListService fileListService;
+
+    @Value("${dsm.webapi.walk.maxConcurrentLists:8}")
+    private int maxConcurrentLists;
+
+    @Value("${dsm.webapi.walk.pageSize:1000}")
+    private int pageSize;
+
+    public void walk(String path, RemoteFileVisitor visitor) {
+        walk(path, Integer.MAX_VALUE, visitor);
+    }
+
+    public void walk(String path, int maxDepth, RemoteFileVisitor visitor) {
+        File root = fileListService.getFile(path);
+        if(root == null) {
+            throw new FileNotFoundException(path, null);
+        }
+        if(!root.isDirectory() || maxDepth == 0) {
+            visitor.visitFile(root, 0);
+            return;
+        }
+        if(visitor.preVisitDirectory(root, 0) != FileVisitResult.CONTINUE) {
+            return;
+        }
+        Walk walk = new Walk(maxDepth, visitor);
+        ForkJoinPool pool = new ForkJoinPool(maxConcurrentLists);
+        try {
+            pool.invoke(walk.new DirectoryTask(root, 0));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private class Walk {
+
+        private final int maxDepth;
+        private final RemoteFileVisitor visitor;
+        private final Semaphore listPermits = new Semaphore(maxConcurrentLists);
+        private final StreamOptions streamOptions = StreamOptions.createBuilder().pageSize(pageSize).build();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private Walk(int maxDepth, RemoteFileVisitor visitor) {
+            this.maxDepth = maxDepth;
+            this.visitor = visitor;
+        }
+
+        private boolean proceed(FileVisitResult result) {
+            if(result == FileVisitResult.TERMINATE) {
+                terminated.set(true);
+            }
+            return result == FileVisitResult.CONTINUE || result == FileVisitResult.SKIP_SUBTREE;
+        }
+
+        private CompletableFuture<File.FileList> listPage(String folderPath, PaginationAndSorting page) {
+            listPermits.acquireUninterruptibly();
+            CompletableFuture<File.FileList> future;
+            try {
+                future = fileListService.listAsync(page, folderPath, Optional.<List<String>>empty(), Optional.<FileType>empty(), Optional.<String>empty());
+            } catch (RuntimeException e) {
+                listPermits.release();
+                throw e;
+            }
+            future.whenComplete((files, error) -> listPermits.release());
+            return future;
+        }
+
+        private class DirectoryTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final File directory;
+            private final int depth;
+
+            private DirectoryTask(File directory, int depth) {
+                this.directory = directory;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                if(terminated.get()) {
+                    return;
+                }
+                List<DirectoryTask> subdirectories = new ArrayList<>();
+                RuntimeException exception = null;
+                try (Stream<File> children = PageSpliterator.stream(page -> listPage(directory.getPath(), page), streamOptions)) {
+                    Iterator<File> iterator = children.iterator();
+                    while(!terminated.get()) {
+                        File child;
+                        // Only a failed listing goes to postVisitDirectory, the exceptions of the visitor stop the walk
+                        try {
+                            if(!iterator.hasNext()) {
+                                break;
+                            }
+                            child = iterator.next();
+                        } catch (RuntimeException e) {
+                            exception = e;
+                            break;
+                        }
+                        if(!visitChild(child, subdirectories)) {
+                            break;
+                        }
+                    }
+                } catch (RuntimeException | Error e) {
+                    terminated.set(true);
+                    throw e;
+                }
+                for (DirectoryTask subdirectory : subdirectories) {
+                    subdirectory.join();
+                }
+                if(!terminated.get()) {
+                    proceed(visitor.postVisitDirectory(directory, exception));
+                }
+            }
+
+            private boolean visitChild(File child, List<DirectoryTask> subdirectories) {
+                int childDepth = depth + 1;
+                if(!child.isDirectory() || childDepth >= maxDepth) {
+                    return proceed(visitor.visitFile(child, childDepth));
+                }
+                // Visited before forking, so that SKIP_SIBLINGS can stop the listing of this directory
+                FileVisitResult result = visitor.preVisitDirectory(child, childDepth);
+                if(result == FileVisitResult.CONTINUE) {
+                    DirectoryTask subdirectory = new DirectoryTask(child, childDepth);
+                    subdirectory.fork();
+                    subdirectories.add(subdirectory);
+                }
+                return proceed(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+
+import java.nio.file.FileVisitResult;
+
+/**
+ * Visits everything and rethrows listing failures.
+ */
+public class SimpleRemoteFileVisitor implements RemoteFileVisitor {
+
+    @Override
+    public FileVisitResult preVisitDirectory(File directory, int depth) {
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(File file, int depth) {
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(File directory, RuntimeException exception) {
+        if(exception != null) {
+            throw exception;
+        }
+        return FileVisitResult.CONTINUE;
+    }
+}
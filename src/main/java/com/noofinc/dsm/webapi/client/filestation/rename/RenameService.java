@@ -2,10 +2,14 @@ package com.noofinc.dsm.webapi.client.filestation.rename;
 
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface RenameService {
 
     File rename(String path, String name);
 
     File rename(String path, String name, String searchTaskId);
 
+    CompletableFuture<File> renameAsync(String path, String name);
+
 }
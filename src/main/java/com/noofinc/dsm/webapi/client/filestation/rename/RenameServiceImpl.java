@@ -6,12 +6,17 @@ import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
 import com.noofinc.dsm.webapi.client.core.ErrorHandler;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
 import com.noofinc.dsm.webapi.client.filestation.common.ErrorCodes;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 import com.noofinc.dsm.webapi.client.filestation.exception.CouldNotRenameException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileMetadataCache;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class RenameServiceImpl extends AbstractDsmServiceImpl implements RenameService {
 
@@ -29,7 +34,10 @@ public class RenameServiceImpl extends AbstractDsmServiceImpl implements RenameS
     public static final String PARAMETER_SEARCH_TASKID = "search_taskid";
 
     // Parameters values
-    public static final String PARAMETER_VALUE_ADDITIONAL = "real_path,size,owner,time,perm,type";
+    public static final String PARAMETER_VALUE_ADDITIONAL = AdditionalField.join(AdditionalField.FILE_FIELDS);
+
+    @Autowired
+    private FileMetadataCache metadataCache;
 
     public RenameServiceImpl() {
         super(API_ID);
@@ -39,6 +47,7 @@ public class RenameServiceImpl extends AbstractDsmServiceImpl implements RenameS
     public File rename(String path, String name) {
         DsmWebapiRequest request = buildRequest(path, name);
         RenameResponse response = getDsmWebapiClient().call(request, RenameResponse.class, new RenameErrorHandler());
+        invalidate(path, name);
         return response.getData().getElements().get(0);
     }
 
@@ -54,9 +63,24 @@ public class RenameServiceImpl extends AbstractDsmServiceImpl implements RenameS
         DsmWebapiRequest request = buildRequest(path, name)
                 .parameter(PARAMETER_SEARCH_TASKID, searchTaskId);
         RenameResponse response = getDsmWebapiClient().call(request, RenameResponse.class, new RenameErrorHandler());
+        invalidate(path, name);
         return response.getData().getElements().get(0);
     }
 
+    @Override
+    public CompletableFuture<File> renameAsync(String path, String name) {
+        return getDsmWebapiClient().callAsync(buildRequest(path, name), RenameResponse.class, new RenameErrorHandler())
+                .thenApply(response -> {
+                    invalidate(path, name);
+                    return response.getData().getElements().get(0);
+                });
+    }
+
+    private void invalidate(String path, String name) {
+        metadataCache.invalidate(path);
+        metadataCache.invalidate(path.substring(0, Math.max(path.lastIndexOf('/'), 0)), name);
+    }
+
     private static class RenameResponse extends DsmWebapiResponse<File.FileList> {
 
         @JsonCreator
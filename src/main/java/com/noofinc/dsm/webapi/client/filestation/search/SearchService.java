@@ -1,9 +1,16 @@
 package com.noofinc.dsm.webapi.client.filestation.search;
 
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface SearchService {
 
@@ -13,8 +20,26 @@ public interface SearchService {
 
     SearchResult getResult(String taskId, PaginationAndSorting paginationAndSorting);
 
+    /**
+     * Only fetches the given additional fields, the others are absent from the results.
+     */
+    SearchResult getResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional);
+
     List<File> getResult(String taskId);
 
+    CompactFile.CompactFileList getCompactResult(String taskId, PaginationAndSorting paginationAndSorting);
+
+    CompactFile.CompactFileList getCompactResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional);
+
+    /**
+     * Hands each result to the consumer as soon as it is parsed, without holding the whole page.
+     *
+     * @return whether the search is finished
+     */
+    boolean getResult(String taskId, PaginationAndSorting paginationAndSorting, Consumer<? super File> consumer);
+
+    boolean getResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional, Consumer<? super File> consumer);
+
     void stop(List<String> taskIds);
 
     void stop(String taskId);
@@ -24,4 +49,29 @@ public interface SearchService {
     void clean(String taskId);
 
     List<File> synchronousSearch(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria);
+
+    /**
+     * Starts a search and streams its hits while it runs, page by page, ending once it is finished and every hit was
+     * read. Closing the stream stops and cleans the search task, whether or not it was consumed entirely.
+     */
+    Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria);
+
+    Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria, StreamOptions options);
+
+    Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria, StreamOptions options, Set<AdditionalField> additional);
+
+    CompletableFuture<String> startAsync(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria);
+
+    CompletableFuture<SearchResult> getResultAsync(String taskId, PaginationAndSorting paginationAndSorting);
+
+    CompletableFuture<SearchResult> getResultAsync(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional);
+
+    CompletableFuture<Void> stopAsync(String taskId);
+
+    CompletableFuture<Void> cleanAsync(String taskId);
+
+    /**
+     * Runs a search and completes with its results once finished. The search task is cleaned in any case.
+     */
+    CompletableFuture<List<File>> searchAsync(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria);
 }
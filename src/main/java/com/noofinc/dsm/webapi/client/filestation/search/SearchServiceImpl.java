@@ -2,10 +2,12 @@ package com.noofinc.dsm.webapi.client.filestation.search;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
 import com.noofinc.dsm.webapi.client.filestation.common.File;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.google.common.base.Joiner;
-import com.jayway.awaitility.core.ConditionTimeoutException;
 import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
@@ -13,6 +15,9 @@ import com.noofinc.dsm.webapi.client.filestation.common.FileType;
 import com.noofinc.dsm.webapi.client.filestation.common.TaskId;
 import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
 import com.noofinc.dsm.webapi.client.core.timezone.TimeZoneUtil;
+import com.noofinc.dsm.webapi.client.filestation.task.PollingPolicy;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskSupervisor;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -21,10 +26,12 @@ import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
-
-import static com.jayway.awaitility.Awaitility.await;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Component
 public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchService {
@@ -61,8 +68,15 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
     private static final String PARAMETER_SORT_BY = "sort_by";
     private static final String PARAMETER_TASKID = "taskid";
 
+    // Response fields
+    private static final String FIELD_FILES = "files";
+    private static final String FIELD_FINISHED = "finished";
+
     // Parameters values
-    private static final String PARAMETER_VALUE_ADDITIONAL = "real_path,size,owner,time,perm,type";
+    private static final Set<AdditionalField> PARAMETER_VALUE_ADDITIONAL = AdditionalField.FILE_FIELDS;
+
+    // Only the finished flag is read: one entry, no additional field
+    private static final PaginationAndSorting FINISHED_CHECK = new PaginationAndSorting(0, 1, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
 
     @Autowired
     private TimeZoneUtil timeZoneUtil;
@@ -70,6 +84,15 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
     @Value("${dsm.webapi.synchronousSearch.timeout:30}")
     private int synchronousSearchTimeout;
 
+    @Value("${dsm.webapi.search.maxPollInterval:2000}")
+    private long maxPollIntervalMillis;
+
+    @Autowired
+    private PollingPolicy pollingPolicy;
+
+    @Autowired
+    private TaskSupervisor taskSupervisor;
+
     private Function<LocalDateTime, String> localDateToTimeStringFunction;
 
     public SearchServiceImpl() {
@@ -83,7 +106,12 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
 
     @Override
     public String start(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
+        StartSearchResponse call = getDsmWebapiClient().call(buildStartRequest(searchedFolderPath, recursive, searchCriteria), StartSearchResponse.class);
+        return call.getData().getTaskId();
+    }
+
+    private DsmWebapiRequest buildStartRequest(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
+        return new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_START)
                 .parameter(PARAMETER_FOLDER_PATH, searchedFolderPath)
                 .parameter(PARAMETER_RECURSIVE, Boolean.toString(recursive))
                 .optionalStringParameter(PARAMETER_PATTERN, Joiner.on(',').join(searchCriteria.getPatterns()))
@@ -99,27 +127,55 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
                 .optionalParameter(PARAMETER_ATIME_TO, searchCriteria.getLastAccessTimeTo(), localDateToTimeStringFunction)
                 .optionalParameter(PARAMETER_OWNER, searchCriteria.getOwnerUserName())
                 .optionalParameter(PARAMETER_GROUP, searchCriteria.getGroupName());
-        StartSearchResponse call = getDsmWebapiClient().call(request, StartSearchResponse.class);
-        return call.getData().getTaskId();
     }
 
     @Override
     public boolean isFinished(String taskId) {
-        return getResult(taskId, new PaginationAndSorting(0, 1, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC)).isFinished();
+        return getResult(taskId, FINISHED_CHECK, AdditionalField.NONE).isFinished();
     }
 
     @Override
     public SearchResult getResult(String taskId, PaginationAndSorting paginationAndSorting) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), "1", getApiInfo().getPath(), "list")
+        return getResult(taskId, paginationAndSorting, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public SearchResult getResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional) {
+        SearchResultResponse call = getDsmWebapiClient().call(buildResultRequest(taskId, paginationAndSorting, additional), SearchResultResponse.class);
+        return call.getData();
+    }
+
+    @Override
+    public CompactFile.CompactFileList getCompactResult(String taskId, PaginationAndSorting paginationAndSorting) {
+        return getCompactResult(taskId, paginationAndSorting, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public CompactFile.CompactFileList getCompactResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional) {
+        CompactSearchResultResponse call = getDsmWebapiClient().call(buildResultRequest(taskId, paginationAndSorting, additional), CompactSearchResultResponse.class);
+        return call.getData();
+    }
+
+    @Override
+    public boolean getResult(String taskId, PaginationAndSorting paginationAndSorting, Consumer<? super File> consumer) {
+        return getResult(taskId, paginationAndSorting, PARAMETER_VALUE_ADDITIONAL, consumer);
+    }
+
+    @Override
+    public boolean getResult(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional, Consumer<? super File> consumer) {
+        return getDsmWebapiClient().callStreaming(buildResultRequest(taskId, paginationAndSorting, additional), FIELD_FILES, File.class, consumer, null)
+                .path(FIELD_FINISHED).asBoolean();
+    }
+
+    private DsmWebapiRequest buildResultRequest(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional) {
+        return new DsmWebapiRequest(getApiId(), "1", getApiInfo().getPath(), "list")
                 .parameter(PARAMETER_TASKID, taskId)
                 .parameter(PARAMETER_OFFSET, paginationAndSorting.getOffset())
                 .parameter(PARAMETER_LIMIT, paginationAndSorting.getLimit())
                 .parameter(PARAMETER_SORT_BY, paginationAndSorting.getSortBy().getRepresentation())
                 .parameter(PARAMETER_SORT_DIRECTION, paginationAndSorting.getSortDirection().getRepresentation())
-                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL)
+                .optionalStringParameter(PARAMETER_ADDITIONAL, AdditionalField.join(additional))
                 ;
-        SearchResultResponse call = getDsmWebapiClient().call(request, SearchResultResponse.class);
-        return call.getData();
     }
 
     @Override
@@ -157,18 +213,79 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
     public List<File> synchronousSearch(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
         String taskId = start(searchedFolderPath, recursive, searchCriteria);
         try {
-            await().atMost(synchronousSearchTimeout, TimeUnit.SECONDS).until(() -> {
-                return SearchServiceImpl.this.isFinished(taskId);
-            });
+            taskSupervisor.waitFor(TaskType.SEARCH, taskId, synchronousSearchTimeout * 1000L);
             return getResult(taskId);
-        } catch (ConditionTimeoutException e) {
+        } catch (TaskTimeOutException e) {
             stop(taskId);
-            throw new TaskTimeOutException(e);
+            throw e;
         } finally {
             clean(taskId);
         }
     }
 
+    @Override
+    public Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
+        return stream(searchedFolderPath, recursive, searchCriteria, StreamOptions.getDefaultStreamOptions());
+    }
+
+    @Override
+    public Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria, StreamOptions options) {
+        return stream(searchedFolderPath, recursive, searchCriteria, options, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public Stream<File> stream(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria, StreamOptions options, Set<AdditionalField> additional) {
+        String taskId = start(searchedFolderPath, recursive, searchCriteria);
+        SearchSpliterator spliterator = new SearchSpliterator(this, taskId, options, additional, pollingPolicy.newSchedule(maxPollIntervalMillis));
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    @Override
+    public CompletableFuture<String> startAsync(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
+        return getDsmWebapiClient().callAsync(buildStartRequest(searchedFolderPath, recursive, searchCriteria), StartSearchResponse.class)
+                .thenApply(response -> response.getData().getTaskId());
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> getResultAsync(String taskId, PaginationAndSorting paginationAndSorting) {
+        return getResultAsync(taskId, paginationAndSorting, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> getResultAsync(String taskId, PaginationAndSorting paginationAndSorting, Set<AdditionalField> additional) {
+        return getDsmWebapiClient().callAsync(buildResultRequest(taskId, paginationAndSorting, additional), SearchResultResponse.class)
+                .thenApply(SearchResultResponse::getData);
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync(String taskId) {
+        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_STOP)
+                .parameter(PARAMETER_TASKID, taskId);
+        return getDsmWebapiClient().callAsync(request, DsmWebapiResponse.class).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> cleanAsync(String taskId) {
+        DsmWebapiRequest request = new DsmWebapiRequest(getApiId(), API_VERSION, getApiInfo().getPath(), METHOD_CLEAN)
+                .parameter(PARAMETER_TASKID, taskId);
+        return getDsmWebapiClient().callAsync(request, DsmWebapiResponse.class).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<List<File>> searchAsync(String searchedFolderPath, boolean recursive, SearchCriteria searchCriteria) {
+        return startAsync(searchedFolderPath, recursive, searchCriteria).thenCompose(taskId ->
+                taskSupervisor.supervise(TaskType.SEARCH, taskId, synchronousSearchTimeout * 1000L)
+                        .thenCompose(finished -> getResultAsync(taskId, PaginationAndSorting.DEFAULT_PAGINATION_AND_SORTING))
+                        .thenApply(SearchResult::getElements)
+                        .whenComplete((files, error) -> {
+                            if (error != null) {
+                                stopAsync(taskId).whenComplete((ignored, stopError) -> cleanAsync(taskId));
+                            } else {
+                                cleanAsync(taskId);
+                            }
+                        }));
+    }
+
     public static class StartSearchResponse extends DsmWebapiResponse<TaskId> {
 
         public StartSearchResponse(@JsonProperty("success") boolean success, @JsonProperty("data") TaskId data, @JsonProperty("error") DsmWebApiResponseError error) {
@@ -182,4 +299,11 @@ public class SearchServiceImpl extends AbstractDsmServiceImpl implements SearchS
             super(success, data, error);
         }
     }
+
+    public static class CompactSearchResultResponse extends DsmWebapiResponse<CompactFile.CompactFileList> {
+
+        public CompactSearchResultResponse(@JsonProperty("success") boolean success, @JsonProperty("data") CompactFile.CompactFileList data, @JsonProperty("error") DsmWebApiResponseError error) {
+            super(success, data, error);
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package com.noofinc.dsm.webapi.client.filestation.search;
+
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.filestation.task.PollingSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the results of a running search with a moving offset, backing off as told by the {@link PollingSchedule} while
+ * no new hit shows up. Over once the search is finished and the offset caught up with its total.
+ * <p>
+ * Hits listed while the search runs may move within the sort order as new ones are found, so the paths handed out are
+ * remembered: duplicates are dropped, and if fewer distinct hits than the final total were seen, the results are read
+ * once more from the start. Closing stops the search if it is still running and cleans it.
+ */
+class SearchSpliterator implements Spliterator<File>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchSpliterator.class);
+
+    private final SearchService searchService;
+    private final String taskId;
+    private final StreamOptions options;
+    private final Set<AdditionalField> additional;
+    private final PollingSchedule schedule;
+    private final Set<String> seenPaths = new HashSet<>();
+
+    private Iterator<File> page = Collections.emptyIterator();
+    private int offset;
+    private int total;
+    private boolean finished;
+    private boolean reread;
+    private boolean closed;
+
+    SearchSpliterator(SearchService searchService, String taskId, StreamOptions options, Set<AdditionalField> additional, PollingSchedule schedule) {
+        this.searchService = searchService;
+        this.taskId = taskId;
+        this.options = options;
+        this.additional = additional;
+        this.schedule = schedule;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super File> action) {
+        while(true) {
+            while(page.hasNext()) {
+                File file = page.next();
+                if(seenPaths.add(file.getPath())) {
+                    action.accept(file);
+                    return true;
+                }
+            }
+            if(closed || !nextPage()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean nextPage() {
+        if(finished && offset >= total) {
+            if(reread || seenPaths.size() >= total) {
+                close();
+                return false;
+            }
+            reread = true;
+            offset = 0;
+        }
+        try {
+            SearchResult result = searchService.getResult(taskId, new PaginationAndSorting(offset, options.getPageSize(), options.getSortBy(), options.getSortDirection()), additional);
+            List<File> files = result.getElements();
+            finished = result.isFinished();
+            total = result.getTotal();
+            offset += files.size();
+            if(!files.isEmpty()) {
+                schedule.reset();
+            } else if(finished) {
+                // Nothing more to read, whatever the total says
+                offset = Math.max(offset, total);
+            } else {
+                TimeUnit.MILLISECONDS.sleep(schedule.nextDelay());
+            }
+            page = files.iterator();
+            return true;
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Thread interrupted", e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        page = Collections.emptyIterator();
+        try {
+            if(!finished) {
+                searchService.stop(taskId);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not stop search task {}", taskId, e);
+        } finally {
+            try {
+                searchService.clean(taskId);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not clean search task {}", taskId, e);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<File> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+}
@@ -1,15 +1,35 @@
 package com.noofinc.dsm.webapi.client.filestation.sharelist;
 
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface ShareListService {
 
     ShareList list(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable);
 
+    /**
+     * Only fetches the given additional fields, the others are absent from the listed shares.
+     */
+    ShareList list(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable, Set<AdditionalField> additional);
+
     List<Share> list(boolean onlyWritable);
 
     List<Share> list();
+
+    Stream<Share> stream(StreamOptions options);
+
+    Stream<Share> stream(StreamOptions options, Set<AdditionalField> additional);
+
+    CompletableFuture<ShareList> listAsync(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable);
+
+    CompletableFuture<ShareList> listAsync(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable, Set<AdditionalField> additional);
+
+    CompletableFuture<List<Share>> listAsync();
 }
@@ -2,14 +2,22 @@ package com.noofinc.dsm.webapi.client.filestation.sharelist;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiResponse;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.PageSpliterator;
 import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.noofinc.dsm.webapi.client.core.AbstractDsmServiceImpl;
 import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
 import com.noofinc.dsm.webapi.client.core.DsmWebapiRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Component
 public class ShareListServiceImpl extends AbstractDsmServiceImpl implements ShareListService {
@@ -30,7 +38,10 @@ public class ShareListServiceImpl extends AbstractDsmServiceImpl implements Shar
     private static final String PARAMETER_SORT_DIRECTION = "sort_direction";
 
     // Parameters values
-    private static final String PARAMETER_VALUE_ADDITIONAL = "real_path,owner,time,perm,mount_point_type,sync_share,volume_status";
+    private static final Set<AdditionalField> PARAMETER_VALUE_ADDITIONAL = Collections.unmodifiableSet(EnumSet.of(
+            AdditionalField.REAL_PATH, AdditionalField.OWNER, AdditionalField.TIME, AdditionalField.PERM, AdditionalField.MOUNT_POINT_TYPE, AdditionalField.SYNC_SHARE, AdditionalField.VOLUME_STATUS));
+
+    private static final PaginationAndSorting ALL_BY_NAME = new PaginationAndSorting(0, 0 /* Default limit to all (0) */, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
 
     public ShareListServiceImpl() {
         super(API_ID);
@@ -38,20 +49,18 @@ public class ShareListServiceImpl extends AbstractDsmServiceImpl implements Shar
 
     @Override
     public ShareList list(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable) {
-        DsmWebapiRequest request = new DsmWebapiRequest(getApiInfo().getApi(), API_VERSION, getApiInfo().getPath(), METHOD_LIST_SHARE)
-                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
-                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
-                .parameter(PARAMETER_SORT_BY, paginationAndSorting.getSortBy().getRepresentation())
-                .parameter(PARAMETER_SORT_DIRECTION, paginationAndSorting.getSortDirection().getRepresentation())
-                .parameter(PARAMETER_ONLYWRITABLE, onlyWritable.orElse(false).toString())
-                .parameter(PARAMETER_ADDITIONAL, PARAMETER_VALUE_ADDITIONAL);
-        ShareListResponse call = getDsmWebapiClient().call(request, ShareListResponse.class);
+        return list(paginationAndSorting, onlyWritable, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public ShareList list(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable, Set<AdditionalField> additional) {
+        ShareListResponse call = getDsmWebapiClient().call(buildListRequest(paginationAndSorting, onlyWritable, additional), ShareListResponse.class);
         return call.getData();
     }
 
     @Override
     public List<Share> list(boolean onlyWritable) {
-        return list(new PaginationAndSorting(0, 0 /* Default limit to all (0) */, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC), Optional.of(onlyWritable)).getElements();
+        return list(ALL_BY_NAME, Optional.of(onlyWritable)).getElements();
     }
 
     @Override
@@ -59,6 +68,42 @@ public class ShareListServiceImpl extends AbstractDsmServiceImpl implements Shar
         return list(false);
     }
 
+    @Override
+    public Stream<Share> stream(StreamOptions options) {
+        return stream(options, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public Stream<Share> stream(StreamOptions options, Set<AdditionalField> additional) {
+        return PageSpliterator.stream(page -> listAsync(page, Optional.of(false), additional), options);
+    }
+
+    @Override
+    public CompletableFuture<ShareList> listAsync(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable) {
+        return listAsync(paginationAndSorting, onlyWritable, PARAMETER_VALUE_ADDITIONAL);
+    }
+
+    @Override
+    public CompletableFuture<ShareList> listAsync(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable, Set<AdditionalField> additional) {
+        return getDsmWebapiClient().callAsync(buildListRequest(paginationAndSorting, onlyWritable, additional), ShareListResponse.class)
+                .thenApply(ShareListResponse::getData);
+    }
+
+    @Override
+    public CompletableFuture<List<Share>> listAsync() {
+        return listAsync(ALL_BY_NAME, Optional.of(false)).thenApply(ShareList::getElements);
+    }
+
+    private DsmWebapiRequest buildListRequest(PaginationAndSorting paginationAndSorting, Optional<Boolean> onlyWritable, Set<AdditionalField> additional) {
+        return new DsmWebapiRequest(getApiInfo().getApi(), API_VERSION, getApiInfo().getPath(), METHOD_LIST_SHARE)
+                .parameter(PARAMETER_OFFSET, Integer.toString(paginationAndSorting.getOffset()))
+                .parameter(PARAMETER_LIMIT, Integer.toString(paginationAndSorting.getLimit()))
+                .parameter(PARAMETER_SORT_BY, paginationAndSorting.getSortBy().getRepresentation())
+                .parameter(PARAMETER_SORT_DIRECTION, paginationAndSorting.getSortDirection().getRepresentation())
+                .parameter(PARAMETER_ONLYWRITABLE, onlyWritable.orElse(false).toString())
+                .optionalStringParameter(PARAMETER_ADDITIONAL, AdditionalField.join(additional));
+    }
+
     private static class ShareListResponse extends DsmWebapiResponse<ShareList> {
 
         public ShareListResponse(@JsonProperty("success") boolean success, @JsonProperty("data") ShareList data, @JsonProperty("error") DsmWebApiResponseError error) {
@@ -0,0 +1,61 @@
+package com.noofinc.dsm.webapi.client.filestation.snapshot;
+
+/**
+ * A difference between a {@link TreeSnapshot} and the remote tree. An entry whose type changed is reported as deleted
+ * then added.
+ */
+public class TreeChange {
+
+    public enum Kind {
+        ADDED, MODIFIED, DELETED
+    }
+
+    private final Kind kind;
+    private final TreeSnapshot.Entry previous;
+    private final TreeSnapshot.Entry current;
+
+    TreeChange(Kind kind, TreeSnapshot.Entry previous, TreeSnapshot.Entry current) {
+        this.kind = kind;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    static TreeChange added(TreeSnapshot.Entry current) {
+        return new TreeChange(Kind.ADDED, null, current);
+    }
+
+    static TreeChange modified(TreeSnapshot.Entry previous, TreeSnapshot.Entry current) {
+        return new TreeChange(Kind.MODIFIED, previous, current);
+    }
+
+    static TreeChange deleted(TreeSnapshot.Entry previous) {
+        return new TreeChange(Kind.DELETED, previous, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getPath() {
+        return current != null ? current.getPath() : previous.getPath();
+    }
+
+    /**
+     * The entry as recorded in the snapshot, null when added.
+     */
+    public TreeSnapshot.Entry getPrevious() {
+        return previous;
+    }
+
+    /**
+     * The entry as found on the NAS, null when deleted.
+     */
+    public TreeSnapshot.Entry getCurrent() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + getPath();
+    }
+}
@@ -0,0 +1,272 @@
+package com.noofinc.dsm.webapi.client.filestation.snapshot;
+
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One run of {@link TreeScanner}: the changes are found while {@link #changes()} is consumed, one directory at a
+ * time, grouped by directory but in no particular order otherwise. Once they are all consumed,
+ * {@link #getSnapshot()} gives the snapshot to compare the next scan to.
+ */
+public class TreeScan implements AutoCloseable {
+
+    private final TreeScanner scanner;
+    private final String root;
+    private final TreeSnapshot previous;
+    private final boolean skipUnchangedDirectories;
+    private final TreeSnapshot.Builder builder;
+
+    private final Deque<Directory> pendingDirectories = new ArrayDeque<>();
+    // Recorded subdirectories of unchanged directories, checked in batches
+    private final List<Integer> uncheckedDirectories = new ArrayList<>();
+    private final Deque<TreeChange> changes = new ArrayDeque<>();
+
+    private Listing listing;
+    private boolean started;
+    private boolean streamed;
+    private TreeSnapshot snapshot;
+    private int listedDirectoryCount;
+    private int skippedDirectoryCount;
+
+    TreeScan(TreeScanner scanner, String root, TreeSnapshot previous, boolean skipUnchangedDirectories) {
+        this.scanner = scanner;
+        this.root = root;
+        this.previous = previous;
+        this.skipUnchangedDirectories = skipUnchangedDirectories;
+        this.builder = new TreeSnapshot.Builder(root);
+    }
+
+    /**
+     * Can only be consumed once. Closing the stream stops the scan.
+     */
+    public Stream<TreeChange> changes() {
+        if(streamed) {
+            throw new IllegalStateException("Changes already streamed");
+        }
+        streamed = true;
+        return StreamSupport.stream(new ChangeSpliterator(), false).onClose(this::close);
+    }
+
+    public TreeSnapshot getSnapshot() {
+        if(snapshot == null) {
+            throw new IllegalStateException("The changes have not all been consumed");
+        }
+        return snapshot;
+    }
+
+    public int getListedDirectoryCount() {
+        return listedDirectoryCount;
+    }
+
+    /**
+     * Directories taken from the previous snapshot instead of being listed.
+     */
+    public int getSkippedDirectoryCount() {
+        return skippedDirectoryCount;
+    }
+
+    @Override
+    public void close() {
+        if(listing != null) {
+            listing.close();
+            listing = null;
+        }
+    }
+
+    /**
+     * Does the next unit of work, which may or may not find changes, false once the scan is over.
+     */
+    private boolean advance() {
+        if(!started) {
+            started = true;
+            start();
+        } else if(listing != null) {
+            listing.next();
+        } else if(!pendingDirectories.isEmpty()) {
+            visit(pendingDirectories.pop());
+        } else if(!uncheckedDirectories.isEmpty()) {
+            checkDirectories();
+        } else {
+            if(snapshot == null) {
+                snapshot = builder.build();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void start() {
+        Optional<File> file = scanner.stat(Collections.singletonList(root)).get(root);
+        if(!file.isPresent()) {
+            throw new FileNotFoundException(root, null);
+        }
+        if(!file.get().isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + root);
+        }
+        TreeSnapshot.Entry entry = TreeScanner.toEntry(file.get());
+        builder.add(entry);
+        pendingDirectories.push(new Directory(entry, previous.indexOf(root)));
+    }
+
+    private void visit(Directory directory) {
+        if(skipUnchangedDirectories && directory.isUnchanged()) {
+            skippedDirectoryCount++;
+            for (int child : previous.children(directory.recorded)) {
+                TreeSnapshot.Entry entry = previous.entry(child);
+                if(entry.isDirectory()) {
+                    uncheckedDirectories.add(child);
+                } else {
+                    builder.add(entry);
+                }
+            }
+        } else {
+            listedDirectoryCount++;
+            listing = new Listing(directory);
+        }
+    }
+
+    private void checkDirectories() {
+        int from = Math.max(0, uncheckedDirectories.size() - scanner.getStatBatchSize());
+        List<Integer> batch = uncheckedDirectories.subList(from, uncheckedDirectories.size());
+        List<String> paths = new ArrayList<>(batch.size());
+        for (int recorded : batch) {
+            paths.add(previous.entry(recorded).getPath());
+        }
+        Map<String, Optional<File>> files = scanner.stat(paths);
+        for (int recorded : batch) {
+            Optional<File> file = files.get(previous.entry(recorded).getPath());
+            if(!file.isPresent()) {
+                deleted(recorded);
+            } else {
+                TreeSnapshot.Entry entry = TreeScanner.toEntry(file.get());
+                builder.add(entry);
+                if(entry.isDirectory()) {
+                    pendingDirectories.push(new Directory(entry, recorded));
+                } else {
+                    deleted(recorded);
+                    changes.add(TreeChange.added(entry));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void deleted(int recorded) {
+        previous.subtree(recorded).forEach(entry -> changes.add(TreeChange.deleted(entry)));
+    }
+
+    private class Directory {
+
+        private final TreeSnapshot.Entry entry;
+        // Index in the previous snapshot, -1 when new
+        private final int recorded;
+
+        private Directory(TreeSnapshot.Entry entry, int recorded) {
+            this.entry = entry;
+            this.recorded = recorded;
+        }
+
+        private boolean isUnchanged() {
+            return recorded >= 0
+                    && entry.getLastModificationTime() != CompactFile.UNKNOWN
+                    && entry.getLastModificationTime() == previous.entry(recorded).getLastModificationTime();
+        }
+    }
+
+    private class Listing implements AutoCloseable {
+
+        private final Map<String, Integer> recordedChildren = new HashMap<>();
+        private final Stream<CompactFile> files;
+        private final Iterator<CompactFile> iterator;
+
+        private Listing(Directory directory) {
+            if(directory.recorded >= 0) {
+                for (int child : previous.children(directory.recorded)) {
+                    recordedChildren.put(previous.entry(child).getName(), child);
+                }
+            }
+            files = scanner.list(directory.entry.getPath());
+            iterator = files.iterator();
+        }
+
+        private void next() {
+            if(!iterator.hasNext()) {
+                close();
+                listing = null;
+                recordedChildren.values().stream().sorted().forEach(TreeScan.this::deleted);
+                return;
+            }
+            TreeSnapshot.Entry entry = TreeScanner.toEntry(iterator.next());
+            builder.add(entry);
+            Integer recorded = recordedChildren.remove(entry.getName());
+            if(recorded == null) {
+                changes.add(TreeChange.added(entry));
+                if(entry.isDirectory()) {
+                    pendingDirectories.push(new Directory(entry, -1));
+                }
+                return;
+            }
+            TreeSnapshot.Entry previousEntry = previous.entry(recorded);
+            if(previousEntry.isDirectory() != entry.isDirectory()) {
+                deleted(recorded);
+                changes.add(TreeChange.added(entry));
+                if(entry.isDirectory()) {
+                    pendingDirectories.push(new Directory(entry, -1));
+                }
+            } else if(entry.isDirectory()) {
+                pendingDirectories.push(new Directory(entry, recorded));
+            } else if(entry.getSize() != previousEntry.getSize() || entry.getLastModificationTime() != previousEntry.getLastModificationTime()) {
+                changes.add(TreeChange.modified(previousEntry, entry));
+            }
+        }
+
+        @Override
+        public void close() {
+            files.close();
+        }
+    }
+
+    private class ChangeSpliterator implements Spliterator<TreeChange> {
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TreeChange> action) {
+            while(changes.isEmpty()) {
+                if(!advance()) {
+                    return false;
+                }
+            }
+            action.accept(changes.poll());
+            return true;
+        }
+
+        @Override
+        public Spliterator<TreeChange> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.noofinc.dsm.webapi.client.filestation.snapshot;
+
+import com.noofinc.dsm.webapi.client.core.timezone.TimeZoneUtil;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Finds what changed under a remote folder since a {@link TreeSnapshot} was taken.
+ * <p>
+ * A directory whose modification time did not change still has the same children, so by default its listing is
+ * taken from the snapshot and only its subdirectories are checked, with batched getinfo calls. A repeat scan of a
+ * mostly static share then lists only the directories where entries were added, removed or renamed. Files rewritten
+ * in place do not touch the modification time of their directory: scan with {@code skipUnchangedDirectories} off to
+ * catch those.
+ */
+@Component
+public class TreeScanner {
+
+    // Only what a snapshot records
+    private static final Set<AdditionalField> FIELDS = Collections.unmodifiableSet(EnumSet.of(AdditionalField.SIZE, AdditionalField.TIME));
+
+    @Autowired
+    private FileListService fileListService;
+
+    @Value("${dsm.webapi.scan.pageSize:1000}")
+    private int pageSize;
+
+    @Value("${dsm.webapi.scan.statBatchSize:5000}")
+    private int statBatchSize;
+
+    /**
+     * Lists the whole tree under {@code path}.
+     */
+    public TreeSnapshot snapshot(String path) {
+        try (TreeScan scan = scan(path, TreeSnapshot.empty(path), false)) {
+            scan.changes().forEach(change -> {
+                // Only the snapshot is wanted
+            });
+            return scan.getSnapshot();
+        }
+    }
+
+    public TreeScan scan(String path, TreeSnapshot previous) {
+        return scan(path, previous, true);
+    }
+
+    public TreeScan scan(String path, TreeSnapshot previous, boolean skipUnchangedDirectories) {
+        if(!previous.getRoot().equals(path)) {
+            throw new IllegalArgumentException("Snapshot of " + previous.getRoot() + " cannot be compared to " + path);
+        }
+        return new TreeScan(this, path, previous, skipUnchangedDirectories);
+    }
+
+    Stream<CompactFile> list(String folderPath) {
+        return fileListService.streamCompact(folderPath, StreamOptions.createBuilder().pageSize(pageSize).build(), FIELDS);
+    }
+
+    Map<String, Optional<File>> stat(List<String> paths) {
+        return fileListService.statAll(paths, FIELDS);
+    }
+
+    int getStatBatchSize() {
+        return Math.max(1, statBatchSize);
+    }
+
+    static TreeSnapshot.Entry toEntry(CompactFile file) {
+        return new TreeSnapshot.Entry(file.getPath(), file.getSize(), file.getLastModificationEpochSecond(), file.isDirectory());
+    }
+
+    static TreeSnapshot.Entry toEntry(File file) {
+        FileProperties properties = file.getProperties();
+        long size = properties != null ? properties.getSize() : FileProperties.UNKNOWN_SIZE;
+        LocalDateTime modificationTime = properties != null && properties.getTimeInformation() != null ? properties.getTimeInformation().getLastModificationTime() : null;
+        long epochSecond = modificationTime != null ? modificationTime.toEpochSecond(TimeZoneUtil.getOffset()) : CompactFile.UNKNOWN;
+        return new TreeSnapshot.Entry(file.getPath(), size, epochSecond, file.isDirectory());
+    }
+}
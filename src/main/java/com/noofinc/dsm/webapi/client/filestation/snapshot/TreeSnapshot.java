@@ -0,0 +1,270 @@
+package com.noofinc.dsm.webapi.client.filestation.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Image of a remote subtree: the path, size, modification time and type of every entry under a root, the root
+ * included, sorted by {@link #PATH_ORDER} so that each subtree is a contiguous range.
+ * <p>
+ * Written to disk gzipped, each path stored as the length of the prefix it shares with the previous one and the rest.
+ * Obtained from {@link TreeScanner}.
+ */
+public final class TreeSnapshot {
+
+    private static final int MAGIC = 0x44534D54;
+    private static final int VERSION = 1;
+
+    /**
+     * Orders paths as a depth first walk visiting children by name: like {@link String#compareTo} except that the
+     * separator comes before any other character.
+     */
+    public static final Comparator<String> PATH_ORDER = (left, right) -> {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char l = left.charAt(i);
+            char r = right.charAt(i);
+            if(l != r) {
+                return l == '/' ? -1 : r == '/' ? 1 : Character.compare(l, r);
+            }
+        }
+        return Integer.compare(left.length(), right.length());
+    };
+
+    private final String root;
+    private final String[] paths;
+    private final long[] sizes;
+    private final long[] modificationTimes;
+    private final BitSet directories;
+    // Index following the subtree of each entry
+    private final int[] subtreeEnds;
+
+    private TreeSnapshot(String root, String[] paths, long[] sizes, long[] modificationTimes, BitSet directories) {
+        this.root = root;
+        this.paths = paths;
+        this.sizes = sizes;
+        this.modificationTimes = modificationTimes;
+        this.directories = directories;
+        this.subtreeEnds = new int[paths.length];
+        Deque<Integer> open = new ArrayDeque<>();
+        for (int i = 0; i < paths.length; i++) {
+            while(!open.isEmpty() && !isAncestor(paths[open.peek()], paths[i])) {
+                subtreeEnds[open.pop()] = i;
+            }
+            open.push(i);
+        }
+        while(!open.isEmpty()) {
+            subtreeEnds[open.pop()] = paths.length;
+        }
+    }
+
+    /**
+     * A snapshot of nothing, to scan a tree for the first time.
+     */
+    public static TreeSnapshot empty(String root) {
+        return new TreeSnapshot(root, new String[0], new long[0], new long[0], new BitSet());
+    }
+
+    public String getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    public Optional<Entry> get(String path) {
+        int index = indexOf(path);
+        return index < 0 ? Optional.empty() : Optional.of(entry(index));
+    }
+
+    public Stream<Entry> entries() {
+        return IntStream.range(0, paths.length).mapToObj(this::entry);
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(root);
+            output.writeInt(paths.length);
+            String previous = "";
+            for (int i = 0; i < paths.length; i++) {
+                int shared = sharedPrefixLength(previous, paths[i]);
+                output.writeShort(shared);
+                output.writeUTF(paths[i].substring(shared));
+                output.writeBoolean(directories.get(i));
+                output.writeLong(sizes[i]);
+                output.writeLong(modificationTimes[i]);
+                previous = paths[i];
+            }
+        }
+    }
+
+    public static TreeSnapshot read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a tree snapshot: " + file);
+            }
+            String root = input.readUTF();
+            int count = input.readInt();
+            String[] paths = new String[count];
+            long[] sizes = new long[count];
+            long[] modificationTimes = new long[count];
+            BitSet directories = new BitSet(count);
+            String previous = "";
+            for (int i = 0; i < count; i++) {
+                int shared = input.readUnsignedShort();
+                paths[i] = previous.substring(0, shared) + input.readUTF();
+                directories.set(i, input.readBoolean());
+                sizes[i] = input.readLong();
+                modificationTimes[i] = input.readLong();
+                previous = paths[i];
+            }
+            return new TreeSnapshot(root, paths, sizes, modificationTimes, directories);
+        }
+    }
+
+    int indexOf(String path) {
+        int low = 0;
+        int high = paths.length - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = PATH_ORDER.compare(paths[middle], path);
+            if(comparison < 0) {
+                low = middle + 1;
+            } else if(comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    Entry entry(int index) {
+        return new Entry(paths[index], sizes[index], modificationTimes[index], directories.get(index));
+    }
+
+    /**
+     * Indexes of the direct children of the entry at {@code index}, in path order.
+     */
+    List<Integer> children(int index) {
+        List<Integer> children = new ArrayList<>();
+        for (int child = index + 1; child < subtreeEnds[index]; child = subtreeEnds[child]) {
+            children.add(child);
+        }
+        return children;
+    }
+
+    /**
+     * Entries of the subtree at {@code index}, itself first.
+     */
+    Stream<Entry> subtree(int index) {
+        return IntStream.range(index, subtreeEnds[index]).mapToObj(this::entry);
+    }
+
+    private static boolean isAncestor(String ancestor, String path) {
+        return path.startsWith(ancestor.endsWith("/") ? ancestor : ancestor + "/");
+    }
+
+    private static int sharedPrefixLength(String previous, String path) {
+        int length = Math.min(Math.min(previous.length(), path.length()), 0xFFFF);
+        int shared = 0;
+        while(shared < length && previous.charAt(shared) == path.charAt(shared)) {
+            shared++;
+        }
+        // Never split a surrogate pair between the prefix and the rest
+        return shared > 0 && Character.isHighSurrogate(path.charAt(shared - 1)) ? shared - 1 : shared;
+    }
+
+    public static class Entry {
+
+        private final String path;
+        private final long size;
+        private final long lastModificationTime;
+        private final boolean directory;
+
+        public Entry(String path, long size, long lastModificationTime, boolean directory) {
+            this.path = path;
+            this.size = size;
+            this.lastModificationTime = lastModificationTime;
+            this.directory = directory;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getName() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Epoch seconds, as returned by DSM, or {@link com.noofinc.dsm.webapi.client.filestation.common.CompactFile#UNKNOWN}.
+         */
+        public long getLastModificationTime() {
+            return lastModificationTime;
+        }
+
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        @Override
+        public String toString() {
+            return path + (directory ? "/" : "") + " (" + size + " bytes, mtime " + lastModificationTime + ")";
+        }
+    }
+
+    static class Builder {
+
+        private final String root;
+        private final List<Entry> entries = new ArrayList<>();
+
+        Builder(String root) {
+            this.root = root;
+        }
+
+        void add(Entry entry) {
+            entries.add(entry);
+        }
+
+        TreeSnapshot build() {
+            entries.sort((left, right) -> PATH_ORDER.compare(left.path, right.path));
+            int count = entries.size();
+            String[] paths = new String[count];
+            long[] sizes = new long[count];
+            long[] modificationTimes = new long[count];
+            BitSet directories = new BitSet(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = entries.get(i);
+                paths[i] = entry.path;
+                sizes[i] = entry.size;
+                modificationTimes[i] = entry.lastModificationTime;
+                directories.set(i, entry.directory);
+            }
+            return new TreeSnapshot(root, paths, sizes, modificationTimes, directories);
+        }
+    }
+}
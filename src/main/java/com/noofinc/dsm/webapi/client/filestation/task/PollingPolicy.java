@@ -0,0 +1,37 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared settings of the status polling of background tasks: exponential back-off from
+ * {@code dsm.webapi.polling.minInterval} to {@code dsm.webapi.polling.maxInterval} ms, by
+ * {@code dsm.webapi.polling.multiplier}, with a {@code dsm.webapi.polling.jitter} share of randomness so that many
+ * tasks started together do not poll together.
+ */
+@Component
+public class PollingPolicy {
+
+    @Value("${dsm.webapi.polling.minInterval:100}")
+    private long minIntervalMillis;
+
+    @Value("${dsm.webapi.polling.maxInterval:5000}")
+    private long maxIntervalMillis;
+
+    @Value("${dsm.webapi.polling.multiplier:2}")
+    private double multiplier;
+
+    @Value("${dsm.webapi.polling.jitter:0.2}")
+    private double jitter;
+
+    public PollingSchedule newSchedule() {
+        return new PollingSchedule(minIntervalMillis, maxIntervalMillis, multiplier, jitter);
+    }
+
+    /**
+     * Schedule with its own maximum interval, e.g. for polls that are not about a task completion.
+     */
+    public PollingSchedule newSchedule(long maxIntervalMillis) {
+        return new PollingSchedule(minIntervalMillis, maxIntervalMillis, multiplier, jitter);
+    }
+}
@@ -0,0 +1,91 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays between the status calls of one task, from {@link PollingPolicy}. Not thread safe: one schedule per task.
+ * <p>
+ * Without progress, the delay starts at the minimum interval and is multiplied after each call, up to the maximum
+ * interval, give or take the jitter. It never exceeds a fifth of the time elapsed since the schedule was created
+ * (nor goes below the minimum interval for it), so that the end of a task is seen at most about a fifth of its
+ * duration late. Once the progress moved, the completion time is predicted from the average rate
+ * since the first progress seen, and the next call is made right after it, within the same bounds.
+ */
+public class PollingSchedule {
+
+    private static final double PREDICTION_MARGIN = 0.02;
+    private static final double ELAPSED_SHARE = 0.2;
+
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final double multiplier;
+    private final double jitter;
+    private final long startNanos = System.nanoTime();
+
+    private long intervalMillis;
+    private long firstProgressNanos;
+    private double firstProgress = Double.NaN;
+
+    PollingSchedule(long minIntervalMillis, long maxIntervalMillis, double multiplier, double jitter) {
+        this.minIntervalMillis = Math.max(1, minIntervalMillis);
+        this.maxIntervalMillis = Math.max(this.minIntervalMillis, maxIntervalMillis);
+        this.multiplier = Math.max(1, multiplier);
+        this.jitter = Math.min(1, Math.max(0, jitter));
+        this.intervalMillis = this.minIntervalMillis;
+    }
+
+    /**
+     * Back-off interval of the next call, without jitter nor prediction.
+     */
+    public long getInterval() {
+        return intervalMillis;
+    }
+
+    /**
+     * Starts backing off from the minimum interval again, e.g. when something changed.
+     */
+    public void reset() {
+        intervalMillis = minIntervalMillis;
+    }
+
+    public long nextDelay() {
+        return nextDelay(Double.NaN);
+    }
+
+    /**
+     * Delay before the next status call, given the progress reported by the last one, between 0 and 1 (NaN if
+     * unknown).
+     */
+    public long nextDelay(double progress) {
+        long now = System.nanoTime();
+        long delay = predictDelay(progress, now);
+        if(delay < 0) {
+            long elapsedShare = Math.round(ELAPSED_SHARE * (now - startNanos) / 1_000_000d);
+            long interval = Math.min(intervalMillis, Math.max(minIntervalMillis, elapsedShare));
+            delay = Math.max(1, Math.round(interval * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1))));
+        } else {
+            // Never ahead of the prediction, which would cost one more call
+            delay += Math.round(jitter * minIntervalMillis * ThreadLocalRandom.current().nextDouble());
+        }
+        intervalMillis = Math.min(maxIntervalMillis, (long) Math.ceil(intervalMillis * multiplier));
+        return delay;
+    }
+
+    private long predictDelay(double progress, long now) {
+        if(!(progress >= 0 && progress < 1)) {
+            return -1;
+        }
+        if(Double.isNaN(firstProgress) || progress < firstProgress) {
+            firstProgress = progress;
+            firstProgressNanos = now;
+            return -1;
+        }
+        if(progress == firstProgress || now == firstProgressNanos) {
+            return -1;
+        }
+        double remainingMillis = (1 - progress) * (now - firstProgressNanos) / (progress - firstProgress) / 1_000_000d;
+        // A little late rather than one call too early
+        remainingMillis *= 1 + PREDICTION_MARGIN;
+        return (long) Math.min(maxIntervalMillis, Math.max(minIntervalMillis, Math.ceil(remainingMillis)));
+    }
+}
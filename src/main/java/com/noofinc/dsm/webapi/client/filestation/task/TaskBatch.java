@@ -0,0 +1,364 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import com.noofinc.dsm.webapi.client.core.DsmWebApiResponseError;
+import com.noofinc.dsm.webapi.client.core.exception.DsmWebApiErrorException;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One task per chunk of paths, run by a fixed number of lanes: each lane starts the next chunk once its previous
+ * task is over. The chunks are read from their source as lanes get free, on the given executor since reading them
+ * may block.
+ * <p>
+ * A task refused at start because of some of its paths, named in the {@code errors} of the DSM error, is started
+ * again without them: the other paths were not attempted.
+ * <p>
+ * Only the paths of the chunks not started yet or running are kept, a finished chunk is down to its failures.
+ */
+class TaskBatch {
+
+    private static final String DETAIL_PATH = "path";
+
+    private final TaskSupervisor supervisor;
+    private final TaskType type;
+    private final Iterator<List<String>> source;
+    private final Executor sourceExecutor;
+    private final Function<List<String>, CompletableFuture<String>> start;
+    private final Function<String, CompletableFuture<?>> cleanUp;
+    private final DoubleConsumer progressListener;
+
+    private final Object sourceLock = new Object();
+    private final Set<String> runningTaskIds = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<TaskBatchResult> result = new CompletableFuture<>();
+    private final AtomicInteger startedTasks = new AtomicInteger();
+
+    // Guarded by this
+    private final Deque<List<String>> queued = new ArrayDeque<>();
+    private final Set<Chunk> running = new HashSet<>();
+    private final SortedMap<Integer, Map<String, Throwable>> failures = new TreeMap<>();
+    private int chunkCount;
+    private int pathCount;
+    private double donePathCount;
+    private boolean exhausted;
+    private RuntimeException sourceError;
+    private double reportedProgress = -1;
+
+    TaskBatch(TaskSupervisor supervisor, TaskType type, Iterator<List<String>> source, Executor sourceExecutor,
+              Function<List<String>, CompletableFuture<String>> start, Function<String, CompletableFuture<?>> cleanUp,
+              DoubleConsumer progressListener) {
+        this.supervisor = supervisor;
+        this.type = type;
+        this.source = source;
+        this.sourceExecutor = sourceExecutor;
+        this.start = start;
+        this.cleanUp = cleanUp;
+        this.progressListener = progressListener;
+    }
+
+    TaskBatch(TaskSupervisor supervisor, TaskType type, List<List<String>> chunks,
+              Function<List<String>, CompletableFuture<String>> start, Function<String, CompletableFuture<?>> cleanUp,
+              DoubleConsumer progressListener) {
+        this(supervisor, type, Collections.<List<String>>emptyIterator(), Runnable::run, start, cleanUp, progressListener);
+        // All known up front, so the progress is reported from the first task on
+        for (List<String> chunk : chunks) {
+            enqueue(chunk);
+        }
+        this.exhausted = true;
+    }
+
+    CompletableFuture<TaskBatchResult> run(int maxConcurrentTasks) {
+        long startTime = System.nanoTime();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.max(1, maxConcurrentTasks)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = next();
+        }
+        CompletableFuture.allOf(lanes).whenComplete((done, error) -> {
+            synchronized (this) {
+                if(sourceError != null) {
+                    result.completeExceptionally(sourceError);
+                    return;
+                }
+            }
+            result.complete(new TaskBatchResult(pathCount(), startedTasks.get(), failures(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+        });
+        result.whenComplete((batchResult, error) -> {
+            if(result.isCancelled()) {
+                runningTaskIds.forEach(this::cleanUp);
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> next() {
+        if(result.isDone()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return claim().thenCompose(chunk -> {
+            if(chunk == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return run(chunk, chunk.paths).thenCompose(done -> next());
+        });
+    }
+
+    /**
+     * Next chunk to run, null once there is none left.
+     */
+    private CompletableFuture<Chunk> claim() {
+        synchronized (this) {
+            if(!queued.isEmpty()) {
+                return CompletableFuture.completedFuture(dequeue());
+            }
+            if(exhausted) {
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(this::claimFromSource, sourceExecutor);
+        } catch (RuntimeException e) {
+            sourceFailed(e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private Chunk claimFromSource() {
+        synchronized (sourceLock) {
+            synchronized (this) {
+                // Read by another lane meanwhile
+                if(!queued.isEmpty()) {
+                    return dequeue();
+                }
+                if(exhausted) {
+                    return null;
+                }
+            }
+            List<String> paths;
+            try {
+                paths = source.hasNext() ? source.next() : null;
+            } catch (RuntimeException e) {
+                sourceFailed(e);
+                return null;
+            }
+            if(paths == null) {
+                synchronized (this) {
+                    exhausted = true;
+                }
+                reportProgress();
+                return null;
+            }
+            synchronized (this) {
+                enqueue(paths);
+                return dequeue();
+            }
+        }
+    }
+
+    private synchronized void enqueue(List<String> paths) {
+        queued.add(paths);
+        pathCount += paths.size();
+    }
+
+    private synchronized Chunk dequeue() {
+        Chunk chunk = new Chunk(chunkCount++, queued.poll());
+        running.add(chunk);
+        return chunk;
+    }
+
+    private synchronized void sourceFailed(RuntimeException e) {
+        sourceError = e;
+        exhausted = true;
+    }
+
+    private CompletableFuture<Void> run(Chunk chunk, List<String> paths) {
+        return start(paths).handle((taskId, error) -> {
+            if(error == null) {
+                return follow(chunk, paths, taskId);
+            }
+            Throwable cause = unwrap(error);
+            Map<String, Throwable> pathErrors = pathErrors(cause);
+            List<String> remaining = paths.stream().filter(path -> !pathErrors.containsKey(path)).collect(Collectors.toList());
+            if(remaining.isEmpty() || remaining.size() == paths.size()) {
+                fail(chunk, paths, cause, pathErrors);
+                finish(chunk);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            for (String path : paths) {
+                Throwable pathError = pathErrors.get(path);
+                if(pathError != null) {
+                    chunk.failures.put(path, pathError);
+                }
+            }
+            return run(chunk, remaining);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Void> follow(Chunk chunk, List<String> paths, String taskId) {
+        startedTasks.incrementAndGet();
+        runningTaskIds.add(taskId);
+        CompletableFuture<TaskResult> task = supervisor.supervise(type, taskId, status -> progress(chunk, status.getProgress()));
+        // The next task of the lane only starts once this one is cleaned up
+        return task.handle((status, error) -> null)
+                .thenCompose(over -> {
+                    runningTaskIds.remove(taskId);
+                    return cleanUp(taskId);
+                })
+                .thenCompose(cleaned -> task)
+                .handle((status, error) -> {
+                    if(error != null) {
+                        Throwable cause = unwrap(error);
+                        fail(chunk, paths, cause, pathErrors(cause));
+                    }
+                    finish(chunk);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<String> start(List<String> paths) {
+        try {
+            return start.apply(paths);
+        } catch (RuntimeException e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private CompletableFuture<Object> cleanUp(String taskId) {
+        try {
+            // Best effort, the task is over for the batch anyway
+            return cleanUp.apply(taskId).handle((result, error) -> null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static void fail(Chunk chunk, List<String> paths, Throwable error, Map<String, Throwable> pathErrors) {
+        for (String path : paths) {
+            chunk.failures.put(path, pathErrors.getOrDefault(path, error));
+        }
+    }
+
+    /**
+     * Keeps the size and the failures of the chunk, in request order, and lets go of its paths.
+     */
+    private void finish(Chunk chunk) {
+        synchronized (this) {
+            running.remove(chunk);
+            donePathCount += chunk.paths.size();
+            if(!chunk.failures.isEmpty()) {
+                Map<String, Throwable> chunkFailures = new LinkedHashMap<>();
+                for (String path : chunk.paths) {
+                    Throwable error = chunk.failures.get(path);
+                    if(error != null) {
+                        chunkFailures.put(path, error);
+                    }
+                }
+                failures.put(chunk.index, chunkFailures);
+            }
+        }
+        reportProgress();
+    }
+
+    private void progress(Chunk chunk, double chunkProgress) {
+        if(Double.isNaN(chunkProgress) || progressListener == null) {
+            return;
+        }
+        synchronized (this) {
+            chunk.progress = Math.max(chunk.progress, Math.min(1, chunkProgress));
+        }
+        reportProgress();
+    }
+
+    private void reportProgress() {
+        if(progressListener == null) {
+            return;
+        }
+        double total;
+        synchronized (this) {
+            if(!exhausted) {
+                // The number of paths is not known yet
+                return;
+            }
+            double done = donePathCount;
+            for (Chunk chunk : running) {
+                done += chunk.progress * chunk.paths.size();
+            }
+            total = pathCount == 0 ? 1 : done / pathCount;
+            if(total <= reportedProgress) {
+                return;
+            }
+            reportedProgress = total;
+        }
+        progressListener.accept(total);
+    }
+
+    private synchronized int pathCount() {
+        return pathCount;
+    }
+
+    private synchronized Map<String, Throwable> failures() {
+        Map<String, Throwable> allFailures = new LinkedHashMap<>();
+        for (Map<String, Throwable> chunkFailures : failures.values()) {
+            allFailures.putAll(chunkFailures);
+        }
+        return allFailures;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static Map<String, Throwable> pathErrors(Throwable error) {
+        Map<String, Throwable> pathErrors = new HashMap<>();
+        DsmWebApiResponseError dsmError = error instanceof DsmWebApiErrorException ? ((DsmWebApiErrorException) error).getError() : null;
+        if(dsmError != null) {
+            // Services may have already turned a single entry into the error, such as a FileNotFoundException
+            String ownPath = dsmError.getDetailValue(DETAIL_PATH);
+            if(ownPath != null) {
+                pathErrors.put(ownPath, error);
+            }
+            for (DsmWebApiResponseError pathError : dsmError.getErrors()) {
+                String path = pathError.getDetailValue(DETAIL_PATH);
+                if(path != null) {
+                    pathErrors.put(path, new DsmWebApiErrorException(error.getMessage() + " (" + path + ")", error, pathError));
+                }
+            }
+        }
+        return pathErrors;
+    }
+
+    private static class Chunk {
+
+        private final int index;
+        private final List<String> paths;
+        // Only used by the stages of the chunk, one after the other
+        private final Map<String, Throwable> failures = new HashMap<>();
+        // Guarded by the batch
+        private double progress;
+
+        private Chunk(int index, List<String> paths) {
+            this.index = index;
+            this.paths = paths;
+        }
+    }
+}
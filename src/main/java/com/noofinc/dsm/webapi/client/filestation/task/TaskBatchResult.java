@@ -0,0 +1,63 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a batch of tasks run by {@link TaskSupervisor#runBatch}.
+ */
+public class TaskBatchResult {
+
+    private final int pathCount;
+    private final int taskCount;
+    private final Map<String, Throwable> failures;
+    private final long elapsedMillis;
+
+    TaskBatchResult(int pathCount, int taskCount, Map<String, Throwable> failures, long elapsedMillis) {
+        this.pathCount = pathCount;
+        this.taskCount = taskCount;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getPathCount() {
+        return pathCount;
+    }
+
+    /**
+     * Tasks started, including the ones started again without the paths that got them refused.
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Failed paths, in request order. A path named in the {@code errors} of a DSM error gets an exception of its own
+     * carrying that entry; the other paths of a failed task get the exception of the task.
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public boolean isSuccessful(String path) {
+        return !failures.containsKey(path);
+    }
+
+    /**
+     * Time from the start of the first task to the end of the last one.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Paths processed per second, failed ones included.
+     */
+    public double getPathsPerSecond() {
+        return elapsedMillis == 0 ? pathCount == 0 ? 0 : Double.POSITIVE_INFINITY : pathCount * 1000d / elapsedMillis;
+    }
+}
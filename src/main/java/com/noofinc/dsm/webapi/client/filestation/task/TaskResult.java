@@ -0,0 +1,52 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+/**
+ * State of a task followed by the {@link TaskSupervisor}.
+ */
+public class TaskResult {
+
+    private final TaskType type;
+    private final String taskId;
+    private final boolean finished;
+    private final double progress;
+    private final Object status;
+
+    TaskResult(TaskType type, String taskId, boolean finished, double progress, Object status) {
+        this.type = type;
+        this.taskId = taskId;
+        this.finished = finished;
+        this.progress = progress;
+        this.status = status;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Between 0 and 1, NaN when the task does not report it.
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    /**
+     * Answer of the status call of the task ({@code CopyMoveStatus}, {@code DeleteStatus}, {@code DirSizeResult} or
+     * {@code SearchResult}); always there once finished, null for a progress read from the background task list.
+     */
+    public Object getStatus() {
+        return status;
+    }
+
+    public <S> S getStatus(Class<S> statusType) {
+        return statusType.cast(status);
+    }
+}
@@ -0,0 +1,479 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import com.noofinc.dsm.webapi.client.core.execution.DsmExecutor;
+import com.noofinc.dsm.webapi.client.filestation.background.BackgroundTask;
+import com.noofinc.dsm.webapi.client.filestation.background.BackgroundTaskService;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.copymove.CopyMoveService;
+import com.noofinc.dsm.webapi.client.filestation.copymove.CopyMoveStatus;
+import com.noofinc.dsm.webapi.client.filestation.delete.DeleteService;
+import com.noofinc.dsm.webapi.client.filestation.delete.DeleteStatus;
+import com.noofinc.dsm.webapi.client.filestation.dirsize.DirSizeResult;
+import com.noofinc.dsm.webapi.client.filestation.dirsize.DirSizeService;
+import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
+import com.noofinc.dsm.webapi.client.filestation.search.SearchResult;
+import com.noofinc.dsm.webapi.client.filestation.search.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Follows any number of background tasks from a single polling loop. Each task is polled as told by its own
+ * {@link PollingSchedule}; the copy/move and delete tasks due at a tick are all refreshed by one
+ * {@code SYNO.FileStation.BackgroundTask} list call, the other ones (and those missing from the list) by their own
+ * non-blocking status call. A finished task gets one last status call, so that its result carries its final status.
+ */
+@Component
+public class TaskSupervisor implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskSupervisor.class);
+
+    private static final PaginationAndSorting FINISHED_CHECK = new PaginationAndSorting(0, 1, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+    @Autowired
+    private BackgroundTaskService backgroundTaskService;
+
+    @Autowired
+    private CopyMoveService copyMoveService;
+
+    @Autowired
+    private DeleteService deleteService;
+
+    @Autowired
+    private DirSizeService dirSizeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PollingPolicy pollingPolicy;
+
+    @Autowired
+    private DsmExecutor dsmExecutor;
+
+    @Value("${dsm.webapi.taskSupervisor.pageSize:1000}")
+    private int pageSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dsm-webapi-task-supervisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, SupervisedTask> tasks = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> nextTick;
+    private long nextTickNanos;
+
+    public CompletableFuture<TaskResult> supervise(TaskType type, String taskId) {
+        return supervise(type, taskId, null);
+    }
+
+    /**
+     * Completes with the final state of the task. The listener, if any, is called from the polling loop each time the
+     * progress of the running task changed. Each caller gets a future of its own: cancelling it stops following the
+     * task for this caller only, not the task itself, which is no longer polled once all of its callers cancelled.
+     */
+    public CompletableFuture<TaskResult> supervise(TaskType type, String taskId, Consumer<? super TaskResult> progressListener) {
+        while (true) {
+            SupervisedTask created = new SupervisedTask(type, taskId, pollingPolicy.newSchedule());
+            SupervisedTask previous = tasks.putIfAbsent(created.key, created);
+            SupervisedTask task = previous != null ? previous : created;
+            CompletableFuture<TaskResult> follower = task.follow(progressListener);
+            if(follower == null) {
+                // Its last caller just cancelled, the task is being dropped
+                continue;
+            }
+            follower.whenComplete((result, error) -> {
+                if(follower.isCancelled() && task.unfollow(progressListener)) {
+                    tasks.remove(task.key, task);
+                }
+            });
+            if(previous == null) {
+                schedule(task.dueNanos);
+            }
+            return follower;
+        }
+    }
+
+    /**
+     * Same as {@link #supervise(TaskType, String)}, failing with a {@link TaskTimeOutException} if the task is not
+     * finished within the timeout; it is then no longer followed for this caller.
+     */
+    public CompletableFuture<TaskResult> supervise(TaskType type, String taskId, long timeoutMillis) {
+        CompletableFuture<TaskResult> follower = supervise(type, taskId);
+        CompletableFuture<TaskResult> result = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = scheduler.schedule(() -> result.completeExceptionally(new TaskTimeOutException()), timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            follower.cancel(false);
+            result.completeExceptionally(new IllegalStateException("Task supervisor closed"));
+            return result;
+        }
+        follower.whenComplete((taskResult, error) -> {
+            timeout.cancel(false);
+            if(error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(taskResult);
+            }
+        });
+        // Timed out or cancelled by the caller
+        result.whenComplete((taskResult, error) -> follower.cancel(false));
+        return result;
+    }
+
+    /**
+     * Blocks until the task is finished, for at most the timeout.
+     */
+    public TaskResult waitFor(TaskType type, String taskId, long timeoutMillis) {
+        CompletableFuture<TaskResult> result = supervise(type, taskId);
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new TaskTimeOutException();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Thread interrupted", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs one task per chunk of paths, started by {@code start}, with at most {@code maxConcurrentTasks} running at a
+     * time, and completes once every task is over. {@code cleanUp} is called with each task id once its task is over.
+     * The listener, if any, gets the share of the paths done so far, weighting the progress of each task by its number
+     * of paths. A failed task does not fail the batch: its paths are reported by {@link TaskBatchResult#getFailures()}.
+     * A task refused because of some of its paths is started again without them.
+     * Cancelling the future starts no more tasks and cleans up the running ones.
+     */
+    public CompletableFuture<TaskBatchResult> runBatch(TaskType type, List<List<String>> chunks, int maxConcurrentTasks,
+                                                       Function<List<String>, CompletableFuture<String>> start,
+                                                       Function<String, CompletableFuture<?>> cleanUp, DoubleConsumer progressListener) {
+        return new TaskBatch(this, type, chunks, start, cleanUp, progressListener).run(maxConcurrentTasks);
+    }
+
+    /**
+     * Same as {@link #runBatch(TaskType, List, int, Function, Function, DoubleConsumer)}, reading the chunks as lanes
+     * get free, on the {@link DsmExecutor}. No progress is reported before the last chunk was read, the number of
+     * paths being unknown until then. Fails with the error of the chunks, if reading them fails, once the started
+     * tasks are over.
+     */
+    public CompletableFuture<TaskBatchResult> runBatch(TaskType type, Iterator<List<String>> chunks, int maxConcurrentTasks,
+                                                       Function<List<String>, CompletableFuture<String>> start,
+                                                       Function<String, CompletableFuture<?>> cleanUp, DoubleConsumer progressListener) {
+        return new TaskBatch(this, type, chunks, dsmExecutor.getExecutorService(), start, cleanUp, progressListener).run(maxConcurrentTasks);
+    }
+
+    /**
+     * Number of tasks currently followed.
+     */
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        for (SupervisedTask task : tasks.values()) {
+            tasks.remove(task.key, task);
+            task.future.completeExceptionally(new IllegalStateException("Task supervisor closed"));
+        }
+    }
+
+    private synchronized void schedule(long dueNanos) {
+        if(scheduler.isShutdown() || nextTick != null && nextTickNanos <= dueNanos) {
+            return;
+        }
+        if(nextTick != null) {
+            nextTick.cancel(false);
+        }
+        nextTickNanos = dueNanos;
+        nextTick = scheduler.schedule(this::tick, Math.max(0, dueNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Only starts calls: the list call and the status calls complete on other threads, so that a slow NAS never delays
+     * the timeouts and the next ticks.
+     */
+    private void tick() {
+        synchronized (this) {
+            nextTick = null;
+        }
+        try {
+            long now = System.nanoTime();
+            List<SupervisedTask> due = tasks.values().stream().filter(task -> task.claimIfDue(now)).collect(Collectors.toList());
+            List<SupervisedTask> dueBackgroundTasks = due.stream().filter(task -> task.type.isBackgroundTask()).collect(Collectors.toList());
+            due.removeAll(dueBackgroundTasks);
+            if(!dueBackgroundTasks.isEmpty()) {
+                refreshBackgroundTasks(dueBackgroundTasks);
+            }
+            due.forEach(this::pollStatus);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Task supervision failed", e);
+        } finally {
+            scheduleNextTick();
+        }
+    }
+
+    private void scheduleNextTick() {
+        tasks.values().stream().filter(task -> !task.pending).mapToLong(task -> task.dueNanos).min().ifPresent(this::schedule);
+    }
+
+    /**
+     * Lists the background tasks, then polls the due ones the list did not refresh. Running tasks found in the list
+     * are rescheduled, due or not, and removed from the due ones; finished tasks are added to them for their last
+     * status call. The due tasks are polled on their own if the list fails.
+     */
+    private void refreshBackgroundTasks(List<SupervisedTask> due) {
+        listBackgroundTasksAsync().whenComplete((listed, error) -> {
+            try {
+                if(error != null) {
+                    LOGGER.debug("Could not list background tasks, falling back to status calls", error);
+                } else {
+                    refreshBackgroundTasks(listed, due);
+                }
+                due.forEach(this::pollStatus);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Task supervision failed", e);
+            } finally {
+                scheduleNextTick();
+            }
+        });
+    }
+
+    private void refreshBackgroundTasks(Map<String, BackgroundTask> listed, List<SupervisedTask> due) {
+        for (SupervisedTask task : tasks.values()) {
+            BackgroundTask backgroundTask = task.type.isBackgroundTask() ? listed.get(task.taskId) : null;
+            if(backgroundTask == null) {
+                continue;
+            }
+            boolean claimed = due.contains(task);
+            if(backgroundTask.isFinished()) {
+                if(!claimed && task.claim()) {
+                    due.add(task);
+                }
+            } else {
+                double progress = backgroundTask.getProgress() != null ? backgroundTask.getProgress() : Double.NaN;
+                task.update(new TaskResult(task.type, task.taskId, false, progress, null));
+                // Refreshed as well as by a status call, so listed tasks keep being due at the same ticks
+                if(claimed || task.claim()) {
+                    due.remove(task);
+                    task.reschedule(progress);
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Map<String, BackgroundTask>> listBackgroundTasksAsync() {
+        Optional<String> apiFilter = Optional.of(tasks.values().stream()
+                .map(task -> task.type)
+                .filter(TaskType::isBackgroundTask)
+                .map(TaskType::getApiId)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(",")));
+        return listBackgroundTasksAsync(apiFilter, 0, new HashMap<>());
+    }
+
+    private CompletableFuture<Map<String, BackgroundTask>> listBackgroundTasksAsync(Optional<String> apiFilter, int offset, Map<String, BackgroundTask> listed) {
+        CompletableFuture<BackgroundTask.TaskList> pageFuture;
+        try {
+            pageFuture = backgroundTaskService.listAsync(new PaginationAndSorting(offset, pageSize, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC), apiFilter);
+        } catch (RuntimeException e) {
+            CompletableFuture<BackgroundTask.TaskList> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            pageFuture = failed;
+        }
+        return pageFuture.thenCompose(page -> {
+            List<BackgroundTask> elements = page.getElements() != null ? page.getElements() : new ArrayList<>();
+            for (BackgroundTask backgroundTask : elements) {
+                listed.put(backgroundTask.getTaskId(), backgroundTask);
+            }
+            int nextOffset = offset + elements.size();
+            if(elements.isEmpty() || nextOffset >= page.getTotal()) {
+                return CompletableFuture.completedFuture(listed);
+            }
+            return listBackgroundTasksAsync(apiFilter, nextOffset, listed);
+        });
+    }
+
+    private void pollStatus(SupervisedTask task) {
+        CompletableFuture<?> status;
+        try {
+            status = statusAsync(task.type, task.taskId);
+        } catch (RuntimeException e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            status = failed;
+        }
+        status.whenComplete((answer, error) -> {
+            // Removed first, so that callers see the task gone once their future completed
+            if(error != null) {
+                tasks.remove(task.key, task);
+                task.future.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                return;
+            }
+            TaskResult result = new TaskResult(task.type, task.taskId, isFinished(answer), progress(answer), answer);
+            if(result.isFinished()) {
+                tasks.remove(task.key, task);
+                task.future.complete(result);
+            } else {
+                task.update(result);
+                task.reschedule(result.getProgress());
+                schedule(task.dueNanos);
+            }
+        });
+    }
+
+    private CompletableFuture<?> statusAsync(TaskType type, String taskId) {
+        switch (type) {
+            case COPY_MOVE:
+                return copyMoveService.statusAsync(taskId);
+            case DELETE:
+                return deleteService.statusAsync(taskId);
+            case DIR_SIZE:
+                return dirSizeService.statusAsync(taskId);
+            case SEARCH:
+                return searchService.getResultAsync(taskId, FINISHED_CHECK, AdditionalField.NONE);
+            default:
+                throw new IllegalArgumentException("Unsupported task type: " + type);
+        }
+    }
+
+    private static boolean isFinished(Object status) {
+        if(status instanceof CopyMoveStatus) {
+            return ((CopyMoveStatus) status).isFinished();
+        } else if(status instanceof DeleteStatus) {
+            return ((DeleteStatus) status).isFinished();
+        } else if(status instanceof DirSizeResult) {
+            return ((DirSizeResult) status).isFinished();
+        } else if(status instanceof SearchResult) {
+            return ((SearchResult) status).isFinished();
+        }
+        return false;
+    }
+
+    private static double progress(Object status) {
+        if(status instanceof CopyMoveStatus) {
+            return ((CopyMoveStatus) status).getProgress();
+        } else if(status instanceof DeleteStatus) {
+            return ((DeleteStatus) status).getProgress();
+        }
+        return Double.NaN;
+    }
+
+    private static class SupervisedTask {
+
+        private final TaskType type;
+        private final String taskId;
+        private final String key;
+        private final PollingSchedule schedule;
+        private final List<Consumer<? super TaskResult>> listeners = new CopyOnWriteArrayList<>();
+        // Only completed by the polling loop, callers get dependent copies
+        private final CompletableFuture<TaskResult> future = new CompletableFuture<>();
+
+        private volatile long dueNanos = System.nanoTime();
+        // A status call is in flight, or the task is being refreshed by the current tick
+        private volatile boolean pending;
+        private double lastProgress = Double.NaN;
+        private int followers;
+        private boolean dropped;
+
+        private SupervisedTask(TaskType type, String taskId, PollingSchedule schedule) {
+            this.type = type;
+            this.taskId = taskId;
+            this.key = type + ":" + taskId;
+            this.schedule = schedule;
+        }
+
+        private synchronized CompletableFuture<TaskResult> follow(Consumer<? super TaskResult> listener) {
+            if(dropped) {
+                return null;
+            }
+            followers++;
+            if(listener != null) {
+                listeners.add(listener);
+            }
+            return future.thenApply(Function.identity());
+        }
+
+        /**
+         * Returns true when the last caller left the running task, which is then no longer to be followed.
+         */
+        private synchronized boolean unfollow(Consumer<? super TaskResult> listener) {
+            if(listener != null) {
+                listeners.remove(listener);
+            }
+            followers--;
+            dropped = followers == 0 && !future.isDone();
+            return dropped;
+        }
+
+        private synchronized boolean claimIfDue(long now) {
+            return dueNanos - now <= 0 && claim();
+        }
+
+        private synchronized boolean claim() {
+            if(pending || future.isDone()) {
+                return false;
+            }
+            pending = true;
+            return true;
+        }
+
+        private synchronized void reschedule(double progress) {
+            dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(schedule.nextDelay(progress));
+            pending = false;
+        }
+
+        private void update(TaskResult result) {
+            synchronized (this) {
+                if(Double.compare(result.getProgress(), lastProgress) == 0) {
+                    return;
+                }
+                lastProgress = result.getProgress();
+            }
+            for (Consumer<? super TaskResult> listener : listeners) {
+                try {
+                    listener.accept(result);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Progress listener of task {} failed", taskId, e);
+                }
+            }
+        }
+    }
+}
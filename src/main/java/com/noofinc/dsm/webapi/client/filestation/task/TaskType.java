@@ -0,0 +1,31 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+/**
+ * Kinds of background task the {@link TaskSupervisor} can follow.
+ */
+public enum TaskType {
+
+    COPY_MOVE("SYNO.FileStation.CopyMove", true),
+    DELETE("SYNO.FileStation.Delete", true),
+    DIR_SIZE("SYNO.FileStation.DirSize", false),
+    SEARCH("SYNO.FileStation.Search", false);
+
+    private final String apiId;
+    private final boolean backgroundTask;
+
+    TaskType(String apiId, boolean backgroundTask) {
+        this.apiId = apiId;
+        this.backgroundTask = backgroundTask;
+    }
+
+    public String getApiId() {
+        return apiId;
+    }
+
+    /**
+     * Whether tasks of this kind are listed by {@code SYNO.FileStation.BackgroundTask}.
+     */
+    public boolean isBackgroundTask() {
+        return backgroundTask;
+    }
+}
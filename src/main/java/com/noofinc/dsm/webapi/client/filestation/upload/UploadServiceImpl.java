@@ -14,6 +14,7 @@ import com.noofinc.dsm.webapi.client.core.timezone.TimeZoneUtil;
 import com.noofinc.dsm.webapi.client.filestation.common.OverwriteBehavior;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileAlreadyExistsException;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileMetadataCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +66,9 @@ public class UploadServiceImpl extends AbstractDsmServiceImpl implements UploadS
     @Qualifier("uploadRestTemplate")
     private RestTemplate restTemplate;
 
+    @Autowired
+    private FileMetadataCache metadataCache;
+
     public UploadServiceImpl() {
         super(API_ID);
     }
@@ -77,6 +81,7 @@ public class UploadServiceImpl extends AbstractDsmServiceImpl implements UploadS
     @Override
     public void uploadFile(UploadRequest uploadRequest) {
         DsmWebapiResponse response = doUploadRequest(uploadRequest);
+        metadataCache.invalidate(uploadRequest.getParentFolderPath(), uploadRequest.getFileName(), uploadRequest.isCreateParents());
         if(!response.isSuccess()) {
             switch (response.getError().getCode()) {
                 case 1805:
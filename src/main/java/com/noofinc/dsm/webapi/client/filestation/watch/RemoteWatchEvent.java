@@ -0,0 +1,45 @@
+package com.noofinc.dsm.webapi.client.filestation.watch;
+
+/**
+ * A change in a folder watched by {@link RemoteWatchService}, the counterpart of {@link java.nio.file.WatchEvent}.
+ */
+public class RemoteWatchEvent {
+
+    public enum Kind {
+        ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE,
+        /**
+         * Events were dropped because the key was not reset in time; the name is null.
+         */
+        OVERFLOW
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final String path;
+
+    RemoteWatchEvent(Kind kind, String name, String path) {
+        this.kind = kind;
+        this.name = name;
+        this.path = path;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Name of the entry in the watched folder.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + (path != null ? path : "");
+    }
+}
@@ -0,0 +1,104 @@
+package com.noofinc.dsm.webapi.client.filestation.watch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registration of a folder with {@link RemoteWatchService}, the counterpart of {@link java.nio.file.WatchKey}: once
+ * signalled, it is handed out by the service until its events are retrieved and it is {@link #reset()}.
+ */
+public class RemoteWatchKey {
+
+    private enum State {
+        READY, SIGNALLED
+    }
+
+    private final RemoteWatchService service;
+    private final String path;
+    private final Set<RemoteWatchEvent.Kind> kinds;
+    private final int maxEvents;
+
+    private List<RemoteWatchEvent> events = new ArrayList<>();
+    private State state = State.READY;
+    private volatile boolean valid = true;
+
+    RemoteWatchKey(RemoteWatchService service, String path, Set<RemoteWatchEvent.Kind> kinds, int maxEvents) {
+        this.service = service;
+        this.path = path;
+        this.kinds = kinds;
+        this.maxEvents = maxEvents;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Retrieves and removes the pending events.
+     */
+    public synchronized List<RemoteWatchEvent> pollEvents() {
+        List<RemoteWatchEvent> pending = events;
+        events = new ArrayList<>();
+        return Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * Makes the key ready for new events. Returns false when the key is no longer valid.
+     */
+    public synchronized boolean reset() {
+        if(state == State.SIGNALLED && valid) {
+            if(events.isEmpty()) {
+                state = State.READY;
+            } else {
+                service.enqueue(this);
+            }
+        }
+        return valid;
+    }
+
+    public void cancel() {
+        if(valid) {
+            valid = false;
+            service.cancel(this);
+        }
+    }
+
+    Set<RemoteWatchEvent.Kind> getKinds() {
+        return kinds;
+    }
+
+    synchronized void signal(RemoteWatchEvent.Kind kind, String name) {
+        if(kind != RemoteWatchEvent.Kind.OVERFLOW && !kinds.contains(kind)) {
+            return;
+        }
+        if(events.size() >= maxEvents) {
+            RemoteWatchEvent last = events.get(events.size() - 1);
+            if(last.getKind() != RemoteWatchEvent.Kind.OVERFLOW) {
+                events.add(new RemoteWatchEvent(RemoteWatchEvent.Kind.OVERFLOW, null, null));
+            }
+        } else {
+            events.add(new RemoteWatchEvent(kind, name, name == null ? null : path.endsWith("/") ? path + name : path + "/" + name));
+        }
+        if(state == State.READY) {
+            state = State.SIGNALLED;
+            service.enqueue(this);
+        }
+    }
+
+    /**
+     * Called when the folder went away: the key is signalled one last time, as a {@code java.nio} key is.
+     */
+    synchronized void invalidate() {
+        valid = false;
+        if(state == State.READY) {
+            state = State.SIGNALLED;
+            service.enqueue(this);
+        }
+    }
+}
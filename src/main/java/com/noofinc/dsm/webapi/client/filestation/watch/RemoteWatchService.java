@@ -0,0 +1,262 @@
+package com.noofinc.dsm.webapi.client.filestation.watch;
+
+import com.noofinc.dsm.webapi.client.core.timezone.TimeZoneUtil;
+import com.noofinc.dsm.webapi.client.filestation.common.AdditionalField;
+import com.noofinc.dsm.webapi.client.filestation.common.CompactFile;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Polls watched folders and reports their changes, the counterpart of {@link java.nio.file.WatchService}. All folders
+ * share one scheduler of {@code dsm.webapi.watch.threads} threads.
+ * <p>
+ * Each folder is polled every {@code dsm.webapi.watch.minInterval} ms after a change, twice as late after each quiet
+ * poll, up to {@code dsm.webapi.watch.maxInterval} ms. A folder only watched for created and deleted entries is only
+ * listed when its own modification time changed, or when it is not older than the second of the last listing: a change
+ * made later within that second would keep the same modification time. Listings are compared through a digest of the
+ * names, sizes and modification times of the entries, and diffed entry by entry only when it changed.
+ */
+@Component
+public class RemoteWatchService implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoteWatchService.class);
+
+    private static final Set<AdditionalField> LIST_FIELDS = Collections.unmodifiableSet(EnumSet.of(AdditionalField.SIZE, AdditionalField.TIME));
+    private static final Set<AdditionalField> FOLDER_FIELDS = Collections.unmodifiableSet(EnumSet.of(AdditionalField.TIME));
+
+    @Autowired
+    private FileListService fileListService;
+
+    @Value("${dsm.webapi.watch.minInterval:1000}")
+    private long minIntervalMillis;
+
+    @Value("${dsm.webapi.watch.maxInterval:30000}")
+    private long maxIntervalMillis;
+
+    @Value("${dsm.webapi.watch.threads:2}")
+    private int threads;
+
+    @Value("${dsm.webapi.watch.maxEvents:512}")
+    private int maxEvents;
+
+    @Value("${dsm.webapi.watch.pageSize:1000}")
+    private int pageSize;
+
+    private ScheduledExecutorService scheduler;
+
+    private final BlockingQueue<RemoteWatchKey> signalledKeys = new LinkedBlockingQueue<>();
+
+    private final Map<RemoteWatchKey, WatchedFolder> watchedFolders = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initRemoteWatchService() {
+        scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "dsm-webapi-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts watching the folder. Changes are reported relative to its content at registration time.
+     */
+    public RemoteWatchKey register(String path, RemoteWatchEvent.Kind... kinds) {
+        Set<RemoteWatchEvent.Kind> watchedKinds = EnumSet.noneOf(RemoteWatchEvent.Kind.class);
+        Collections.addAll(watchedKinds, kinds);
+        watchedKinds.remove(RemoteWatchEvent.Kind.OVERFLOW);
+        if(watchedKinds.isEmpty()) {
+            throw new IllegalArgumentException("No event kind to watch");
+        }
+        RemoteWatchKey key = new RemoteWatchKey(this, path, Collections.unmodifiableSet(watchedKinds), Math.max(1, maxEvents));
+        WatchedFolder folder = new WatchedFolder(key);
+        folder.baseline();
+        watchedFolders.put(key, folder);
+        folder.schedule();
+        return key;
+    }
+
+    /**
+     * Retrieves and removes the next signalled key, null if none.
+     */
+    public RemoteWatchKey poll() {
+        return signalledKeys.poll();
+    }
+
+    public RemoteWatchKey poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return signalledKeys.poll(timeout, unit);
+    }
+
+    public RemoteWatchKey take() throws InterruptedException {
+        return signalledKeys.take();
+    }
+
+    /**
+     * Current poll interval of the key in milliseconds, 0 when it is no longer watched.
+     */
+    public long getPollInterval(RemoteWatchKey key) {
+        WatchedFolder folder = watchedFolders.get(key);
+        return folder == null ? 0 : folder.interval;
+    }
+
+    void enqueue(RemoteWatchKey key) {
+        signalledKeys.add(key);
+    }
+
+    void cancel(RemoteWatchKey key) {
+        WatchedFolder folder = watchedFolders.remove(key);
+        if(folder != null && folder.next != null) {
+            folder.next.cancel(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private static long fingerprint(CompactFile file) {
+        return mix(file.getSize()) ^ mix(file.getLastModificationEpochSecond() + 1) ^ (file.isDirectory() ? 1 : 0);
+    }
+
+    private static long mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private class WatchedFolder implements Runnable {
+
+        private final RemoteWatchKey key;
+        // Modified entries keep the modification time of their folder
+        private final boolean listEveryPoll;
+
+        private Map<String, Long> fingerprints = Collections.emptyMap();
+        private long digest;
+        private long folderModificationTime = CompactFile.UNKNOWN;
+        private long listedSecond;
+        private volatile long interval = minIntervalMillis;
+        private volatile ScheduledFuture<?> next;
+
+        private WatchedFolder(RemoteWatchKey key) {
+            this.key = key;
+            this.listEveryPoll = key.getKinds().contains(RemoteWatchEvent.Kind.ENTRY_MODIFY);
+        }
+
+        private void baseline() {
+            if(!listEveryPoll) {
+                folderModificationTime = getFolderModificationTime();
+            }
+            list();
+        }
+
+        private void schedule() {
+            if(key.isValid()) {
+                next = scheduler.schedule(this, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            if(!key.isValid()) {
+                return;
+            }
+            boolean changed = false;
+            try {
+                changed = poll();
+            } catch (FileNotFoundException e) {
+                watchedFolders.remove(key);
+                key.invalidate();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not poll {}", key.getPath(), e);
+            }
+            interval = changed ? minIntervalMillis : Math.min(interval * 2, Math.max(minIntervalMillis, maxIntervalMillis));
+            schedule();
+        }
+
+        private boolean poll() {
+            long modificationTime = CompactFile.UNKNOWN;
+            if(!listEveryPoll) {
+                modificationTime = getFolderModificationTime();
+                if(modificationTime != CompactFile.UNKNOWN && modificationTime == folderModificationTime && modificationTime < listedSecond) {
+                    return false;
+                }
+            }
+            Map<String, Long> previous = fingerprints;
+            long previousDigest = digest;
+            list();
+            // Only once listed: after a failed listing, the next poll must list again
+            folderModificationTime = modificationTime;
+            if(digest == previousDigest && fingerprints.size() == previous.size()) {
+                return false;
+            }
+            for (Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+                Long previousFingerprint = previous.get(entry.getKey());
+                if(previousFingerprint == null) {
+                    key.signal(RemoteWatchEvent.Kind.ENTRY_CREATE, entry.getKey());
+                } else if(!previousFingerprint.equals(entry.getValue())) {
+                    key.signal(RemoteWatchEvent.Kind.ENTRY_MODIFY, entry.getKey());
+                }
+            }
+            for (String name : previous.keySet()) {
+                if(!fingerprints.containsKey(name)) {
+                    key.signal(RemoteWatchEvent.Kind.ENTRY_DELETE, name);
+                }
+            }
+            return true;
+        }
+
+        private void list() {
+            Map<String, Long> current = new HashMap<>(Math.max(16, fingerprints.size() * 4 / 3 + 1));
+            long[] sum = new long[1];
+            // Before the listing: a change made while listing may be missing from it
+            long second = Math.floorDiv(System.currentTimeMillis(), 1000L);
+            StreamOptions options = StreamOptions.createBuilder().pageSize(pageSize).build();
+            try (Stream<CompactFile> files = fileListService.streamCompact(key.getPath(), options, LIST_FIELDS)) {
+                files.forEach(file -> {
+                    long fingerprint = fingerprint(file);
+                    current.put(file.getName(), fingerprint);
+                    // Order independent, so the digest does not depend on the listing order
+                    sum[0] += mix(file.getName().hashCode() ^ fingerprint);
+                });
+            }
+            fingerprints = current;
+            digest = sum[0];
+            listedSecond = second;
+        }
+
+        private long getFolderModificationTime() {
+            Optional<File> folder = fileListService.statAll(Collections.singletonList(key.getPath()), FOLDER_FIELDS).get(key.getPath());
+            if(!folder.isPresent()) {
+                throw new FileNotFoundException(key.getPath(), null);
+            }
+            LocalDateTime modificationTime = folder.get().getProperties() != null && folder.get().getProperties().getTimeInformation() != null
+                    ? folder.get().getProperties().getTimeInformation().getLastModificationTime() : null;
+            return modificationTime != null ? modificationTime.toEpochSecond(TimeZoneUtil.getOffset()) : CompactFile.UNKNOWN;
+        }
+    }
+}
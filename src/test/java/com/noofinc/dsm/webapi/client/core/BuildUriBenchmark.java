@@ -0,0 +1,94 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ns/op and bytes/op of building status poll and getinfo URIs, compared with the UriComponentsBuilder based
+ * implementation it replaced. Task ids and paths differ from one request to the next so that every call pays for the
+ * encoding and the parsing of a new URI. Allocations are measured with the per-thread allocation counter of HotSpot.
+ */
+public class BuildUriBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final int DISTINCT_REQUESTS = 4096;
+
+    private final Object sidLock = new Object();
+
+    @Test
+    public void compareBuildUri() throws Exception {
+        try (StubDsmServer server = new StubDsmServer();
+             AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+            String dsmUrlHost = "127.0.0.1";
+            String dsmUrlPort = Integer.toString(server.getPort());
+            DsmWebapiRequest[] requests = new DsmWebapiRequest[DISTINCT_REQUESTS];
+            for (int i = 0; i < DISTINCT_REQUESTS; i++) {
+                requests[i] = i % 2 == 0
+                        ? new DsmWebapiRequest("SYNO.FileStation.CopyMove", "3", "entry.cgi", "status")
+                                .parameter("taskid", String.format("FileStation_%016X", 0x51D00B7912CDE0B0L + i))
+                        : new DsmWebapiRequest("SYNO.FileStation.List", "2", "entry.cgi", "getinfo")
+                                .parameter("path", "/share/photos/2016/album " + i + "/IMG_" + i + ".jpg")
+                                .parameter("additional", "real_path,size,owner,time,perm,type");
+            }
+
+            for (DsmWebapiRequest request : requests) {
+                if(!legacyBuildUri(request, dsmUrlHost, dsmUrlPort).toString().equals(client.buildUri(request).toString())) {
+                    throw new AssertionError("Implementations disagree on " + request.getMethod());
+                }
+            }
+            System.out.println(measure("UriComponentsBuilder (before)", r -> legacyBuildUri(r, dsmUrlHost, dsmUrlPort), requests));
+            System.out.println(measure("single pass encoder (after)", client::buildUri, requests));
+        }
+    }
+
+    private URI legacyBuildUri(DsmWebapiRequest request, String host, String port) {
+        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
+                .fromHttpUrl(String.format("%s://%s:%s", "http", host, port))
+                .path("webapi/")
+                .path(request.getPath())
+                .queryParam("api", request.getApi())
+                .queryParam("version", request.getVersion())
+                .queryParam("method", request.getMethod());
+        for (Map.Entry<String, String> entry : request.getParameters().entrySet()) {
+            uriComponentsBuilder.queryParam(entry.getKey(), entry.getValue());
+        }
+        synchronized (sidLock) {
+            uriComponentsBuilder.queryParam("_sid", StubDsmServer.SID);
+        }
+        String url = uriComponentsBuilder.toUriString();
+        int queryStart = url.indexOf("?");
+        try {
+            return new URI(url.substring(0, queryStart) + url.substring(queryStart).replace("/", "%2F"));
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String measure(String name, Function<DsmWebapiRequest, URI> buildUri, DsmWebapiRequest[] requests) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += buildUri.apply(requests[i % DISTINCT_REQUESTS]).getPort();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += buildUri.apply(requests[i % DISTINCT_REQUESTS]).getPort();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return String.format("%-30s %8.1f ns/op  %8.1f bytes/op  (%d)", name, (double) elapsed / ITERATIONS, (double) allocated / ITERATIONS, sink & 1);
+    }
+}
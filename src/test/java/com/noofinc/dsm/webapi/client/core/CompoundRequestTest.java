@@ -0,0 +1,120 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformation;
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformationServiceImpl.FileStationInformationResponse;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CompoundRequestTest {
+
+    private StubDsmServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.Info", "get", parameters -> "{\"data\":{\"is_manager\":true,\"hostname\":\"stub\"},\"success\":true}")
+                .on("SYNO.FileStation.List", "list", parameters -> "{\"error\":{\"code\":408},\"success\":false}")
+                .on("SYNO.FileStation.List", "getinfo", parameters -> {
+                    String path = parameters.get("path");
+                    String name = path.substring(path.lastIndexOf('/') + 1);
+                    return "{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"" + name + "\",\"path\":\"" + path + "\"}]},\"success\":true}";
+                });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testCompoundRequestIsOneRoundTrip() throws Exception {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+            // Log in before counting
+            client.call(new DsmWebapiRequest("SYNO.FileStation.Info", "1", "entry.cgi", "get"), FileStationInformationResponse.class);
+            server.resetRequestCount();
+
+            CompoundRequest compoundRequest = client.newCompoundRequest();
+            List<CompletableFuture<FileStationInformationResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                responses.add(compoundRequest.add(new DsmWebapiRequest("SYNO.FileStation.Info", "1", "entry.cgi", "get"), FileStationInformationResponse.class));
+            }
+            compoundRequest.execute();
+
+            Assert.assertEquals(1, server.getRequestCount());
+            for (CompletableFuture<FileStationInformationResponse> response : responses) {
+                FileStationInformation information = response.get().getData();
+                Assert.assertEquals("stub", information.getHostname());
+            }
+        }
+    }
+
+    @Test
+    public void testCompoundRequestErrorsAreHandledPerRequest() throws Exception {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+
+            CompoundRequest compoundRequest = client.newCompoundRequest();
+            CompletableFuture<FileStationInformationResponse> success = compoundRequest.add(new DsmWebapiRequest("SYNO.FileStation.Info", "1", "entry.cgi", "get"), FileStationInformationResponse.class);
+            CompletableFuture<?> failure = compoundRequest.add(new DsmWebapiRequest("SYNO.FileStation.List", "2", "entry.cgi", "list"), DsmWebapiResponse.class,
+                    (request, error) -> {
+                        throw new FileNotFoundException("/not-existing", error);
+                    });
+            compoundRequest.execute();
+
+            Assert.assertTrue(success.get().isSuccess());
+            try {
+                failure.get();
+                Assert.fail("Expected the error handler exception");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof FileNotFoundException);
+            }
+        }
+    }
+
+    @Test
+    public void testAutomaticBatching() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.batch.auto", "true");
+        properties.put("dsm.webapi.batch.window", "200");
+        properties.put("dsm.webapi.batch.maxSize", "10");
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            fileListService.getFile("/share/login");
+            server.resetRequestCount();
+
+            ExecutorService executor = Executors.newFixedThreadPool(20);
+            try {
+                List<Future<File>> files = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    String path = "/share/file-" + i;
+                    files.add(executor.submit(() -> fileListService.getFile(path)));
+                }
+                for (int i = 0; i < 20; i++) {
+                    Assert.assertEquals("file-" + i, files.get(i).get().getName());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            Assert.assertTrue("Expected batched round trips, got " + server.getRequestCount(), server.getRequestCount() <= 4);
+        }
+    }
+}
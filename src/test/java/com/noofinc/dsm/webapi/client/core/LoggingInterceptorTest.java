@@ -0,0 +1,114 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LoggingInterceptorTest {
+
+    private static final byte[] RESPONSE = ("{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"a\",\"path\":\"/share/a\"},"
+            + "{\"isdir\":true,\"name\":\"b\",\"path\":\"/share/b\"}],\"offset\":0,\"total\":2},\"success\":true}").getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingInterceptor.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("http://127.0.0.1/webapi/auth.cgi"));
+
+    @Before
+    public void setUp() {
+        Assert.assertTrue(logger.isDebugEnabled());
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() {
+        logger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    public void testPasswordIsMaskedInFormBody() throws Exception {
+        LoggingInterceptor interceptor = new LoggingInterceptor();
+        intercept(interceptor, "api=SYNO.API.Auth&version=3&method=login&passwd=s3cr%26t&account=stub").close();
+        intercept(interceptor, "passwd=first&account=stub").close();
+
+        List<String> bodies = messages("Request body: ");
+        Assert.assertEquals(2, bodies.size());
+        Assert.assertEquals("Request body: api=SYNO.API.Auth&version=3&method=login&passwd=***&account=stub", bodies.get(0));
+        Assert.assertEquals("Request body: passwd=***&account=stub", bodies.get(1));
+    }
+
+    @Test
+    public void testCapturedBodyIsTruncatedAndReportsItsSize() throws Exception {
+        ClientHttpResponse response = intercept(new LoggingInterceptor(16, 1), "");
+        Assert.assertEquals(new ObjectMapper().readTree(RESPONSE), new ObjectMapper().readTree(response.getBody()));
+        // Nothing is logged before the response is closed
+        Assert.assertTrue(messages("Response body: ").isEmpty());
+        response.close();
+
+        String expected = "Response body: " + new String(RESPONSE, 0, 16, StandardCharsets.UTF_8) + "... (" + RESPONSE.length + " bytes)";
+        Assert.assertEquals(expected, messages("Response body: ").get(0));
+    }
+
+    @Test
+    public void testResponseStreamIsUnchanged() throws Exception {
+        ClientHttpResponse response = intercept(new LoggingInterceptor(16, 1), "");
+        InputStream body = response.getBody();
+        // Single bytes then blocks, across the capture limit
+        byte[] read = new byte[RESPONSE.length];
+        for (int i = 0; i < 10; i++) {
+            read[i] = (byte) body.read();
+        }
+        byte[] rest = IOUtils.toByteArray(body);
+        System.arraycopy(rest, 0, read, 10, rest.length);
+        Assert.assertEquals(RESPONSE.length - 10, rest.length);
+        Assert.assertArrayEquals(RESPONSE, read);
+        response.close();
+    }
+
+    @Test
+    public void testOnlySampledResponsesAreCaptured() throws Exception {
+        LoggingInterceptor interceptor = new LoggingInterceptor(2048, 3);
+        for (int i = 0; i < 6; i++) {
+            ClientHttpResponse response = intercept(interceptor, "");
+            Assert.assertArrayEquals(RESPONSE, IOUtils.toByteArray(response.getBody()));
+            Assert.assertEquals(i % 3 != 0, response instanceof MockClientHttpResponse);
+            response.close();
+        }
+        List<String> bodies = messages("Response body: ");
+        Assert.assertEquals(2, bodies.size());
+        Assert.assertEquals("Response body: " + new String(RESPONSE, StandardCharsets.UTF_8), bodies.get(0));
+    }
+
+    private ClientHttpResponse intercept(LoggingInterceptor interceptor, String body) throws IOException {
+        return interceptor.intercept(request, body.getBytes(StandardCharsets.UTF_8), (httpRequest, bytes) -> new MockClientHttpResponse(RESPONSE, HttpStatus.OK));
+    }
+
+    private List<String> messages(String prefix) {
+        return appender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(message -> message.startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformationServiceImpl.FileStationInformationResponse;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PostTransportTest {
+
+    private static final String PROBE = "/share/a b+c&d=e,f/\u00E9t\u00E9 \uD83D\uDE00";
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.Info", "get", parameters -> "{\"data\":{\"hostname\":\"" + parameters.get("probe") + "\"},\"success\":true}")
+                .on("SYNO.FileStation.List", "list", parameters -> "{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"a\",\"path\":\"" + parameters.get("folder_path") + "/a\"}],\"offset\":0,\"total\":1},\"success\":true}")
+                .on("SYNO.FileStation.List", "getinfo", parameters -> {
+                    StringBuilder json = new StringBuilder("{\"data\":{\"files\":[");
+                    for (String path : parameters.get("path").split(",")) {
+                        json.append(json.charAt(json.length() - 1) == '[' ? "" : ",")
+                                .append("{\"isdir\":false,\"name\":\"").append(path.substring(path.lastIndexOf('/') + 1)).append("\",\"path\":\"").append(path).append("\"}");
+                    }
+                    return json.append("]},\"success\":true}").toString();
+                });
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.post.threshold", "500");
+        context = StubDsmContext.create(server, properties);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testLoginIsPosted() {
+        DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+        client.call(probe(), FileStationInformationResponse.class);
+        Assert.assertFalse(server.getLastQuery("SYNO.API.Auth", "login").contains("passwd"));
+    }
+
+    @Test
+    public void testPostedParametersAreEncodedLikeTheQueryString() {
+        DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+        String viaGet = client.call(probe(), FileStationInformationResponse.class).getData().getHostname();
+        Assert.assertTrue(server.getLastQuery("SYNO.FileStation.Info", "get").contains("probe="));
+        String viaPost = client.call(probe().post(), FileStationInformationResponse.class).getData().getHostname();
+        Assert.assertEquals("", server.getLastQuery("SYNO.FileStation.Info", "get"));
+        String viaAsyncPost = client.callAsync(probe().post(), FileStationInformationResponse.class).join().getData().getHostname();
+        Assert.assertEquals(PROBE, viaGet);
+        Assert.assertEquals(PROBE, viaPost);
+        Assert.assertEquals(PROBE, viaAsyncPost);
+    }
+
+    @Test
+    public void testValueEndingWithQuestionMarkKeepsTheNextParameterApart() {
+        DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+        DsmWebapiRequest request = new DsmWebapiRequest("SYNO.FileStation.Info", "1", "entry.cgi", "get")
+                .parameter("probe", "report?")
+                .parameter("after", "x");
+        Assert.assertEquals("report?", client.call(request, FileStationInformationResponse.class).getData().getHostname());
+        Assert.assertEquals("report?", client.call(request.post(), FileStationInformationResponse.class).getData().getHostname());
+    }
+
+    @Test
+    public void testLongRequestsArePosted() {
+        FileListService fileListService = context.getBean(FileListService.class);
+        fileListService.getFile("/share/short");
+        Assert.assertTrue(server.getLastQuery("SYNO.FileStation.List", "getinfo").contains("path="));
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            paths.add("/share/file-" + i);
+        }
+        server.resetRequestCount();
+        List<File> files = fileListService.getFiles(paths);
+        Assert.assertEquals(100, files.size());
+        Assert.assertEquals("/share/file-99", files.get(99).getPath());
+        Assert.assertEquals(server.getRequestCount(), server.getPostCount());
+        Assert.assertEquals("", server.getLastQuery("SYNO.FileStation.List", "getinfo"));
+    }
+
+    @Test
+    public void testStreamedResponseOfPostedRequest() {
+        DsmWebapiClient client = context.getBean(DsmWebapiClient.class);
+        PaginationAndSorting all = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+        DsmWebapiRequest request = new DsmWebapiRequest("SYNO.FileStation.List", "1", "entry.cgi", "list")
+                .parameter("folder_path", "/share")
+                .parameter("offset", all.getOffset())
+                .parameter("limit", all.getLimit())
+                .post();
+        List<File> files = new ArrayList<>();
+        Assert.assertEquals(1, client.callStreaming(request, "files", File.class, files::add, null).path("total").asInt());
+        Assert.assertEquals("/share/a", files.get(0).getPath());
+        Assert.assertEquals("", server.getLastQuery("SYNO.FileStation.List", "list"));
+    }
+
+    private static DsmWebapiRequest probe() {
+        return new DsmWebapiRequest("SYNO.FileStation.Info", "1", "entry.cgi", "get").parameter("probe", PROBE);
+    }
+}
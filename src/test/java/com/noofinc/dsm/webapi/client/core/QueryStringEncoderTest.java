@@ -0,0 +1,75 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.util.UriComponentsBuilder;
+
+public class QueryStringEncoderTest {
+
+    @Test
+    public void testAsciiCharactersAreEncodedLikeSpring() {
+        for (char c = 0; c < 128; c++) {
+            assertEncodedLikeSpring("a" + c + "b");
+        }
+    }
+
+    @Test
+    public void testNonAsciiCharactersAreEncodedLikeSpring() {
+        assertEncodedLikeSpring("/volume1/Photos/\u00E9t\u00E9 2015/\u00FCber.jpg");
+        assertEncodedLikeSpring("\u65E5\u672C\u8A9E/\u30D5\u30A1\u30A4\u30EB.txt");
+        assertEncodedLikeSpring("emoji \uD83D\uDE00 and a lone surrogate \uD800 end");
+        assertEncodedLikeSpring("[\"/share/a,b\",\"/share/c&d=e+f\"]");
+        assertEncodedLikeSpring("");
+    }
+
+    @Test
+    public void testEncodedLength() {
+        String[] values = {"", "/share/plain.txt", "a b&c", "/volume1/Photos/\u00E9t\u00E9 2015/\u00FCber.jpg", "\u65E5\u672C\u8A9E",
+                "emoji \uD83D\uDE00 and a lone surrogate \uD800 end", "\uDE00\uD83D"};
+        for (String value : values) {
+            StringBuilder builder = new StringBuilder();
+            QueryStringEncoder.appendEncoded(builder, value);
+            Assert.assertEquals(value, builder.length(), QueryStringEncoder.encodedLength(value));
+        }
+    }
+
+    @Test
+    public void testNullValueIsRenderedAsKeyOnly() {
+        StringBuilder builder = new StringBuilder("http://nas:5000/webapi/entry.cgi?");
+        int queryStart = builder.length();
+        QueryStringEncoder.appendParameter(builder, queryStart, "api", "SYNO.FileStation.List");
+        QueryStringEncoder.appendParameter(builder, queryStart, "flag", null);
+        Assert.assertEquals("http://nas:5000/webapi/entry.cgi?api=SYNO.FileStation.List&flag", builder.toString());
+    }
+
+    @Test
+    public void testValueEndingWithQuestionMarkIsFollowedBySeparator() {
+        StringBuilder builder = new StringBuilder("http://nas:5000/webapi/entry.cgi?");
+        int queryStart = builder.length();
+        QueryStringEncoder.appendParameter(builder, queryStart, "pattern", "report?");
+        QueryStringEncoder.appendParameter(builder, queryStart, "broken", "\uD800");
+        QueryStringEncoder.appendParameter(builder, queryStart, "limit", "10");
+        Assert.assertEquals("http://nas:5000/webapi/entry.cgi?pattern=report?&broken=?&limit=10", builder.toString());
+    }
+
+    @Test
+    public void testFirstParameterOfBodyHasNoSeparator() {
+        StringBuilder builder = new StringBuilder();
+        QueryStringEncoder.appendParameter(builder, 0, "api", "SYNO.FileStation.Search");
+        QueryStringEncoder.appendParameter(builder, 0, "pattern", "a?");
+        QueryStringEncoder.appendParameter(builder, 0, "_sid", "sid");
+        Assert.assertEquals("api=SYNO.FileStation.Search&pattern=a?&_sid=sid", builder.toString());
+    }
+
+    private static void assertEncodedLikeSpring(String value) {
+        String springUrl = UriComponentsBuilder.fromHttpUrl("http://nas:5000").path("webapi/").path("entry.cgi")
+                .queryParam("key", value)
+                .toUriString();
+        int queryStart = springUrl.indexOf('?');
+        String expected = springUrl.substring(0, queryStart) + springUrl.substring(queryStart).replace("/", "%2F");
+
+        StringBuilder builder = new StringBuilder("http://nas:5000/webapi/entry.cgi?");
+        QueryStringEncoder.appendParameter(builder, builder.length(), "key", value);
+        Assert.assertEquals(expected, builder.toString());
+    }
+}
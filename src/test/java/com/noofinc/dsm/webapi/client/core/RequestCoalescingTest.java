@@ -0,0 +1,80 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.rename.RenameService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RequestCoalescingTest {
+
+    private static final int CALLERS = 10;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.List", "getinfo", parameters ->
+                        "{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"file\",\"path\":\"" + parameters.get("path") + "\"}]},\"success\":true}")
+                .on("SYNO.FileStation.Rename", "rename", parameters ->
+                        "{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"" + parameters.get("name") + "\",\"path\":\"/share/" + parameters.get("name") + "\"}]},\"success\":true}");
+        context = StubDsmContext.create(server);
+        // Log in before counting
+        context.getBean(FileListService.class).getFile("/share/login");
+        server.latency(300);
+        server.resetRequestCount();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneRequest() throws Exception {
+        FileListService fileListService = context.getBean(FileListService.class);
+        List<File> files = runConcurrently(() -> fileListService.getFile("/share/file"));
+        files.forEach(file -> Assert.assertEquals("/share/file", file.getPath()));
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testMutatingRequestsAreNotCoalesced() throws Exception {
+        RenameService renameService = context.getBean(RenameService.class);
+        runConcurrently(() -> renameService.rename("/share/file", "renamed"));
+        Assert.assertEquals(CALLERS, server.getRequestCount());
+    }
+
+    private <T> List<T> runConcurrently(Callable<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(call));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lists a folder of 500k entries, once fully decoded and once pushed to a consumer, and reports the live heap at 10%
+ * and 90% of the consumed entries: the streaming path should not grow with the number of entries.
+ */
+public class StreamingResponseBenchmark {
+
+    private static final int ENTRIES = 500_000;
+
+    @Test
+    public void compareHeapGrowth() throws Exception {
+        String listing = listing();
+        try (StubDsmServer server = new StubDsmServer().on("SYNO.FileStation.List", "list", parameters -> listing);
+             AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            PaginationAndSorting all = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+            long before = usedHeapAfterGc(memory);
+            int size = fileListService.list("/share").size();
+            long retained = usedHeapAfterGc(memory) - before;
+            Assert.assertEquals(ENTRIES, size);
+
+            AtomicInteger count = new AtomicInteger();
+            AtomicLong atTenPercent = new AtomicLong();
+            AtomicLong atNinetyPercent = new AtomicLong();
+            fileListService.list(all, "/share", file -> {
+                int consumed = count.incrementAndGet();
+                if(consumed == ENTRIES / 10) {
+                    atTenPercent.set(usedHeapAfterGc(memory));
+                } else if(consumed == ENTRIES * 9 / 10) {
+                    atNinetyPercent.set(usedHeapAfterGc(memory));
+                }
+            });
+            Assert.assertEquals(ENTRIES, count.get());
+            long growth = atNinetyPercent.get() - atTenPercent.get();
+            System.out.println(String.format("%-10s %6d bytes/entry retained", "list", retained / ENTRIES));
+            System.out.println(String.format("%-10s %6d KB growth from 10%% to 90%%", "consumer", growth / 1024));
+            Assert.assertTrue(growth < retained / 10);
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String listing() {
+        StringBuilder json = new StringBuilder("{\"data\":{\"files\":[");
+        for (int i = 0; i < ENTRIES; i++) {
+            if(i > 0) {
+                json.append(',');
+            }
+            json.append("{\"isdir\":false,\"name\":\"file-").append(i).append("\",\"path\":\"/share/file-").append(i).append("\"}");
+        }
+        return json.append("],\"offset\":0,\"total\":").append(ENTRIES).append("},\"success\":true}").toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.noofinc.dsm.webapi.client.core;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.search.SearchService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StreamingResponseTest {
+
+    private static final PaginationAndSorting ALL = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private volatile String validSid;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.API.Auth", "login", parameters -> {
+                    validSid = "sid-" + logins.incrementAndGet();
+                    return "{\"data\":{\"sid\":\"" + validSid + "\"},\"success\":true}";
+                })
+                .on("SYNO.FileStation.List", "list", parameters -> {
+                    if(!validSid.equals(parameters.get("_sid"))) {
+                        return "{\"error\":{\"code\":119},\"success\":false}";
+                    }
+                    if(!"/share".equals(parameters.get("folder_path"))) {
+                        return "{\"error\":{\"code\":408},\"success\":false}";
+                    }
+                    return "{\"data\":{\"files\":[" + entry("a") + "," + entry("b") + "," + entry("c") + "],\"offset\":0,\"total\":3},\"success\":true}";
+                })
+                .on("SYNO.FileStation.Search", "list", parameters ->
+                        "{\"data\":{\"files\":[" + entry("found") + "],\"finished\":true,\"offset\":0,\"total\":1},\"success\":true}");
+        context = StubDsmContext.create(server);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testElementsArePushedInOrder() {
+        List<String> names = new ArrayList<>();
+        int total = context.getBean(FileListService.class).list(ALL, "/share", file -> names.add(file.getName()));
+        Assert.assertEquals(3, total);
+        Assert.assertEquals(3, names.size());
+        Assert.assertEquals("a", names.get(0));
+        Assert.assertEquals("c", names.get(2));
+    }
+
+    @Test
+    public void testErrorIsRaisedBeforeAnyElement() {
+        List<File> files = new ArrayList<>();
+        try {
+            context.getBean(FileListService.class).list(ALL, "/missing", files::add);
+            Assert.fail("Expected FileNotFoundException");
+        } catch (FileNotFoundException e) {
+            Assert.assertTrue(files.isEmpty());
+        }
+    }
+
+    @Test
+    public void testExpiredSessionIsRenewed() {
+        FileListService fileListService = context.getBean(FileListService.class);
+        fileListService.list(ALL, "/share", file -> { });
+        validSid = "expired";
+        List<File> files = new ArrayList<>();
+        Assert.assertEquals(3, fileListService.list(ALL, "/share", files::add));
+        Assert.assertEquals(3, files.size());
+        Assert.assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testSearchResult() {
+        List<File> files = new ArrayList<>();
+        Assert.assertTrue(context.getBean(SearchService.class).getResult("task", ALL, files::add));
+        Assert.assertEquals("found", files.get(0).getName());
+    }
+
+    private static String entry(String name) {
+        return "{\"isdir\":false,\"name\":\"" + name + "\",\"path\":\"/share/" + name + "\"}";
+    }
+}
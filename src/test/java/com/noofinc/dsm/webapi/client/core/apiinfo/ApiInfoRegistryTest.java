@@ -0,0 +1,146 @@
+package com.noofinc.dsm.webapi.client.core.apiinfo;
+
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformationService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ApiInfoRegistryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StubDsmServer server;
+
+    private final AtomicInteger apiInfoQueries = new AtomicInteger();
+
+    private volatile boolean apiInfoAvailable = true;
+
+    private volatile String authVersion = "3";
+
+    private volatile String fileStationPath = "entry.cgi";
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.Info", "get", parameters -> "{\"data\":{\"is_manager\":true,\"hostname\":\"stub\"},\"success\":true}");
+        server.on("SYNO.API.Info", "query", parameters -> {
+            if(!apiInfoAvailable) {
+                return "{\"error\":{\"code\":100},\"success\":false}";
+            }
+            Map<String, String> apis = new LinkedHashMap<>();
+            apis.put("SYNO.API.Auth", "{\"maxVersion\":\"" + authVersion + "\",\"minVersion\":\"1\",\"path\":\"auth.cgi\",\"requestFormat\":\"JSON\"}");
+            apis.put("SYNO.API.Info", "{\"maxVersion\":\"1\",\"minVersion\":\"1\",\"path\":\"query.cgi\",\"requestFormat\":\"JSON\"}");
+            apis.put("SYNO.FileStation.Info", "{\"maxVersion\":\"1\",\"minVersion\":\"1\",\"path\":\"" + fileStationPath + "\",\"requestFormat\":\"JSON\"}");
+            if("all".equals(parameters.get("query"))) {
+                apiInfoQueries.incrementAndGet();
+            } else {
+                // The version query asked for before reading the cache
+                Assert.assertEquals("SYNO.API.Auth,SYNO.API.Info", parameters.get("query"));
+                apis.keySet().retainAll(Arrays.asList(parameters.get("query").split(",")));
+            }
+            StringBuilder data = new StringBuilder();
+            apis.forEach((api, info) -> data.append(data.length() == 0 ? "" : ",").append('"').append(api).append("\":").append(info));
+            return "{\"data\":{" + data + "},\"success\":true}";
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testAllApisAreResolvedWithOneQuery() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            Assert.assertEquals("Nothing should be resolved at startup", 0, apiInfoQueries.get());
+            context.getBean(FileStationInformationService.class).getFileStationInformation();
+            context.getBean(FileStationInformationService.class).getFileStationInformation();
+            Assert.assertEquals(1, apiInfoQueries.get());
+        }
+    }
+
+    @Test(expected = ApiNotFoundException.class)
+    public void testUnknownApi() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            context.getBean(ApiInfoRegistry.class).find("SYNO.Not.Existing");
+        }
+    }
+
+    @Test
+    public void testMissingApiIsOnlyLookedUpOnceUntilTheNextReload() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            ApiInfoRegistry registry = context.getBean(ApiInfoRegistry.class);
+            for (int i = 0; i < 3; i++) {
+                assertNotFound(registry, "SYNO.Not.Existing");
+            }
+            // The first load, then one reload
+            Assert.assertEquals(2, apiInfoQueries.get());
+
+            assertNotFound(registry, "SYNO.Other.Missing");
+            Assert.assertEquals(3, apiInfoQueries.get());
+            // Forgotten with the reload
+            assertNotFound(registry, "SYNO.Not.Existing");
+            Assert.assertEquals(4, apiInfoQueries.get());
+        }
+    }
+
+    @Test
+    public void testCacheFileOfAnotherDsmVersionIsNotUsed() throws Exception {
+        Map<String, Object> properties = Collections.singletonMap("dsm.webapi.apiInfo.cacheDirectory", temporaryFolder.getRoot().getAbsolutePath());
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            context.getBean(FileStationInformationService.class).getFileStationInformation();
+        }
+
+        authVersion = "7";
+        fileStationPath = "entry7.cgi";
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            Assert.assertEquals("entry7.cgi", context.getBean(ApiInfoRegistry.class).find("SYNO.FileStation.Info").getPath());
+        }
+        Assert.assertEquals(2, apiInfoQueries.get());
+        String[] files = temporaryFolder.getRoot().list();
+        Arrays.sort(files);
+        Assert.assertEquals(2, files.length);
+        Assert.assertTrue(files[0], files[0].endsWith("-v3.1.json"));
+        Assert.assertTrue(files[1], files[1].endsWith("-v7.1.json"));
+    }
+
+    @Test
+    public void testWarmStartFromCacheFile() throws Exception {
+        Map<String, Object> properties = Collections.singletonMap("dsm.webapi.apiInfo.cacheDirectory", temporaryFolder.getRoot().getAbsolutePath());
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            context.getBean(FileStationInformationService.class).getFileStationInformation();
+        }
+        Assert.assertEquals(1, temporaryFolder.getRoot().list().length);
+
+        // API info is briefly unavailable: the cached copy is used and revalidation fails in the background
+        apiInfoAvailable = false;
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            Assert.assertEquals("stub", context.getBean(FileStationInformationService.class).getFileStationInformation().getHostname());
+            ApiInfo apiInfo = context.getBean(ApiInfoRegistry.class).find("SYNO.FileStation.Info");
+            Assert.assertEquals("entry.cgi", apiInfo.getPath());
+            Assert.assertEquals("1", apiInfo.getMaxVersion());
+        }
+    }
+
+    private static void assertNotFound(ApiInfoRegistry registry, String api) {
+        try {
+            registry.find(api);
+            Assert.fail("Expected ApiNotFoundException");
+        } catch (ApiNotFoundException e) {
+            // Expected
+        }
+    }
+}
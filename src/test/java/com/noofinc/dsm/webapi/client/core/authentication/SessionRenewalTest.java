@@ -0,0 +1,105 @@
+package com.noofinc.dsm.webapi.client.core.authentication;
+
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformation;
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformationService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SessionRenewalTest {
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private final List<String> loggedOut = new CopyOnWriteArrayList<>();
+
+    private volatile String validSid;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.API.Auth", "login", parameters -> {
+                    validSid = "sid-" + logins.incrementAndGet();
+                    return "{\"data\":{\"sid\":\"" + validSid + "\"},\"success\":true}";
+                })
+                .on("SYNO.API.Auth", "logout", parameters -> {
+                    loggedOut.add(parameters.get("_sid"));
+                    return "{\"success\":true}";
+                })
+                .on("SYNO.FileStation.Info", "get", parameters -> validSid.equals(parameters.get("_sid"))
+                        ? "{\"data\":{\"is_manager\":true,\"hostname\":\"stub\"},\"success\":true}"
+                        : "{\"error\":{\"code\":119},\"success\":false}");
+        context = StubDsmContext.create(server);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testExpiredSessionIsRenewedAndRequestReplayed() {
+        FileStationInformationService service = context.getBean(FileStationInformationService.class);
+        service.getFileStationInformation();
+        Assert.assertEquals(1, logins.get());
+
+        validSid = "expired";
+        FileStationInformation information = service.getFileStationInformation();
+        Assert.assertEquals("stub", information.getHostname());
+        Assert.assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testReplacedSessionIsLoggedOut() throws Exception {
+        FileStationInformationService service = context.getBean(FileStationInformationService.class);
+        service.getFileStationInformation();
+
+        validSid = "expired";
+        service.getFileStationInformation();
+        // In the background, after the new session is in use
+        for (int i = 0; i < 100 && loggedOut.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Collections.singletonList("sid-1"), loggedOut);
+
+        context.close();
+        Assert.assertEquals("sid-2", loggedOut.get(loggedOut.size() - 1));
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLogin() throws Exception {
+        FileStationInformationService service = context.getBean(FileStationInformationService.class);
+        service.getFileStationInformation();
+
+        validSid = "expired";
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<FileStationInformation>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(executor.submit(service::getFileStationInformation));
+            }
+            for (Future<FileStationInformation> result : results) {
+                Assert.assertEquals("stub", result.get().getHostname());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(2, logins.get());
+    }
+}
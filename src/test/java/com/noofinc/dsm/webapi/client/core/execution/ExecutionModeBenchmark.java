@@ -0,0 +1,76 @@
+package com.noofinc.dsm.webapi.client.core.execution;
+
+import com.noofinc.dsm.webapi.client.filestation.dirsize.DirSizeService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many synchronous dir size computations (start, two status polls, stop) at once against a stub NAS and
+ * compares how platform and virtual threads cope with them.
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int OPERATIONS = 2000;
+    private static final int CONNECTIONS = 128;
+
+    @Test
+    public void compareExecutionModes() throws Exception {
+        try (StubDsmServer server = new StubDsmServer(CONNECTIONS)) {
+            AtomicLong taskIds = new AtomicLong();
+            Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+            server.latency(5)
+                    .on("SYNO.FileStation.DirSize", "start", parameters -> "{\"data\":{\"taskid\":\"task-" + taskIds.incrementAndGet() + "\"},\"success\":true}")
+                    .on("SYNO.FileStation.DirSize", "status", parameters -> {
+                        boolean finished = polls.computeIfAbsent(parameters.get("taskid"), taskId -> new AtomicInteger()).incrementAndGet() >= 2;
+                        return "{\"data\":{\"finished\":" + finished + ",\"num_dir\":1,\"num_file\":2,\"total_size\":3},\"success\":true}";
+                    })
+                    .on("SYNO.FileStation.DirSize", "stop", parameters -> "{\"success\":true}");
+
+            run(server, "platform (32 threads)", ExecutionMode.PLATFORM, 32);
+            run(server, "platform (" + OPERATIONS + " threads)", ExecutionMode.PLATFORM, OPERATIONS);
+            if(VirtualThreads.isSupported()) {
+                run(server, "virtual", ExecutionMode.VIRTUAL, 0);
+            } else {
+                System.out.println("virtual threads not available on Java " + System.getProperty("java.version") + ", skipped");
+            }
+        }
+    }
+
+    private void run(StubDsmServer server, String name, ExecutionMode executionMode, int platformThreads) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.execution.mode", executionMode.name());
+        properties.put("dsm.webapi.execution.platformThreads", Integer.toString(Math.max(1, platformThreads)));
+        properties.put("dsm.webapi.http.maxConnections", Integer.toString(CONNECTIONS));
+        properties.put("dsm.webapi.http.maxConnectionsPerHost", Integer.toString(CONNECTIONS));
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            DirSizeService dirSizeService = context.getBean(DirSizeService.class);
+            DsmExecutor executor = context.getBean(DsmExecutor.class);
+            dirSizeService.synchronousDirSize("/warmup");
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            long begin = System.nanoTime();
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.supplyAsync(() -> dirSizeService.synchronousDirSize("/share")));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+            long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+            System.out.println(String.format("%-30s %6d ops  %7d ms  %8.1f ops/s  peak platform threads %5d",
+                    name, OPERATIONS, elapsedMillis, OPERATIONS * 1000d / elapsedMillis, threads.getPeakThreadCount()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class GatedConnectionManagerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("nas", 5000));
+
+    private PoolingHttpClientConnectionManager pool;
+
+    private GatedConnectionManager connectionManager;
+
+    @Before
+    public void setUp() {
+        pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(2);
+        pool.setDefaultMaxPerRoute(2);
+        connectionManager = new GatedConnectionManager(pool, 2);
+    }
+
+    @After
+    public void tearDown() {
+        connectionManager.shutdown();
+    }
+
+    @Test
+    public void testCallersBeyondThePoolSizeWaitOutsideOfIt() throws Exception {
+        HttpClientConnection first = connectionManager.requestConnection(ROUTE, null).get(0, TimeUnit.MILLISECONDS);
+        connectionManager.requestConnection(ROUTE, null).get(0, TimeUnit.MILLISECONDS);
+        try {
+            connectionManager.requestConnection(ROUTE, null).get(50, TimeUnit.MILLISECONDS);
+            Assert.fail("Expected ConnectionPoolTimeoutException");
+        } catch (ConnectionPoolTimeoutException e) {
+            // Turned away before asking the pool
+            Assert.assertEquals(0, pool.getTotalStats().getPending());
+        }
+
+        connectionManager.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(connectionManager.requestConnection(ROUTE, null).get(50, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, pool.getTotalStats().getLeased());
+    }
+
+    @Test
+    public void testCancelledRequestGivesItsPermitBack() throws Exception {
+        connectionManager.requestConnection(ROUTE, null).get(0, TimeUnit.MILLISECONDS);
+        ConnectionRequest cancelled = connectionManager.requestConnection(ROUTE, null);
+        cancelled.cancel();
+        try {
+            cancelled.get(0, TimeUnit.MILLISECONDS);
+            Assert.fail("Expected InterruptedException");
+        } catch (InterruptedException e) {
+            // The permit is free again
+        }
+        Assert.assertNotNull(connectionManager.requestConnection(ROUTE, null).get(50, TimeUnit.MILLISECONDS));
+    }
+}
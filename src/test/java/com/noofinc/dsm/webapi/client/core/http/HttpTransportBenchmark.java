@@ -0,0 +1,41 @@
+package com.noofinc.dsm.webapi.client.core.http;
+
+import com.noofinc.dsm.webapi.client.filestation.info.FileStationInformationService;
+import com.noofinc.dsm.webapi.client.stub.LoadGenerator;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+public class HttpTransportBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 500;
+
+    @Test
+    public void compareTransports() throws Exception {
+        try (StubDsmServer server = new StubDsmServer()) {
+            server.on("SYNO.FileStation.Info", "get", parameters -> "{\"data\":{\"is_manager\":true,\"hostname\":\"stub\"},\"success\":true}");
+            System.out.println(run(server, "simple (HttpURLConnection)", SimpleTransportConfiguration.class));
+            System.out.println(run(server, "pooled (HttpClient)"));
+        }
+    }
+
+    private LoadGenerator.Result run(StubDsmServer server, String name, Class<?>... overrides) throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, overrides)) {
+            FileStationInformationService service = context.getBean(FileStationInformationService.class);
+            return new LoadGenerator(THREADS, ITERATIONS, 200).run(name, service::getFileStationInformation);
+        }
+    }
+
+    @Configuration
+    public static class SimpleTransportConfiguration {
+
+        @Bean
+        public HttpTransport dsmHttpTransport() {
+            return new SimpleHttpTransport();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileProperties;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AdditionalFieldTest {
+
+    @Test
+    public void testJoinFollowsDeclarationOrder() {
+        Assert.assertEquals("size,owner,type", AdditionalField.join(EnumSet.of(AdditionalField.TYPE, AdditionalField.SIZE, AdditionalField.OWNER)));
+        Assert.assertEquals("", AdditionalField.join(AdditionalField.NONE));
+        Assert.assertEquals("real_path,size,owner,time,perm,type", AdditionalField.join(AdditionalField.FILE_FIELDS));
+    }
+
+    @Test
+    public void testOnlyRequestedFieldsAreFetched() throws Exception {
+        AtomicReference<String> additional = new AtomicReference<>();
+        try (StubDsmServer server = new StubDsmServer()
+                .on("SYNO.FileStation.List", "list", parameters -> {
+                    additional.set(parameters.get("additional"));
+                    return "{\"data\":{\"files\":[{\"additional\":{\"size\":42},\"isdir\":false,\"name\":\"a\",\"path\":\"/share/a\"}],\"offset\":0,\"total\":1},\"success\":true}";
+                })
+                .on("SYNO.FileStation.List", "getinfo", parameters -> {
+                    additional.set(parameters.get("additional"));
+                    return "{\"data\":{\"files\":[{\"isdir\":false,\"name\":\"a\",\"path\":\"/share/a\"}]},\"success\":true}";
+                });
+             AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            PaginationAndSorting all = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+            List<File> files = fileListService.list(all, "/share", Optional.empty(), Optional.empty(), Optional.empty(), EnumSet.of(AdditionalField.SIZE)).getElements();
+            Assert.assertEquals("size", additional.get());
+            FileProperties properties = files.get(0).getProperties();
+            Assert.assertEquals(42, properties.getSize());
+            Assert.assertNull(properties.getOwner());
+            Assert.assertNull(properties.getTimeInformation());
+            Assert.assertNull(properties.getRealPath());
+
+            File file = fileListService.getFiles(Collections.singletonList("/share/a"), AdditionalField.NONE).get(0);
+            Assert.assertNull(additional.get());
+            Assert.assertEquals("a", file.getName());
+            Assert.assertNull(file.getProperties());
+        }
+    }
+
+    @Test
+    public void testAbsentSizeIsUnknown() throws Exception {
+        try (StubDsmServer server = new StubDsmServer()
+                .on("SYNO.FileStation.List", "getinfo", parameters ->
+                        "{\"data\":{\"files\":[{\"additional\":{\"real_path\":\"/volume1/share/a\"},\"isdir\":false,\"name\":\"a\",\"path\":\"/share/a\"}]},\"success\":true}");
+             AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            File file = context.getBean(FileListService.class).getFiles(Collections.singletonList("/share/a"), EnumSet.of(AdditionalField.REAL_PATH)).get(0);
+            Assert.assertEquals(FileProperties.UNKNOWN_SIZE, file.getProperties().getSize());
+            Assert.assertEquals("/volume1/share/a", file.getProperties().getRealPath());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.noofinc.dsm.webapi.client.filestation.filelist.FileListService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Lists a folder of 200k entries with every additional field, as {@link File} then as {@link CompactFile}, and
+ * reports the heap retained per entry.
+ */
+public class CompactFileBenchmark {
+
+    private static final int ENTRIES = 200_000;
+    private static final String[] OWNERS = {"admin", "backup", "media", "guest"};
+    private static final String[] TYPES = {"JPG", "MP4", "PDF", "TXT", "ISO"};
+
+    @Test
+    public void compareRetainedHeap() throws Exception {
+        String listing = listing();
+        try (StubDsmServer server = new StubDsmServer().on("SYNO.FileStation.List", "list", parameters -> listing);
+             AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            PaginationAndSorting all = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+            // Warm up both paths
+            fileListService.listCompact(all, "/share");
+            fileListService.list("/share");
+
+            long fileBytes = retainedBytes(() -> fileListService.list("/share"));
+            long compactBytes = retainedBytes(() -> fileListService.listCompact(all, "/share").getElements());
+            System.out.println(String.format("%-12s %6d bytes/entry", "File", fileBytes / ENTRIES));
+            System.out.println(String.format("%-12s %6d bytes/entry", "CompactFile", compactBytes / ENTRIES));
+            Assert.assertTrue(compactBytes < fileBytes);
+        }
+    }
+
+    private long retainedBytes(Supplier<List<?>> list) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+        List<?> retained = list.get();
+        long after = usedHeapAfterGc(memory);
+        Assert.assertEquals(ENTRIES, retained.size());
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String listing() {
+        StringBuilder json = new StringBuilder("{\"data\":{\"total\":").append(ENTRIES).append(",\"offset\":0,\"files\":[");
+        for (int i = 0; i < ENTRIES; i++) {
+            String owner = OWNERS[i % OWNERS.length];
+            String type = TYPES[i % TYPES.length];
+            String name = "file-" + i + "." + type.toLowerCase();
+            if(i > 0) {
+                json.append(',');
+            }
+            json.append("{\"additional\":{\"mount_point_type\":\"\",\"owner\":{\"gid\":100,\"group\":\"users\",\"uid\":").append(1026 + i % OWNERS.length)
+                    .append(",\"user\":\"").append(owner).append("\"},\"perm\":{\"acl\":{\"append\":true,\"del\":true,\"exec\":true,\"read\":true,\"write\":true},")
+                    .append("\"is_acl_mode\":true,\"posix\":777},\"real_path\":\"/volume1/share/").append(name).append("\",\"size\":").append(1000L * i)
+                    .append(",\"time\":{\"atime\":").append(1445000000 + i).append(",\"crtime\":").append(1440000000 + i)
+                    .append(",\"ctime\":").append(1444000000 + i).append(",\"mtime\":").append(1443000000 + i)
+                    .append("},\"type\":\"").append(type).append("\"},\"isdir\":false,\"name\":\"").append(name)
+                    .append("\",\"path\":\"/share/").append(name).append("\"}");
+        }
+        return json.append("]},\"success\":true}").toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactFileTest {
+
+    private static final String ENTRY = "{\"additional\":{\"mount_point_type\":\"\",\"owner\":{\"gid\":100,\"group\":\"users\",\"uid\":1026,\"user\":\"admin\"},"
+            + "\"perm\":{\"acl\":{\"append\":true,\"del\":true,\"exec\":false,\"read\":true,\"write\":true},\"is_acl_mode\":true,\"posix\":755},"
+            + "\"real_path\":\"/volume1/share/big.iso\",\"size\":5368709120,"
+            + "\"time\":{\"atime\":1445000000,\"crtime\":1440000000,\"ctime\":1444000000,\"mtime\":1443000000},\"type\":\"ISO\"},"
+            + "\"isdir\":false,\"name\":\"big.iso\",\"path\":\"/share/big.iso\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testDeserialize() throws Exception {
+        CompactFile file = objectMapper.readValue(ENTRY, CompactFile.class);
+        Assert.assertEquals("/share/big.iso", file.getPath());
+        Assert.assertEquals("big.iso", file.getName());
+        Assert.assertFalse(file.isDirectory());
+        Assert.assertEquals(5368709120L, file.getSize());
+        Assert.assertEquals("admin", file.getOwner());
+        Assert.assertEquals("users", file.getGroup());
+        Assert.assertEquals(1026, file.getUid());
+        Assert.assertEquals(100, file.getGid());
+        Assert.assertEquals("ISO", file.getType());
+        Assert.assertEquals(1445000000L, file.getLastAccessEpochSecond());
+        Assert.assertEquals(1443000000L, file.getLastModificationEpochSecond());
+        Assert.assertEquals(1444000000L, file.getLastChangeEpochSecond());
+        Assert.assertEquals(1440000000L, file.getCreationEpochSecond());
+        Assert.assertEquals(755, file.getPosix());
+        Assert.assertTrue(file.isAclMode());
+        Assert.assertTrue(file.isAclAppend());
+        Assert.assertTrue(file.isAclDelete());
+        Assert.assertFalse(file.isAclExecute());
+        Assert.assertTrue(file.isAclRead());
+        Assert.assertTrue(file.isAclWrite());
+    }
+
+    @Test
+    public void testRepeatedStringsAreShared() throws Exception {
+        CompactFile.CompactFileList list = objectMapper.readValue("{\"total\":2,\"offset\":0,\"files\":[" + ENTRY + "," + ENTRY + "]}", CompactFile.CompactFileList.class);
+        Assert.assertEquals(2, list.getElements().size());
+        Assert.assertSame(list.getElements().get(0).getOwner(), list.getElements().get(1).getOwner());
+        Assert.assertSame(list.getElements().get(0).getType(), list.getElements().get(1).getType());
+    }
+
+    @Test
+    public void testWithoutAdditionalFields() throws Exception {
+        CompactFile file = objectMapper.readValue("{\"isdir\":true,\"name\":\"dir\",\"path\":\"/share/dir\"}", CompactFile.class);
+        Assert.assertTrue(file.isDirectory());
+        Assert.assertEquals(CompactFile.UNKNOWN, file.getSize());
+        Assert.assertEquals(CompactFile.UNKNOWN, file.getLastModificationEpochSecond());
+        Assert.assertNull(file.getLastModificationTime());
+        Assert.assertNull(file.getOwner());
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        CompactFile file = objectMapper.readValue("{\"code\":408,\"path\":\"/share/missing\"}", CompactFile.class);
+        Assert.assertNull(file.getPath());
+    }
+}
@@ -0,0 +1,87 @@
+package com.noofinc.dsm.webapi.client.filestation.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class PageSpliteratorTest {
+
+    private static final int TOTAL = 95;
+
+    private final List<Integer> requestedOffsets = new ArrayList<>();
+
+    private CompletableFuture<PaginatedList<Integer>> fetchPage(PaginationAndSorting page) {
+        requestedOffsets.add(page.getOffset());
+        int end = Math.min(TOTAL, page.getOffset() + page.getLimit());
+        List<Integer> elements = IntStream.range(page.getOffset(), end).boxed().collect(Collectors.toList());
+        return CompletableFuture.completedFuture(new PaginatedList<>(TOTAL, page.getOffset(), elements));
+    }
+
+    @Test
+    public void testAllElementsInOrder() {
+        StreamOptions options = StreamOptions.createBuilder().pageSize(10).maxPages(3).build();
+        try (Stream<Integer> stream = PageSpliterator.stream(this::fetchPage, options)) {
+            Assert.assertEquals(IntStream.range(0, TOTAL).boxed().collect(Collectors.toList()), stream.collect(Collectors.toList()));
+        }
+        Assert.assertEquals(IntStream.range(0, 10).map(i -> i * 10).boxed().collect(Collectors.toList()), requestedOffsets);
+    }
+
+    @Test
+    public void testPagesAreRequestedAheadWithinTheBound() {
+        StreamOptions options = StreamOptions.createBuilder().pageSize(10).maxPages(3).build();
+        Iterator<Integer> iterator = PageSpliterator.stream(this::fetchPage, options).iterator();
+
+        iterator.next();
+        // The page being consumed and two prefetched ones
+        Assert.assertEquals(3, requestedOffsets.size());
+        for (int i = 1; i < 10; i++) {
+            iterator.next();
+        }
+        Assert.assertEquals(3, requestedOffsets.size());
+        iterator.next();
+        Assert.assertEquals(4, requestedOffsets.size());
+    }
+
+    @Test
+    public void testNothingIsRequestedBeforeConsumption() {
+        Stream<Integer> stream = PageSpliterator.stream(this::fetchPage, StreamOptions.getDefaultStreamOptions());
+        Assert.assertTrue(requestedOffsets.isEmpty());
+        Assert.assertEquals(Integer.valueOf(0), stream.findFirst().get());
+        Assert.assertEquals(1, requestedOffsets.size());
+    }
+
+    @Test
+    public void testCloseCancelsPrefetchedPages() {
+        StreamOptions options = StreamOptions.createBuilder().pageSize(10).maxPages(4).build();
+        List<CompletableFuture<PaginatedList<Integer>>> inFlight = new ArrayList<>();
+        Stream<Integer> stream = PageSpliterator.stream(page -> {
+            if(page.getOffset() == 0) {
+                return fetchPage(page);
+            }
+            CompletableFuture<PaginatedList<Integer>> future = new CompletableFuture<>();
+            inFlight.add(future);
+            return future;
+        }, options);
+
+        stream.iterator().next();
+        stream.close();
+        Assert.assertEquals(3, inFlight.size());
+        Assert.assertTrue(inFlight.stream().allMatch(CompletableFuture::isCancelled));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailedPageIsRethrown() {
+        PageSpliterator.stream(page -> {
+            CompletableFuture<PaginatedList<Integer>> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("failed"));
+            return future;
+        }, StreamOptions.getDefaultStreamOptions()).count();
+    }
+}
@@ -0,0 +1,86 @@
+package com.noofinc.dsm.webapi.client.filestation.copymove;
+
+import com.noofinc.dsm.webapi.client.core.exception.DsmWebApiErrorException;
+import com.noofinc.dsm.webapi.client.filestation.common.OverwriteBehavior;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.StubTaskApi;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CopyMoveBatchTest {
+
+    private static final int MAX_CONCURRENT_TASKS = 3;
+
+    private StubTaskApi copyMove;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer();
+        copyMove = new StubTaskApi("SYNO.FileStation.CopyMove", "copy-", 1000,
+                ",\"processed_size\":0,\"total\":0,\"path\":\"/share/src\",\"dest_folder_path\":\"/share/dest\"").register(server);
+        context = StubDsmContext.create(server, StubTaskApi.properties("dsm.webapi.copyMove", MAX_CONCURRENT_TASKS));
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testPathsArePackedIntoConcurrentTasks() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            paths.add("/share/src/file-" + i);
+        }
+        List<Double> progress = new CopyOnWriteArrayList<>();
+        TaskBatchResult result = context.getBean(CopyMoveService.class).copyAllAsync(paths, "/share/dest", OverwriteBehavior.OVERWRITE, progress::add).join();
+
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(100, result.getPathCount());
+        Assert.assertEquals(result.getTaskCount(), copyMove.getTaskCount());
+        Assert.assertTrue("Expected several paths per task, got " + result.getTaskCount() + " tasks", result.getTaskCount() < 20);
+        Assert.assertTrue(result.getTaskCount() > MAX_CONCURRENT_TASKS);
+        // Tasks start concurrently, each path once
+        Assert.assertEquals(paths.size(), copyMove.getStartedPaths().size());
+        Assert.assertEquals(new HashSet<>(paths), new HashSet<>(copyMove.getStartedPaths()));
+        Assert.assertTrue("Expected at most " + MAX_CONCURRENT_TASKS + " tasks at a time, got " + copyMove.getMaxRunningCount(),
+                copyMove.getMaxRunningCount() <= MAX_CONCURRENT_TASKS);
+        Assert.assertEquals(0, copyMove.getRunningCount());
+        Assert.assertEquals(1, progress.get(progress.size() - 1), 0);
+        for (int i = 1; i < progress.size(); i++) {
+            Assert.assertTrue(progress.get(i) > progress.get(i - 1));
+        }
+        Assert.assertTrue(result.getElapsedMillis() > 0);
+        Assert.assertEquals(100 * 1000d / result.getElapsedMillis(), result.getPathsPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void testFailuresArePerPath() {
+        List<String> paths = Arrays.asList("/share/src/a", StubTaskApi.MISSING_PATH, "/share/src/b");
+        TaskBatchResult result = context.getBean(CopyMoveService.class).moveAll(paths, "/share/dest", OverwriteBehavior.SKIP);
+
+        Assert.assertFalse(result.isSuccessful());
+        Assert.assertEquals(Arrays.asList(StubTaskApi.MISSING_PATH), new ArrayList<>(result.getFailures().keySet()));
+        Assert.assertEquals(408, ((DsmWebApiErrorException) result.getFailures().get(StubTaskApi.MISSING_PATH)).getError().getCode());
+        // Refused along with the missing path, then started without it
+        Assert.assertEquals(Arrays.asList("/share/src/a", "/share/src/b"), copyMove.getStartedPaths());
+        Assert.assertEquals(1, result.getTaskCount());
+        Assert.assertTrue(result.isSuccessful("/share/src/a"));
+    }
+}
@@ -32,6 +32,14 @@ public class CopyMoveServiceTest extends AbstractTest {
         Assert.assertNotNull(fileListService.getFile("/noofinc-ws-it/test-2/test-text-file2.txt"));
     }
 
+    @Test
+    public void testCopyAsync() throws Exception {
+        CopyMoveStatus status = copyMoveService.copyAsync("/noofinc-ws-it/test-1/test-text-file2.txt", "/noofinc-ws-it/test-2", OverwriteBehavior.OVERWRITE).get();
+        Assert.assertTrue(status.isFinished());
+        Assert.assertNotNull(fileListService.getFile("/noofinc-ws-it/test-1/test-text-file2.txt"));
+        Assert.assertNotNull(fileListService.getFile("/noofinc-ws-it/test-2/test-text-file2.txt"));
+    }
+
     @Test
     public void testSynchronousMoveDirectory() {
         Assert.assertNotNull(fileListService.getFile("/noofinc-ws-it/test-1"));
@@ -0,0 +1,116 @@
+package com.noofinc.dsm.webapi.client.filestation.delete;
+
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.filestation.task.TaskBatchResult;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.StubTaskApi;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DeleteBatchTest {
+
+    private static final int MAX_CONCURRENT_TASKS = 3;
+
+    private final AtomicInteger searchPolls = new AtomicInteger();
+
+    private StubTaskApi delete;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer().on("SYNO.FileStation.Search", "list", this::searchList);
+        delete = new StubTaskApi("SYNO.FileStation.Delete", "delete-", 900, ",\"processed_num\":0,\"total\":0,\"path\":\"/share/src\"").register(server);
+        context = StubDsmContext.create(server, StubTaskApi.properties("dsm.webapi.delete", MAX_CONCURRENT_TASKS));
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testSynchronousDeleteWaitsForTheTask() {
+        context.getBean(DeleteService.class).synchronousDelete("/share/src/a", true, Optional.empty());
+
+        Assert.assertEquals(Arrays.asList("/share/src/a"), delete.getStartedPaths());
+        Assert.assertTrue(delete.getPollCount("delete-1") >= 3);
+    }
+
+    @Test
+    public void testNestedPathsAreLeftToTheirFolderWhenRecursive() {
+        List<String> paths = Arrays.asList("/share/src/a", "/share/src/a/b", "/share/src/ab", "/share/src/a/b/c", "/share/src/a");
+        TaskBatchResult result = context.getBean(DeleteService.class).deleteAll(paths, true);
+
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(2, result.getPathCount());
+        Assert.assertEquals(Arrays.asList("/share/src/a", "/share/src/ab"), delete.getStartedPaths());
+    }
+
+    @Test
+    public void testPathsAreReadAsTasksStart() {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger readAtFirstStart = new AtomicInteger(-1);
+        delete.onStart(() -> readAtFirstStart.compareAndSet(-1, read.get()));
+        List<Double> progress = new CopyOnWriteArrayList<>();
+        TaskBatchResult result = context.getBean(DeleteService.class).deleteAllAsync(IntStream.range(0, 1000)
+                .mapToObj(i -> "/share/src/file-" + i)
+                .peek(path -> read.incrementAndGet()), false, progress::add).join();
+
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(1000, result.getPathCount());
+        Assert.assertEquals(1000, delete.getStartedPaths().size());
+        Assert.assertTrue("Expected the first task to start before all paths were read, " + readAtFirstStart.get() + " were", readAtFirstStart.get() < 1000);
+        Assert.assertTrue("Expected at most " + MAX_CONCURRENT_TASKS + " tasks at a time, got " + delete.getMaxRunningCount(),
+                delete.getMaxRunningCount() <= MAX_CONCURRENT_TASKS);
+        Assert.assertEquals(1, progress.get(progress.size() - 1), 0);
+    }
+
+    @Test
+    public void testSearchResultsAreDeletedOnceTheSearchIsFinished() {
+        TaskBatchResult result = context.getBean(DeleteService.class).deleteSearchResults("search-1", false);
+
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(5, result.getPathCount());
+        Assert.assertEquals(new HashSet<>(hits()), new HashSet<>(delete.getStartedPaths()));
+        Assert.assertTrue(searchPolls.get() > 2);
+        // Read page by page rather than all at once
+        String query = server.getLastQuery("SYNO.FileStation.Search", "list");
+        Assert.assertTrue(query, query.contains("limit=" + StreamOptions.DEFAULT_PAGE_SIZE));
+    }
+
+    private String searchList(Map<String, String> parameters) {
+        // The search is over at the third poll
+        boolean finished = searchPolls.incrementAndGet() >= 3;
+        int offset = Integer.parseInt(parameters.get("offset"));
+        int limit = Integer.parseInt(parameters.get("limit"));
+        List<String> found = finished ? hits() : hits().subList(0, 2);
+        String files = found.stream()
+                .skip(offset)
+                .limit(limit < 0 ? Long.MAX_VALUE : limit)
+                .map(path -> "{\"isdir\":false,\"name\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\",\"path\":\"" + path + "\"}")
+                .collect(Collectors.joining(","));
+        return "{\"data\":{\"files\":[" + files + "],\"finished\":" + finished + ",\"offset\":" + offset + ",\"total\":" + found.size() + "},\"success\":true}";
+    }
+
+    private static List<String> hits() {
+        return IntStream.range(0, 5).mapToObj(i -> "/share/found/hit-" + i).collect(Collectors.toList());
+    }
+}
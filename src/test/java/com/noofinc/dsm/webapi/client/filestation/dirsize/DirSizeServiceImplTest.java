@@ -20,6 +20,15 @@ public class DirSizeServiceImplTest extends AbstractTest {
         Assert.assertEquals(147844L, dirSizeResult.getTotalByteSize());
     }
 
+    @Test
+    public void testDirSizeAsync() throws Exception {
+        DirSizeResult dirSizeResult = dirSizeService.dirSizeAsync("/noofinc-ws-it/").get();
+        Assert.assertEquals(true, dirSizeResult.isFinished());
+        Assert.assertEquals(4, dirSizeResult.getNumberOfDirectories());
+        Assert.assertEquals(7, dirSizeResult.getNumberOfFiles());
+        Assert.assertEquals(147844L, dirSizeResult.getTotalByteSize());
+    }
+
     @Test
     public void testNotExistingDir() throws Exception {
         DirSizeResult dirSizeResult = dirSizeService.synchronousDirSize("/noofinc-ws-it/not-existing");
@@ -0,0 +1,73 @@
+package com.noofinc.dsm.webapi.client.filestation.favorite;
+
+import com.noofinc.dsm.webapi.client.filestation.common.PaginationAndSorting;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class FavoriteStreamTest {
+
+    private static final int FAVORITES = 5;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer().on("SYNO.FileStation.Favorite", "list", this::list);
+        context = StubDsmContext.create(server);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testStreamSendsNoStatusFilter() {
+        List<String> names = context.getBean(FavoriteService.class).stream(StreamOptions.createBuilder().pageSize(2).build())
+                .map(Favorite::getName)
+                .collect(Collectors.toList());
+        Assert.assertEquals(FAVORITES, names.size());
+
+        String query = server.getLastQuery("SYNO.FileStation.Favorite", "list");
+        Assert.assertTrue(query, query.contains("limit=2"));
+        Assert.assertFalse(query, query.contains("status_filter"));
+    }
+
+    @Test
+    public void testListSendsPresentStatusFilter() {
+        FavoriteService favoriteService = context.getBean(FavoriteService.class);
+        PaginationAndSorting paginationAndSorting = new PaginationAndSorting(0, 0, PaginationAndSorting.Sort.NAME, PaginationAndSorting.SortDirection.ASC);
+
+        favoriteService.list(paginationAndSorting, Optional.empty());
+        Assert.assertFalse(server.getLastQuery("SYNO.FileStation.Favorite", "list").contains("status_filter"));
+
+        favoriteService.list(paginationAndSorting, Optional.of("broken"));
+        Assert.assertTrue(server.getLastQuery("SYNO.FileStation.Favorite", "list").contains("status_filter=broken"));
+    }
+
+    private String list(Map<String, String> parameters) {
+        int offset = Integer.parseInt(parameters.get("offset"));
+        int limit = Integer.parseInt(parameters.get("limit"));
+        int end = limit == 0 ? FAVORITES : Math.min(FAVORITES, offset + limit);
+        List<String> favorites = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            favorites.add("{\"name\":\"favorite-" + i + "\",\"path\":\"/share/folder-" + i + "\",\"status\":\"valid\"}");
+        }
+        return "{\"data\":{\"favorites\":[" + String.join(",", favorites) + "],\"offset\":" + offset + ",\"total\":" + FAVORITES + "},\"success\":true}";
+    }
+}
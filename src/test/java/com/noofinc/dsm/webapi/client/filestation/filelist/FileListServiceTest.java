@@ -1,6 +1,7 @@
 package com.noofinc.dsm.webapi.client.filestation.filelist;
 
 import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.StreamOptions;
 import com.noofinc.dsm.webapi.client.AbstractTest;
 import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
 import org.junit.Assert;
@@ -9,6 +10,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FileListServiceTest extends AbstractTest {
 
@@ -32,6 +36,30 @@ public class FileListServiceTest extends AbstractTest {
         List<File> list = fileListService.list("/noofinc-ws-it/brol");
     }
 
+    @Test
+    public void testListAsync() throws Exception {
+        List<File> list = fileListService.listAsync("/noofinc-ws-it").get();
+        Assert.assertEquals(4, list.size());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        StreamOptions options = StreamOptions.createBuilder().pageSize(1).maxPages(2).build();
+        try (Stream<File> files = fileListService.stream("/noofinc-ws-it", options)) {
+            Assert.assertEquals(fileListService.list("/noofinc-ws-it").stream().map(File::getPath).collect(Collectors.toList()),
+                    files.map(File::getPath).collect(Collectors.toList()));
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testListAsyncWrongName() throws Throwable {
+        try {
+            fileListService.listAsync("/noofinc-ws-it/brol").join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
     @Test
     public void testGetFilesWrongName() {
         List<File> files = fileListService.getFiles(Arrays.asList("/noofinc-ws-it/test-1", "/noofinc-ws-it/brol"));
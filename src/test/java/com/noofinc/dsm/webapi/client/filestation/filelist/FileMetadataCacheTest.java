@@ -0,0 +1,238 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.OverwriteBehavior;
+import com.noofinc.dsm.webapi.client.filestation.copymove.CopyMoveService;
+import com.noofinc.dsm.webapi.client.filestation.createfolder.CreateFolderService;
+import com.noofinc.dsm.webapi.client.filestation.rename.RenameService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.StubTaskApi;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class FileMetadataCacheTest {
+
+    private final Set<String> paths = new ConcurrentSkipListSet<>(Arrays.asList("/share", "/share/a", "/share/b"));
+    private final AtomicInteger getInfoCount = new AtomicInteger();
+    private final AtomicInteger listCount = new AtomicInteger();
+    private volatile String lastGetInfoPaths;
+
+    private StubDsmServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.List", "getinfo", this::getInfo)
+                .on("SYNO.FileStation.List", "list", this::list)
+                .on("SYNO.FileStation.Rename", "rename", this::rename)
+                .on("SYNO.FileStation.CreateFolder", "create", this::create);
+        new StubTaskApi("SYNO.FileStation.CopyMove", "copy-", 1000, ",\"path\":\"/share/a\",\"dest_folder_path\":\"/share/dest\"").register(server);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testRepeatedLookupsAreServedFromCache() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 5000))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            Assert.assertEquals("a", fileListService.getFile("/share/a").getName());
+            Assert.assertEquals("a", fileListService.getFile("/share/a/").getName());
+            Assert.assertEquals(1, getInfoCount.get());
+
+            // Only the missing path is asked for, and the results keep the input order
+            List<File> files = fileListService.getFiles(Arrays.asList("/share/b", "/share/a"));
+            Assert.assertEquals(Arrays.asList("/share/b", "/share/a"), files.stream().map(File::getPath).collect(Collectors.toList()));
+            Assert.assertEquals(2, getInfoCount.get());
+            Assert.assertEquals("/share/b", lastGetInfoPaths);
+
+            FileMetadataCache.Stats stats = context.getBean(FileMetadataCache.class).getStats();
+            Assert.assertEquals(2, stats.getHitCount());
+            Assert.assertEquals(2, stats.getMissCount());
+        }
+    }
+
+    @Test
+    public void testMissingPathsAreCachedForTheNegativeTtl() throws Exception {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 200))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            Assert.assertNull(fileListService.getFile("/share/c"));
+            Assert.assertNull(fileListService.getFile("/share/c"));
+            Assert.assertEquals(1, getInfoCount.get());
+            Assert.assertEquals(1, context.getBean(FileMetadataCache.class).getStats().getNegativeHitCount());
+
+            paths.add("/share/c");
+            Thread.sleep(300);
+            Assert.assertNotNull(fileListService.getFile("/share/c"));
+            Assert.assertEquals(2, getInfoCount.get());
+        }
+    }
+
+    @Test
+    public void testWritesAreReadBack() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 5000))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            Assert.assertNull(fileListService.getFile("/share/d"));
+            Assert.assertNull(fileListService.getFile("/share/d/e"));
+            Assert.assertEquals(Arrays.asList("a", "b"), names(fileListService.list("/share")));
+            Assert.assertEquals(Arrays.asList("a", "b"), names(fileListService.list("/share")));
+            Assert.assertEquals(1, listCount.get());
+
+            context.getBean(CreateFolderService.class).createFolder("/share/d", "e", true);
+            Assert.assertEquals("e", fileListService.getFile("/share/d/e").getName());
+            Assert.assertEquals("d", fileListService.getFile("/share/d").getName());
+            Assert.assertEquals(Arrays.asList("a", "b", "d"), names(fileListService.list("/share")));
+
+            context.getBean(RenameService.class).rename("/share/a", "z");
+            Assert.assertEquals(Arrays.asList("/share/z"), fileListService.getFiles(Arrays.asList("/share/a", "/share/z")).stream().map(File::getPath).collect(Collectors.toList()));
+            Assert.assertEquals(Arrays.asList("b", "d", "z"), names(fileListService.listAsync("/share").join()));
+            Assert.assertEquals(3, listCount.get());
+        }
+    }
+
+    @Test
+    public void testInvalidationCoversTheSubtreeOnly() {
+        paths.addAll(Arrays.asList("/share/a/x", "/share/a/x/y", "/share/ab"));
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 5000))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            List<String> cached = Arrays.asList("/share/a", "/share/a/x", "/share/a/x/y", "/share/ab", "/share/b");
+            fileListService.getFiles(cached);
+            Assert.assertEquals(1, getInfoCount.get());
+
+            context.getBean(FileMetadataCache.class).invalidate(Arrays.asList("/share/a/x", "/share/b"));
+            Assert.assertEquals(5, fileListService.getFiles(cached).size());
+            // The parent of the invalidated folder, its subtree and the other path, not the sibling sharing its prefix
+            Assert.assertEquals(2, getInfoCount.get());
+            Assert.assertEquals("/share/a,/share/a/x,/share/a/x/y,/share/b", lastGetInfoPaths);
+        }
+    }
+
+    @Test
+    public void testCopyIntoADestinationWithATrailingSlashIsReadBack() {
+        paths.add("/share/dest");
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 5000))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            Assert.assertEquals(Collections.emptyList(), names(fileListService.list("/share/dest")));
+            Assert.assertNull(fileListService.getFile("/share/dest/a"));
+
+            context.getBean(CopyMoveService.class).startCopy("/share/a", "/share/dest/", OverwriteBehavior.OVERWRITE);
+            paths.add("/share/dest/a");
+            Assert.assertEquals(Arrays.asList("a"), names(fileListService.list("/share/dest")));
+            Assert.assertEquals("a", fileListService.getFile("/share/dest/a").getName());
+            Assert.assertEquals(2, listCount.get());
+        }
+    }
+
+    @Test
+    public void testRootInvalidationCoversEverything() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(100, 5000))) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            FileMetadataCache cache = context.getBean(FileMetadataCache.class);
+            File share = fileListService.getFile("/share");
+            fileListService.getFile("/share/a");
+            Assert.assertEquals(2, getInfoCount.get());
+
+            cache.invalidate("/");
+            fileListService.getFile("/share/a");
+            Assert.assertEquals(3, getInfoCount.get());
+
+            // A share is a child of the root
+            cache.putListing("/", Collections.singletonList(share), cache.getGeneration());
+            Assert.assertNotNull(cache.getListing("/"));
+            cache.invalidate("/share");
+            Assert.assertNull(cache.getListing("/"));
+        }
+    }
+
+    @Test
+    public void testEntriesAreEvictedBeyondMaxEntries() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, cacheProperties(10, 5000))) {
+            List<String> many = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                paths.add("/share/file-" + i);
+                many.add("/share/file-" + i);
+            }
+            Assert.assertEquals(50, context.getBean(FileListService.class).getFiles(many).size());
+            Assert.assertTrue(context.getBean(FileMetadataCache.class).getStats().getEvictionCount() >= 40);
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            fileListService.getFile("/share/a");
+            fileListService.getFile("/share/a");
+            Assert.assertEquals(2, getInfoCount.get());
+        }
+    }
+
+    private static Map<String, Object> cacheProperties(int maxEntries, long negativeTtl) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.metadataCache.enabled", "true");
+        properties.put("dsm.webapi.metadataCache.maxEntries", Integer.toString(maxEntries));
+        properties.put("dsm.webapi.metadataCache.negativeTtl", Long.toString(negativeTtl));
+        return properties;
+    }
+
+    private static List<String> names(List<File> files) {
+        return files.stream().map(File::getName).collect(Collectors.toList());
+    }
+
+    private String getInfo(Map<String, String> parameters) {
+        getInfoCount.incrementAndGet();
+        lastGetInfoPaths = parameters.get("path");
+        List<String> entries = new ArrayList<>();
+        for (String path : parameters.get("path").split(",")) {
+            entries.add(paths.contains(path) ? file(path) : "{\"code\":408,\"path\":\"" + path + "\"}");
+        }
+        return "{\"data\":{\"files\":[" + String.join(",", entries) + "]},\"success\":true}";
+    }
+
+    private String list(Map<String, String> parameters) {
+        listCount.incrementAndGet();
+        String prefix = parameters.get("folder_path") + "/";
+        List<String> children = paths.stream()
+                .filter(path -> path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0)
+                .map(FileMetadataCacheTest::file)
+                .collect(Collectors.toList());
+        return "{\"data\":{\"files\":[" + String.join(",", children) + "],\"offset\":0,\"total\":" + children.size() + "},\"success\":true}";
+    }
+
+    private String rename(Map<String, String> parameters) {
+        String path = parameters.get("path");
+        String renamed = path.substring(0, path.lastIndexOf('/') + 1) + parameters.get("name");
+        paths.remove(path);
+        paths.add(renamed);
+        return "{\"data\":{\"files\":[" + file(renamed) + "]},\"success\":true}";
+    }
+
+    private String create(Map<String, String> parameters) {
+        String parent = parameters.get("folder_path");
+        String path = parent + "/" + parameters.get("name");
+        paths.add(parent);
+        paths.add(path);
+        return "{\"data\":{\"folders\":[" + file(path) + "]},\"success\":true}";
+    }
+
+    private static String file(String path) {
+        return "{\"isdir\":false,\"name\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\",\"path\":\"" + path + "\"}";
+    }
+}
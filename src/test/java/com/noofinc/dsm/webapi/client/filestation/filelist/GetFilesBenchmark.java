@@ -0,0 +1,68 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks 100k paths (5 ms per getinfo call) one call per path, extrapolated from the first 1000, then chunked at
+ * increasing concurrency.
+ */
+public class GetFilesBenchmark {
+
+    private static final int PATHS = 100_000;
+    private static final int SAMPLE = 1_000;
+
+    @Test
+    public void compareGetFiles() throws Exception {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < PATHS; i++) {
+            paths.add("/share/reconciliation/2015/10/file-" + i + ".dat");
+        }
+        try (StubDsmServer server = new StubDsmServer().on("SYNO.FileStation.List", "getinfo", GetFilesBenchmark::getInfo).latency(5)) {
+            try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+                FileListService fileListService = context.getBean(FileListService.class);
+                fileListService.getFile(paths.get(0));
+                long begin = System.nanoTime();
+                for (String path : paths.subList(0, SAMPLE)) {
+                    fileListService.getFile(path);
+                }
+                long millis = (System.nanoTime() - begin) / 1_000_000 * (PATHS / SAMPLE);
+                System.out.println(String.format("%-22s %7d ms (extrapolated)", "one call per path", millis));
+            }
+            for (int maxConcurrentRequests : new int[]{1, 4, 8}) {
+                Map<String, Object> properties = new HashMap<>();
+                properties.put("dsm.webapi.getinfo.maxConcurrentRequests", Integer.toString(maxConcurrentRequests));
+                try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+                    FileListService fileListService = context.getBean(FileListService.class);
+                    fileListService.getFile(paths.get(0));
+                    server.resetRequestCount();
+                    long begin = System.nanoTime();
+                    int found = fileListService.getFiles(paths).size();
+                    long millis = (System.nanoTime() - begin) / 1_000_000;
+                    Assert.assertEquals(PATHS, found);
+                    System.out.println(String.format("%-22s %7d ms, %d requests", "chunked (" + maxConcurrentRequests + " at a time)", millis, server.getRequestCount()));
+                }
+            }
+        }
+    }
+
+    private static String getInfo(Map<String, String> parameters) {
+        StringBuilder json = new StringBuilder("{\"data\":{\"files\":[");
+        String[] paths = parameters.get("path").split(",");
+        for (int i = 0; i < paths.length; i++) {
+            if(i > 0) {
+                json.append(',');
+            }
+            json.append("{\"isdir\":false,\"name\":\"").append(paths[i].substring(paths[i].lastIndexOf('/') + 1)).append("\",\"path\":\"").append(paths[i]).append("\"}");
+        }
+        return json.append("]},\"success\":true}").toString();
+    }
+}
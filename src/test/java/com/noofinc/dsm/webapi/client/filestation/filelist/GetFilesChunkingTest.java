@@ -0,0 +1,115 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.core.QueryStringEncoder;
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.filestation.common.PathChunks;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GetFilesChunkingTest {
+
+    private static final int MAX_PATH_LENGTH = 2000;
+    private static final int MAX_CONCURRENT_REQUESTS = 3;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger longestPathParameter = new AtomicInteger();
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer().on("SYNO.FileStation.List", "getinfo", this::getInfo);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.getinfo.maxPathLength", Integer.toString(MAX_PATH_LENGTH));
+        properties.put("dsm.webapi.getinfo.maxConcurrentRequests", Integer.toString(MAX_CONCURRENT_REQUESTS));
+        context = StubDsmContext.create(server, properties);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testChunksAreMergedInInputOrder() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            paths.add(i % 7 == 0 ? "/share/missing-" + i : "/share/dir \u00E9t\u00E9/file-" + i);
+        }
+        List<File> files = context.getBean(FileListService.class).getFiles(paths);
+
+        int expected = 0;
+        for (String path : paths) {
+            if(!path.contains("missing")) {
+                Assert.assertEquals(path, files.get(expected++).getPath());
+            }
+        }
+        Assert.assertEquals(expected, files.size());
+        Assert.assertTrue(longestPathParameter.get() <= MAX_PATH_LENGTH);
+        Assert.assertTrue("Expected at most " + MAX_CONCURRENT_REQUESTS + " requests at a time, got " + maxInFlight.get(), maxInFlight.get() <= MAX_CONCURRENT_REQUESTS);
+        Assert.assertTrue(maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void testAsyncChunksAreMergedInInputOrder() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            paths.add("/share/file-" + i);
+        }
+        List<File> files = context.getBean(FileListService.class).getFilesAsync(paths).join();
+        Assert.assertEquals(paths.size(), files.size());
+        for (int i = 0; i < paths.size(); i++) {
+            Assert.assertEquals(paths.get(i), files.get(i).getPath());
+        }
+    }
+
+    @Test
+    public void testChunk() {
+        Assert.assertEquals(Arrays.asList(Arrays.asList("/a", "/b"), Arrays.asList("/c")), PathChunks.chunk(Arrays.asList("/a", "/b", "/c"), 11));
+        Assert.assertEquals(Arrays.asList(Arrays.asList("/a"), Arrays.asList("/too-long"), Arrays.asList("/b")), PathChunks.chunk(Arrays.asList("/a", "/too-long", "/b"), 6));
+        Assert.assertTrue(PathChunks.chunk(new ArrayList<>(), 6).isEmpty());
+    }
+
+    private String getInfo(Map<String, String> parameters) {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String pathParameter = parameters.get("path");
+        longestPathParameter.accumulateAndGet(QueryStringEncoder.encodedLength(pathParameter), Math::max);
+        StringBuilder json = new StringBuilder("{\"data\":{\"files\":[");
+        String[] paths = pathParameter.split(",");
+        for (int i = 0; i < paths.length; i++) {
+            if(i > 0) {
+                json.append(',');
+            }
+            String path = paths[i];
+            if(path.contains("missing")) {
+                json.append("{\"code\":408,\"path\":\"").append(path).append("\"}");
+            } else {
+                json.append("{\"isdir\":false,\"name\":\"").append(path.substring(path.lastIndexOf('/') + 1)).append("\",\"path\":\"").append(path).append("\"}");
+            }
+        }
+        inFlight.decrementAndGet();
+        return json.append("]},\"success\":true}").toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.SyntheticTree;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.FileVisitResult;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crawls a synthetic tree (4 levels of 6 directories and 40 files each, 5 ms per list call) with a plain recursive
+ * list, then with the tree walker at increasing list concurrency.
+ */
+public class RemoteTreeWalkerBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Test
+    public void compareWalks() throws Exception {
+        try (StubDsmServer server = new StubDsmServer()) {
+            SyntheticTree tree = new SyntheticTree("/share", 4, 6, 40, 5).serveOn(server);
+            System.out.println(String.format("%d entries, %d directories", tree.getEntryCount(), 1 + 6 + 36 + 216));
+
+            run(server, tree, "recursive list", 1, true);
+            for (int maxConcurrentLists : new int[]{1, 4, 16, 32}) {
+                run(server, tree, "walker (" + maxConcurrentLists + " lists)", maxConcurrentLists, false);
+            }
+        }
+    }
+
+    private void run(StubDsmServer server, SyntheticTree tree, String name, int maxConcurrentLists, boolean recursive) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.walk.maxConcurrentLists", Integer.toString(maxConcurrentLists));
+        properties.put("dsm.webapi.walk.pageSize", Integer.toString(PAGE_SIZE));
+        try (AnnotationConfigApplicationContext context = StubDsmContext.create(server, properties)) {
+            FileListService fileListService = context.getBean(FileListService.class);
+            RemoteTreeWalker walker = context.getBean(RemoteTreeWalker.class);
+            fileListService.getFile("/share");
+            tree.reset();
+
+            AtomicLong entries = new AtomicLong();
+            long begin = System.nanoTime();
+            if(recursive) {
+                listRecursively(fileListService, "/share", entries);
+            } else {
+                walker.walk("/share", new SimpleRemoteFileVisitor() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(File directory, int depth) {
+                        if(depth > 0) {
+                            entries.incrementAndGet();
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(File file, int depth) {
+                        entries.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+            long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+            Assert.assertEquals(tree.getEntryCount(), entries.get());
+            System.out.println(String.format("%-25s %7d ms  %9.0f entries/s  %4d list calls  max %2d concurrent",
+                    name, elapsedMillis, entries.get() * 1000d / elapsedMillis, tree.getListCalls(), tree.getMaxConcurrentLists()));
+        }
+    }
+
+    private void listRecursively(FileListService fileListService, String path, AtomicLong entries) {
+        for (File file : fileListService.list(path)) {
+            entries.incrementAndGet();
+            if(file.isDirectory()) {
+                listRecursively(fileListService, file.getPath(), entries);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.SyntheticTree;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.FileVisitResult;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RemoteTreeWalkerTest {
+
+    private StubDsmServer server;
+
+    private SyntheticTree tree;
+
+    private AnnotationConfigApplicationContext context;
+
+    private RemoteTreeWalker walker;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer();
+        tree = new SyntheticTree("/share", 3, 4, 5, 5).serveOn(server);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.walk.maxConcurrentLists", "3");
+        properties.put("dsm.webapi.walk.pageSize", "4");
+        context = StubDsmContext.create(server, properties);
+        walker = context.getBean(RemoteTreeWalker.class);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testWholeTreeIsVisited() {
+        Set<String> visited = ConcurrentHashMap.newKeySet();
+        Set<String> postVisited = ConcurrentHashMap.newKeySet();
+        walker.walk("/share", new SimpleRemoteFileVisitor() {
+            @Override
+            public FileVisitResult preVisitDirectory(File directory, int depth) {
+                Assert.assertTrue(visited.add(directory.getPath()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(File file, int depth) {
+                Assert.assertFalse(file.isDirectory());
+                Assert.assertTrue(visited.add(file.getPath()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(File directory, RuntimeException exception) {
+                Assert.assertNull(exception);
+                for (int i = 0; directory.getPath().split("/").length < 4 && i < 4; i++) {
+                    // Every sub directory is done before its parent
+                    Assert.assertTrue(postVisited.contains(directory.getPath() + "/d" + i));
+                }
+                postVisited.add(directory.getPath());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Assert.assertEquals(tree.getEntryCount() + 1, visited.size());
+        Assert.assertEquals(1 + 4 + 16, postVisited.size());
+        Assert.assertTrue("Too many concurrent lists: " + tree.getMaxConcurrentLists(), tree.getMaxConcurrentLists() <= 3);
+    }
+
+    @Test
+    public void testSkipSubtreeAndMaxDepth() {
+        AtomicInteger entries = new AtomicInteger();
+        walker.walk("/share", 2, new SimpleRemoteFileVisitor() {
+            @Override
+            public FileVisitResult preVisitDirectory(File directory, int depth) {
+                return directory.getName().equals("d0") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(File file, int depth) {
+                Assert.assertTrue(depth <= 2);
+                Assert.assertFalse(file.getPath().startsWith("/share/d0/"));
+                entries.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // Files of the root, then 3 listed directories whose 4 sub directories are at the max depth
+        Assert.assertEquals(5 + 3 * (4 + 5), entries.get());
+    }
+
+    @Test
+    public void testTerminate() {
+        AtomicInteger entries = new AtomicInteger();
+        walker.walk("/share", new SimpleRemoteFileVisitor() {
+            @Override
+            public FileVisitResult visitFile(File file, int depth) {
+                return entries.incrementAndGet() == 10 ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+        });
+        Assert.assertTrue(entries.get() < tree.getEntryCount() / 2);
+    }
+
+    @Test
+    public void testVisitorExceptionsStopTheWalk() {
+        AtomicInteger postVisits = new AtomicInteger();
+        try {
+            walker.walk("/share", new SimpleRemoteFileVisitor() {
+                @Override
+                public FileVisitResult visitFile(File file, int depth) {
+                    if(file.getPath().equals("/share/d1/f2")) {
+                        throw new IllegalStateException("visitor bug");
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(File directory, RuntimeException exception) {
+                    Assert.assertNull(exception);
+                    postVisits.incrementAndGet();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            Assert.fail("Expected the exception of the visitor");
+        } catch (IllegalStateException e) {
+            // Possibly rethrown by the fork/join pool as a copy wrapping the original
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("visitor bug"));
+        }
+        Assert.assertTrue(postVisits.get() < 1 + 4 + 16);
+    }
+}
@@ -0,0 +1,92 @@
+package com.noofinc.dsm.webapi.client.filestation.filelist;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StatAllTest {
+
+    private final AtomicInteger getInfoCount = new AtomicInteger();
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer().on("SYNO.FileStation.List", "getinfo", this::getInfo);
+        context = StubDsmContext.create(server);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testExistsAndStat() {
+        FileListService fileListService = context.getBean(FileListService.class);
+        Assert.assertTrue(fileListService.exists("/share/file"));
+        Assert.assertFalse(fileListService.exists("/share/missing"));
+        Assert.assertEquals("file", fileListService.stat("/share/file").get().getName());
+        Assert.assertFalse(fileListService.stat("/share/missing").isPresent());
+    }
+
+    @Test
+    public void testStatAllIsAFewRoundTrips() {
+        FileListService fileListService = context.getBean(FileListService.class);
+        fileListService.exists("/share/login");
+        server.resetRequestCount();
+        getInfoCount.set(0);
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            paths.add(i % 3 == 0 ? "/share/folder/missing-" + i : "/share/folder/file-" + i);
+        }
+        paths.add("/share/folder/file-1");
+        Map<String, Optional<File>> stats = fileListService.statAll(paths);
+
+        Assert.assertEquals(10_000, stats.size());
+        int i = 0;
+        for (Map.Entry<String, Optional<File>> stat : stats.entrySet()) {
+            Assert.assertEquals(paths.get(i), stat.getKey());
+            Assert.assertEquals(i % 3 != 0, stat.getValue().isPresent());
+            stat.getValue().ifPresent(file -> Assert.assertEquals(stat.getKey(), file.getPath()));
+            i++;
+        }
+        Assert.assertTrue("Expected more than one getinfo chunk, got " + getInfoCount.get(), getInfoCount.get() > 8);
+        Assert.assertTrue("Expected a handful of round trips, got " + server.getRequestCount(), server.getRequestCount() <= getInfoCount.get() / 4);
+    }
+
+    @Test
+    public void testStatAllAsync() {
+        Map<String, Optional<File>> stats = context.getBean(FileListService.class).statAllAsync(Arrays.asList("/share/missing", "/share/file")).join();
+        Assert.assertEquals(Arrays.asList("/share/missing", "/share/file"), new ArrayList<>(stats.keySet()));
+        Assert.assertFalse(stats.get("/share/missing").isPresent());
+        Assert.assertTrue(stats.get("/share/file").isPresent());
+    }
+
+    private String getInfo(Map<String, String> parameters) {
+        getInfoCount.incrementAndGet();
+        List<String> entries = new ArrayList<>();
+        for (String path : parameters.get("path").split(",")) {
+            entries.add(path.contains("missing")
+                    ? "{\"code\":408,\"path\":\"" + path + "\"}"
+                    : "{\"isdir\":false,\"name\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\",\"path\":\"" + path + "\"}");
+        }
+        return "{\"data\":{\"files\":[" + String.join(",", entries) + "]},\"success\":true}";
+    }
+}
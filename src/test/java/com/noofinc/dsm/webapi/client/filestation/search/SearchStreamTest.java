@@ -0,0 +1,133 @@
+package com.noofinc.dsm.webapi.client.filestation.search;
+
+import com.noofinc.dsm.webapi.client.filestation.common.File;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SearchStreamTest {
+
+    private static final int HITS = 10;
+
+    private final AtomicInteger listCount = new AtomicInteger();
+    private final AtomicInteger stopCount = new AtomicInteger();
+    private final AtomicInteger cleanCount = new AtomicInteger();
+
+    private volatile boolean newestFirst;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.Search", "start", parameters -> "{\"data\":{\"taskid\":\"search-1\"},\"success\":true}")
+                .on("SYNO.FileStation.Search", "list", this::list)
+                .on("SYNO.FileStation.Search", "stop", parameters -> {
+                    stopCount.incrementAndGet();
+                    return "{\"success\":true}";
+                })
+                .on("SYNO.FileStation.Search", "clean", parameters -> {
+                    cleanCount.incrementAndGet();
+                    return "{\"success\":true}";
+                });
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.search.maxPollInterval", "100");
+        context = StubDsmContext.create(server, properties);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testHitsAreStreamedWhileTheSearchRuns() {
+        SearchService searchService = context.getBean(SearchService.class);
+        List<String> names = new ArrayList<>();
+        int[] listCountAtFirstHit = new int[1];
+        try (Stream<File> files = searchService.stream("/share", true, SearchCriteria.SearchCriteriaBuilder.create().pattern("hit").build())) {
+            files.forEach(file -> {
+                if(names.isEmpty()) {
+                    listCountAtFirstHit[0] = listCount.get();
+                }
+                names.add(file.getName());
+            });
+        }
+        Assert.assertEquals(names(), names);
+        Assert.assertEquals(1, listCountAtFirstHit[0]);
+        Assert.assertEquals(0, stopCount.get());
+        Assert.assertEquals(1, cleanCount.get());
+    }
+
+    @Test
+    public void testTaskIsCleanedOnceConsumedWithoutClosing() {
+        List<String> names = context.getBean(SearchService.class).stream("/share", true, SearchCriteria.SearchCriteriaBuilder.create().pattern("hit").build())
+                .map(File::getName)
+                .collect(Collectors.toList());
+        Assert.assertEquals(names(), names);
+        Assert.assertEquals(1, cleanCount.get());
+    }
+
+    @Test
+    public void testCloseStopsAndCleansTheTask() {
+        SearchService searchService = context.getBean(SearchService.class);
+        List<File> files;
+        try (Stream<File> stream = searchService.stream("/share", true, SearchCriteria.SearchCriteriaBuilder.create().pattern("hit").build())) {
+            files = stream.limit(3).collect(Collectors.toList());
+        }
+        Assert.assertEquals(3, files.size());
+        Assert.assertEquals(1, stopCount.get());
+        Assert.assertEquals(1, cleanCount.get());
+    }
+
+    @Test
+    public void testHitsMovingInTheSortOrderAreNotMissed() {
+        newestFirst = true;
+        List<String> names = context.getBean(SearchService.class).stream("/share", true, SearchCriteria.SearchCriteriaBuilder.create().pattern("hit").build())
+                .map(File::getName)
+                .sorted()
+                .collect(Collectors.toList());
+        Assert.assertEquals(names(), names);
+    }
+
+    private String list(Map<String, String> parameters) {
+        // Two more hits show up every other poll
+        int found = Math.min(HITS, (listCount.incrementAndGet() + 1) / 2 * 2);
+        List<String> hits = new ArrayList<>(names().subList(0, found));
+        if(newestFirst) {
+            Collections.reverse(hits);
+        }
+        int offset = Integer.parseInt(parameters.get("offset"));
+        int limit = Integer.parseInt(parameters.get("limit"));
+        String files = hits.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(name -> "{\"isdir\":false,\"name\":\"" + name + "\",\"path\":\"/share/" + name + "\"}")
+                .collect(Collectors.joining(","));
+        return "{\"data\":{\"files\":[" + files + "],\"finished\":" + (found == HITS) + ",\"offset\":" + offset + ",\"total\":" + found + "},\"success\":true}";
+    }
+
+    private static List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < HITS; i++) {
+            names.add("hit-" + i);
+        }
+        return names;
+    }
+}
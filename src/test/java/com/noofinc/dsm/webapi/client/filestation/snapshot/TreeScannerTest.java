@@ -0,0 +1,164 @@
+package com.noofinc.dsm.webapi.client.filestation.snapshot;
+
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.StubFileTree;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class TreeScannerTest {
+
+    private StubDsmServer server;
+
+    private StubFileTree tree;
+
+    private AnnotationConfigApplicationContext context;
+
+    private TreeScanner scanner;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer();
+        tree = new StubFileTree("/share").register(server);
+        for (int i = 0; i < 20; i++) {
+            tree.directory("/share/dir-" + i);
+            for (int j = 0; j < 5; j++) {
+                tree.directory("/share/dir-" + i + "/sub-" + j);
+                for (int k = 0; k < 10; k++) {
+                    tree.file("/share/dir-" + i + "/sub-" + j + "/file-" + k, k);
+                }
+            }
+        }
+        context = StubDsmContext.create(server);
+        scanner = context.getBean(TreeScanner.class);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testFirstScanAddsEverything() {
+        try (TreeScan scan = scanner.scan("/share", TreeSnapshot.empty("/share"))) {
+            List<TreeChange> changes = scan.changes().collect(Collectors.toList());
+            Assert.assertEquals(20 + 100 + 1000, changes.size());
+            Assert.assertTrue(changes.stream().allMatch(change -> change.getKind() == TreeChange.Kind.ADDED));
+            Assert.assertEquals(20 + 100 + 1000 + 1, scan.getSnapshot().size());
+        }
+    }
+
+    @Test
+    public void testRepeatScanOnlyListsChangedDirectories() {
+        TreeSnapshot snapshot = scanner.snapshot("/share");
+        tree.file("/share/dir-3/sub-1/new", 42)
+                .delete("/share/dir-7/sub-4/file-2")
+                .delete("/share/dir-8")
+                .directory("/share/dir-9/sub-0/nested")
+                .file("/share/dir-9/sub-0/nested/file", 1)
+                .delete("/share/dir-11/sub-2/file-5")
+                .file("/share/dir-11/sub-2/file-5", 99);
+        tree.resetCounts();
+
+        try (TreeScan scan = scanner.scan("/share", snapshot)) {
+            Set<String> changes = scan.changes().map(TreeChange::toString).collect(Collectors.toCollection(TreeSet::new));
+            Set<String> expected = new TreeSet<>(Arrays.asList(
+                    "ADDED /share/dir-3/sub-1/new",
+                    "DELETED /share/dir-7/sub-4/file-2",
+                    "ADDED /share/dir-9/sub-0/nested",
+                    "ADDED /share/dir-9/sub-0/nested/file",
+                    "MODIFIED /share/dir-11/sub-2/file-5"));
+            expected.add("DELETED /share/dir-8");
+            for (int j = 0; j < 5; j++) {
+                expected.add("DELETED /share/dir-8/sub-" + j);
+                for (int k = 0; k < 10; k++) {
+                    expected.add("DELETED /share/dir-8/sub-" + j + "/file-" + k);
+                }
+            }
+            Assert.assertEquals(expected, changes);
+
+            // The root and the four changed directories, plus the new one
+            Assert.assertEquals(6, scan.getListedDirectoryCount());
+            Assert.assertEquals(6, tree.getListCount());
+            Assert.assertEquals(19 + 95 - 4, scan.getSkippedDirectoryCount());
+            Assert.assertTrue("Expected batched getinfo calls, got " + tree.getGetInfoCount(), tree.getGetInfoCount() <= 4);
+
+            TreeSnapshot next = scan.getSnapshot();
+            Assert.assertEquals(snapshot.size() + 3 - 1 - 56, next.size());
+            Assert.assertEquals(99, next.get("/share/dir-11/sub-2/file-5").get().getSize());
+            Assert.assertFalse(next.get("/share/dir-8").isPresent());
+        }
+    }
+
+    @Test
+    public void testRepeatScanOfAStaticTreeListsNothing() {
+        TreeSnapshot snapshot = scanner.snapshot("/share");
+        tree.resetCounts();
+        try (TreeScan scan = scanner.scan("/share", snapshot)) {
+            Assert.assertEquals(0, scan.changes().count());
+            Assert.assertEquals(0, tree.getListCount());
+            Assert.assertEquals(snapshot.entries().map(TreeSnapshot.Entry::toString).collect(Collectors.toList()),
+                    scan.getSnapshot().entries().map(TreeSnapshot.Entry::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testInPlaceRewritesNeedAFullScan() {
+        TreeSnapshot snapshot = scanner.snapshot("/share");
+        tree.rewrite("/share/dir-5/sub-3/file-1", 1000);
+        try (TreeScan scan = scanner.scan("/share", snapshot)) {
+            Assert.assertEquals(0, scan.changes().count());
+        }
+        try (TreeScan scan = scanner.scan("/share", snapshot, false)) {
+            Assert.assertEquals(Arrays.asList("MODIFIED /share/dir-5/sub-3/file-1"), scan.changes().map(TreeChange::toString).collect(Collectors.toList()));
+            Assert.assertEquals(121, scan.getListedDirectoryCount());
+        }
+    }
+
+    @Test
+    public void testTypeChangeIsDeletedThenAdded() {
+        TreeSnapshot snapshot = scanner.snapshot("/share");
+        tree.delete("/share/dir-2/sub-0").file("/share/dir-2/sub-0", 5);
+        try (TreeScan scan = scanner.scan("/share", snapshot)) {
+            List<TreeChange> changes = scan.changes().collect(Collectors.toList());
+            Assert.assertEquals(12, changes.size());
+            Assert.assertEquals(11, changes.stream().filter(change -> change.getKind() == TreeChange.Kind.DELETED).count());
+            Assert.assertFalse(scan.getSnapshot().get("/share/dir-2/sub-0").get().isDirectory());
+        }
+    }
+
+    @Test
+    public void testSnapshotIsWrittenAndReadBack() throws Exception {
+        TreeSnapshot snapshot = scanner.snapshot("/share");
+        Path file = Files.createTempFile("snapshot", ".gz");
+        try {
+            snapshot.write(file);
+            TreeSnapshot read = TreeSnapshot.read(file);
+            Assert.assertEquals("/share", read.getRoot());
+            Assert.assertEquals(snapshot.entries().map(TreeSnapshot.Entry::toString).collect(Collectors.toList()),
+                    read.entries().map(TreeSnapshot.Entry::toString).collect(Collectors.toList()));
+            Assert.assertTrue(Files.size(file) < 20 * read.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPathOrderKeepsSubtreesContiguous() {
+        List<String> paths = Arrays.asList("/a-b", "/a/b", "/a", "/a/b/c", "/a.b", "/ab");
+        paths.sort(TreeSnapshot.PATH_ORDER);
+        Assert.assertEquals(Arrays.asList("/a", "/a/b", "/a/b/c", "/a-b", "/a.b", "/ab"), paths);
+    }
+}
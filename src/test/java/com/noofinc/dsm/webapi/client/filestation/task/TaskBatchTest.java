@@ -0,0 +1,90 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TaskBatchTest {
+
+    private static final int CHUNKS = 60;
+    private static final int CHECKED_AT = 50;
+
+    private final AtomicInteger taskIds = new AtomicInteger();
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.DirSize", "status", parameters ->
+                        "{\"data\":{\"finished\":true,\"num_dir\":1,\"num_file\":2,\"total_size\":3},\"success\":true}");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.polling.minInterval", "1");
+        context = StubDsmContext.create(server, properties);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testFinishedChunksAreReleased() {
+        List<WeakReference<List<String>>> read = new ArrayList<>();
+        int[] retained = {-1};
+        Iterator<List<String>> chunks = new Iterator<List<String>>() {
+
+            @Override
+            public boolean hasNext() {
+                return read.size() < CHUNKS;
+            }
+
+            @Override
+            public List<String> next() {
+                if(read.size() == CHECKED_AT) {
+                    // With a single lane, every chunk read so far is over
+                    retained[0] = retained(read);
+                }
+                List<String> chunk = IntStream.range(0, 100).mapToObj(i -> "/share/src/file-" + read.size() + "-" + i).collect(Collectors.toList());
+                read.add(new WeakReference<>(chunk));
+                return chunk;
+            }
+        };
+
+        TaskBatchResult result = context.getBean(TaskSupervisor.class).runBatch(TaskType.DIR_SIZE, chunks, 1,
+                chunk -> CompletableFuture.completedFuture("dirsize-" + taskIds.incrementAndGet()),
+                taskId -> CompletableFuture.completedFuture(null), null).join();
+
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(CHUNKS * 100, result.getPathCount());
+        Assert.assertEquals(CHUNKS, result.getTaskCount());
+        Assert.assertEquals("Chunks still referenced after their task was over", 0, retained[0]);
+    }
+
+    private static int retained(List<WeakReference<List<String>>> chunks) {
+        int retained = chunks.size();
+        for (int i = 0; i < 10 && retained > 0; i++) {
+            System.gc();
+            retained = (int) chunks.stream().filter(chunk -> chunk.get() != null).count();
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,99 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import com.noofinc.dsm.webapi.client.filestation.delete.DeleteService;
+import com.noofinc.dsm.webapi.client.filestation.delete.DeleteStatus;
+import com.noofinc.dsm.webapi.client.filestation.search.SearchService;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TaskPollingTest {
+
+    private static final long TASK_DURATION = 4000;
+
+    @Test
+    public void testProgressPredictsCompletion() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        PollingSchedule schedule = new PollingSchedule(100, 5000, 2, 0.2);
+        polls.incrementAndGet();
+        double progress = progress(start)[0];
+        while (progress < 1) {
+            Thread.sleep(schedule.nextDelay(progress));
+            polls.incrementAndGet();
+            progress = progress(start)[0];
+        }
+
+        long latency = System.currentTimeMillis() - (start + TASK_DURATION);
+        // Polling every 100 ms takes 40 calls
+        Assert.assertTrue("Expected at most 4 polls, got " + polls.get(), polls.get() <= 4);
+        Assert.assertTrue("Completion seen " + latency + " ms late", latency < 200);
+    }
+
+    @Test
+    public void testBackOffWithoutProgress() {
+        PollingSchedule schedule = new PollingSchedule(100, 1000, 2, 0.2);
+        long previous = 0;
+        for (int i = 0; i < 10; i++) {
+            long interval = schedule.getInterval();
+            long delay = schedule.nextDelay();
+            // Right after the start, the delay is held down by the elapsed time
+            Assert.assertTrue(delay >= 100 * 0.8 && delay <= interval * 1.2);
+            Assert.assertTrue(interval >= previous && interval <= 1000);
+            previous = interval;
+        }
+        Assert.assertEquals(1000, schedule.getInterval());
+        schedule.reset();
+        Assert.assertEquals(100, schedule.getInterval());
+    }
+
+    @Test
+    public void testCompletionWithoutProgressIsSeenSoon() throws Exception {
+        long duration = 1600;
+        long start = System.currentTimeMillis();
+        // Backing off up to 5 s alone would poll at 0, 100, 300, 700, 1500 then 3100 ms
+        PollingSchedule schedule = new PollingSchedule(100, 5000, 2, 0.2);
+        while (System.currentTimeMillis() - start < duration) {
+            Thread.sleep(schedule.nextDelay());
+        }
+
+        long latency = System.currentTimeMillis() - (start + duration);
+        // A fifth of the elapsed time, give or take the jitter, plus some scheduling slack
+        Assert.assertTrue("Completion seen " + latency + " ms late", latency < duration * 0.2 * 1.2 + 100);
+    }
+
+    @Test
+    public void testTaskStatusPolling() throws Exception {
+        AtomicInteger statusCalls = new AtomicInteger();
+        long[] start = new long[1];
+        try (StubDsmServer server = new StubDsmServer()) {
+            server.on("SYNO.FileStation.Delete", "start", parameters -> {
+                start[0] = System.currentTimeMillis();
+                return "{\"data\":{\"taskid\":\"delete-1\"},\"success\":true}";
+            }).on("SYNO.FileStation.Delete", "status", parameters -> {
+                statusCalls.incrementAndGet();
+                double progress = progress(start[0])[0];
+                return "{\"data\":{\"finished\":" + (progress >= 1) + ",\"processed_num\":0,\"total\":0,\"progress\":" + progress + ",\"path\":\"/share/a\"},\"success\":true}";
+            }).on("SYNO.FileStation.Search", "list", parameters ->
+                    "{\"data\":{\"files\":[],\"finished\":true,\"offset\":0,\"total\":0},\"success\":true}");
+            try (AnnotationConfigApplicationContext context = StubDsmContext.create(server)) {
+                DeleteStatus status = context.getBean(DeleteService.class).deleteAsync("/share/a", true, Optional.empty()).join();
+                Assert.assertTrue(status.isFinished());
+                Assert.assertTrue("Expected at most 4 status calls, got " + statusCalls.get(), statusCalls.get() <= 4);
+
+                Assert.assertTrue(context.getBean(SearchService.class).isFinished("search-1"));
+                String query = server.getLastQuery("SYNO.FileStation.Search", "list");
+                Assert.assertFalse(query, query.contains("additional"));
+            }
+        }
+    }
+
+    private static double[] progress(long start) {
+        return new double[] {Math.min(1, (System.currentTimeMillis() - start) / (double) TASK_DURATION)};
+    }
+}
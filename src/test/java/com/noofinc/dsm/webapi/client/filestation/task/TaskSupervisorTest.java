@@ -0,0 +1,203 @@
+package com.noofinc.dsm.webapi.client.filestation.task;
+
+import com.noofinc.dsm.webapi.client.filestation.delete.DeleteStatus;
+import com.noofinc.dsm.webapi.client.filestation.dirsize.DirSizeResult;
+import com.noofinc.dsm.webapi.client.filestation.exception.TaskTimeOutException;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TaskSupervisorTest {
+
+    private static final int TASKS = 500;
+    private static final long TASK_DURATION = 1000;
+
+    private final AtomicInteger listCount = new AtomicInteger();
+    private final AtomicInteger deleteStatusCount = new AtomicInteger();
+    private final AtomicInteger dirSizeStatusCount = new AtomicInteger();
+
+    private volatile long start;
+    private volatile long listLatency;
+
+    private StubDsmServer server;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        start = System.currentTimeMillis();
+        server = new StubDsmServer()
+                .on("SYNO.FileStation.BackgroundTask", "list", this::list)
+                .on("SYNO.FileStation.Delete", "status", parameters -> {
+                    deleteStatusCount.incrementAndGet();
+                    double progress = progress();
+                    return "{\"data\":{\"finished\":" + (progress >= 1) + ",\"processed_num\":1,\"total\":1,\"progress\":" + progress + ",\"path\":\"/share/a\"},\"success\":true}";
+                })
+                .on("SYNO.FileStation.DirSize", "status", parameters -> {
+                    dirSizeStatusCount.incrementAndGet();
+                    boolean finished = !"dirsize-never".equals(parameters.get("taskid")) && progress() >= 1;
+                    return "{\"data\":{\"finished\":" + finished + ",\"num_dir\":1,\"num_file\":2,\"total_size\":3},\"success\":true}";
+                });
+        context = StubDsmContext.create(server);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testManyTasksShareOneListCallPerTick() {
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        List<CompletableFuture<TaskResult>> results = IntStream.range(0, TASKS)
+                .mapToObj(i -> supervisor.supervise(TaskType.DELETE, "delete-" + i))
+                .collect(Collectors.toList());
+        for (CompletableFuture<TaskResult> result : results) {
+            TaskResult taskResult = result.join();
+            Assert.assertTrue(taskResult.isFinished());
+            Assert.assertTrue(taskResult.getStatus(DeleteStatus.class).isFinished());
+        }
+        // One last status call per task, the progress comes from the list
+        Assert.assertEquals(TASKS, deleteStatusCount.get());
+        Assert.assertTrue("Expected a handful of list calls, got " + listCount.get(), listCount.get() <= 10);
+        Assert.assertEquals(0, supervisor.getTaskCount());
+
+        String query = server.getLastQuery("SYNO.FileStation.BackgroundTask", "list");
+        Assert.assertTrue(query, query.contains("api_filter=SYNO.FileStation.Delete"));
+    }
+
+    @Test
+    public void testProgressIsReported() {
+        List<Double> progress = new CopyOnWriteArrayList<>();
+        TaskResult result = context.getBean(TaskSupervisor.class).supervise(TaskType.DELETE, "delete-1", task -> progress.add(task.getProgress())).join();
+        Assert.assertTrue(result.isFinished());
+        Assert.assertFalse(progress.isEmpty());
+        for (int i = 1; i < progress.size(); i++) {
+            Assert.assertTrue(progress.get(i) > progress.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testTasksMissingFromTheListArePolledOnTheirOwn() {
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        List<CompletableFuture<TaskResult>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(supervisor.supervise(TaskType.DIR_SIZE, "dirsize-" + i));
+        }
+        results.add(supervisor.supervise(TaskType.DELETE, "unlisted-delete"));
+        for (CompletableFuture<TaskResult> result : results) {
+            Assert.assertTrue(result.join().isFinished());
+        }
+        Assert.assertEquals(3, results.get(0).join().getStatus(DirSizeResult.class).getTotalByteSize());
+        Assert.assertTrue(dirSizeStatusCount.get() >= 10);
+        // Every minimum interval while the tasks are young, then every fifth of their age: about 10 calls each
+        Assert.assertTrue("Expected status calls with back-off, got " + dirSizeStatusCount.get(), dirSizeStatusCount.get() <= 10 * 13);
+    }
+
+    @Test
+    public void testTimeout() {
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        try {
+            supervisor.waitFor(TaskType.DIR_SIZE, "dirsize-never", 300);
+            Assert.fail("Expected TaskTimeOutException");
+        } catch (TaskTimeOutException e) {
+            Assert.assertEquals(0, supervisor.getTaskCount());
+        }
+    }
+
+    @Test
+    public void testAsynchronousTimeout() throws Exception {
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        long begin = System.currentTimeMillis();
+        try {
+            supervisor.supervise(TaskType.DIR_SIZE, "dirsize-never", 300).join();
+            Assert.fail("Expected TaskTimeOutException");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof TaskTimeOutException);
+        }
+        Assert.assertTrue(System.currentTimeMillis() - begin < 1000);
+        // No longer followed once the timed out future let it go
+        for (int i = 0; i < 100 && supervisor.getTaskCount() > 0; i++) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(0, supervisor.getTaskCount());
+
+        Assert.assertTrue(supervisor.supervise(TaskType.DIR_SIZE, "dirsize-1", 5000).join().getStatus(DirSizeResult.class).isFinished());
+    }
+
+    @Test
+    public void testSlowListDelaysNeitherTimeoutsNorStatusCalls() {
+        listLatency = 2000;
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        CompletableFuture<TaskResult> delete = supervisor.supervise(TaskType.DELETE, "delete-1");
+        long begin = System.currentTimeMillis();
+        try {
+            supervisor.supervise(TaskType.DIR_SIZE, "dirsize-never", 300).join();
+            Assert.fail("Expected TaskTimeOutException");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof TaskTimeOutException);
+        }
+        Assert.assertTrue(System.currentTimeMillis() - begin < 1000);
+        Assert.assertTrue(dirSizeStatusCount.get() > 1);
+        Assert.assertFalse(delete.isDone());
+        Assert.assertTrue(delete.join().isFinished());
+    }
+
+    @Test
+    public void testTimeoutOfOneCallerLeavesTheOthersAlone() throws Exception {
+        TaskSupervisor supervisor = context.getBean(TaskSupervisor.class);
+        CompletableFuture<TaskResult> timingOut = CompletableFuture.supplyAsync(() -> supervisor.waitFor(TaskType.DIR_SIZE, "dirsize-1", 200));
+        while (supervisor.getTaskCount() == 0) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<TaskResult> other = supervisor.supervise(TaskType.DIR_SIZE, "dirsize-1");
+        try {
+            timingOut.join();
+            Assert.fail("Expected TaskTimeOutException");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof TaskTimeOutException);
+        }
+        Assert.assertEquals(1, supervisor.getTaskCount());
+        Assert.assertTrue(supervisor.waitFor(TaskType.DIR_SIZE, "dirsize-1", 5000).isFinished());
+        Assert.assertTrue(other.join().isFinished());
+        Assert.assertEquals(0, supervisor.getTaskCount());
+    }
+
+    private String list(Map<String, String> parameters) {
+        listCount.incrementAndGet();
+        try {
+            Thread.sleep(listLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int offset = Integer.parseInt(parameters.get("offset"));
+        int limit = Integer.parseInt(parameters.get("limit"));
+        double progress = progress();
+        String tasks = IntStream.range(0, TASKS)
+                .skip(offset)
+                .limit(limit)
+                .mapToObj(i -> "{\"api\":\"SYNO.FileStation.Delete\",\"version\":1,\"method\":\"start\",\"taskid\":\"delete-" + i + "\",\"finished\":" + (progress >= 1)
+                        + ",\"path\":\"/share/a\",\"processing_path\":\"/share/a\",\"progress\":" + progress + ",\"total\":1}")
+                .collect(Collectors.joining(","));
+        return "{\"data\":{\"tasks\":[" + tasks + "],\"offset\":" + offset + ",\"total\":" + TASKS + "},\"success\":true}";
+    }
+
+    private double progress() {
+        return Math.min(1, (System.currentTimeMillis() - start) / (double) TASK_DURATION);
+    }
+}
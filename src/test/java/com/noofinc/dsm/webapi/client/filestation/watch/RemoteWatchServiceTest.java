@@ -0,0 +1,174 @@
+package com.noofinc.dsm.webapi.client.filestation.watch;
+
+import com.noofinc.dsm.webapi.client.filestation.exception.FileNotFoundException;
+import com.noofinc.dsm.webapi.client.stub.StubDsmContext;
+import com.noofinc.dsm.webapi.client.stub.StubDsmServer;
+import com.noofinc.dsm.webapi.client.stub.StubFileTree;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class RemoteWatchServiceTest {
+
+    private static final long MIN_INTERVAL = 20;
+    private static final long MAX_INTERVAL = 160;
+
+    private StubDsmServer server;
+
+    private StubFileTree tree;
+
+    private AnnotationConfigApplicationContext context;
+
+    private RemoteWatchService watchService;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubDsmServer();
+        tree = new StubFileTree("/share").register(server)
+                .directory("/share/in")
+                .file("/share/in/a", 1)
+                .file("/share/in/b", 2)
+                .directory("/share/out");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.watch.minInterval", Long.toString(MIN_INTERVAL));
+        properties.put("dsm.webapi.watch.maxInterval", Long.toString(MAX_INTERVAL));
+        context = StubDsmContext.create(server, properties);
+        watchService = context.getBean(RemoteWatchService.class);
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Test
+    public void testEventsAreDelivered() throws Exception {
+        RemoteWatchKey key = watchService.register("/share/in", RemoteWatchEvent.Kind.ENTRY_CREATE, RemoteWatchEvent.Kind.ENTRY_MODIFY, RemoteWatchEvent.Kind.ENTRY_DELETE);
+        tree.file("/share/in/c", 3).rewrite("/share/in/a", 10).delete("/share/in/b");
+
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        Set<String> events = collect(key);
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("ENTRY_CREATE /share/in/c", "ENTRY_MODIFY /share/in/a", "ENTRY_DELETE /share/in/b")), events);
+        Assert.assertTrue(key.reset());
+
+        Assert.assertNull(watchService.poll(5 * MIN_INTERVAL, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFoldersAreMultiplexed() throws Exception {
+        RemoteWatchKey in = watchService.register("/share/in", RemoteWatchEvent.Kind.ENTRY_CREATE);
+        RemoteWatchKey out = watchService.register("/share/out", RemoteWatchEvent.Kind.ENTRY_CREATE);
+        tree.file("/share/out/x", 1);
+        Assert.assertSame(out, watchService.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("ENTRY_CREATE /share/out/x")), collect(out));
+        out.reset();
+        tree.file("/share/in/y", 1);
+        Assert.assertSame(in, watchService.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnwatchedKindsAreIgnoredAndFolderTimeSavesListings() throws Exception {
+        RemoteWatchKey key = watchService.register("/share/in", RemoteWatchEvent.Kind.ENTRY_CREATE, RemoteWatchEvent.Kind.ENTRY_DELETE);
+        tree.resetCounts();
+        tree.rewrite("/share/in/a", 100);
+        Thread.sleep(10 * MIN_INTERVAL);
+        Assert.assertNull(watchService.poll());
+        Assert.assertEquals(0, tree.getListCount());
+        Assert.assertTrue(tree.getGetInfoCount() > 0);
+
+        tree.delete("/share/in/b");
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("ENTRY_DELETE /share/in/b")), collect(key));
+    }
+
+    @Test
+    public void testChangeWithinTheSecondOfTheListingIsSeen() throws Exception {
+        tree.useWallClock();
+        // Early in a second, so the listing and the change share it
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+        tree.file("/share/out/x", 1);
+        RemoteWatchKey key = watchService.register("/share/out", RemoteWatchEvent.Kind.ENTRY_CREATE);
+        tree.file("/share/out/y", 1);
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("ENTRY_CREATE /share/out/y")), collect(key));
+    }
+
+    @Test
+    public void testChangesSurviveAFailedListing() throws Exception {
+        RemoteWatchKey key = watchService.register("/share/in", RemoteWatchEvent.Kind.ENTRY_CREATE);
+        tree.failLists(1).file("/share/in/c", 3);
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("ENTRY_CREATE /share/in/c")), collect(key));
+    }
+
+    @Test
+    public void testIntervalAdaptsToChangeRate() throws Exception {
+        RemoteWatchKey key = watchService.register("/share/in", RemoteWatchEvent.Kind.ENTRY_CREATE);
+        Assert.assertEquals(MIN_INTERVAL, watchService.getPollInterval(key));
+        Thread.sleep(8 * MAX_INTERVAL);
+        Assert.assertEquals(MAX_INTERVAL, watchService.getPollInterval(key));
+
+        tree.file("/share/in/z", 1);
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        // The interval is updated once the poll that signalled the key is over
+        Thread.sleep(MIN_INTERVAL);
+        Assert.assertTrue(watchService.getPollInterval(key) < MAX_INTERVAL);
+    }
+
+    @Test
+    public void testDeletedFolderInvalidatesKey() throws Exception {
+        RemoteWatchKey key = watchService.register("/share/out", RemoteWatchEvent.Kind.ENTRY_DELETE);
+        tree.delete("/share/out");
+        Assert.assertSame(key, watchService.poll(5, TimeUnit.SECONDS));
+        Assert.assertFalse(key.isValid());
+        Assert.assertFalse(key.reset());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dsm.webapi.watch.minInterval", Long.toString(MIN_INTERVAL));
+        properties.put("dsm.webapi.watch.maxEvents", "3");
+        try (AnnotationConfigApplicationContext overflowContext = StubDsmContext.create(server, properties)) {
+            RemoteWatchService service = overflowContext.getBean(RemoteWatchService.class);
+            RemoteWatchKey key = service.register("/share/out", RemoteWatchEvent.Kind.ENTRY_CREATE);
+            for (int i = 0; i < 10; i++) {
+                tree.file("/share/out/file-" + i, i);
+            }
+            Assert.assertSame(key, service.poll(5, TimeUnit.SECONDS));
+            // A poll may have run while the files were created, the others come with the next ones
+            Thread.sleep(10 * MIN_INTERVAL);
+            List<RemoteWatchEvent> events = key.pollEvents();
+            Assert.assertEquals(4, events.size());
+            Assert.assertEquals(RemoteWatchEvent.Kind.OVERFLOW, events.get(3).getKind());
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testRegisterMissingFolder() {
+        watchService.register("/share/missing", RemoteWatchEvent.Kind.ENTRY_CREATE);
+    }
+
+    private static Set<String> collect(RemoteWatchKey key) throws InterruptedException {
+        // Events of one change may be spread over consecutive polls
+        Thread.sleep(5 * MIN_INTERVAL);
+        List<String> events = new ArrayList<>();
+        for (RemoteWatchEvent event : key.pollEvents()) {
+            events.add(event.toString());
+        }
+        return events.stream().collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -0,0 +1,95 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs an operation from a fixed number of threads and reports throughput and latency percentiles.
+ */
+public class LoadGenerator {
+
+    private final int threads;
+    private final int iterationsPerThread;
+    private final int warmupIterations;
+    private final ThreadFactory threadFactory;
+
+    public LoadGenerator(int threads, int iterationsPerThread, int warmupIterations) {
+        this(threads, iterationsPerThread, warmupIterations, Thread::new);
+    }
+
+    public LoadGenerator(int threads, int iterationsPerThread, int warmupIterations, ThreadFactory threadFactory) {
+        this.threads = threads;
+        this.iterationsPerThread = iterationsPerThread;
+        this.warmupIterations = warmupIterations;
+        this.threadFactory = threadFactory;
+    }
+
+    public Result run(String name, Runnable operation) throws InterruptedException {
+        for (int i = 0; i < warmupIterations; i++) {
+            operation.run();
+        }
+        long[][] latencies = new long[threads][iterationsPerThread];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] threadLatencies = latencies[t];
+            Thread worker = threadFactory.newThread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < iterationsPerThread; i++) {
+                        long begin = System.nanoTime();
+                        operation.run();
+                        threadLatencies[i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(name, all.length, elapsed, all);
+    }
+
+    public static class Result {
+
+        private final String name;
+        private final int operations;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        private Result(String name, int operations, long elapsedNanos, long[] sortedLatencies) {
+            this.name = name;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        public double getOperationsPerSecond() {
+            return operations / (elapsedNanos / 1_000_000_000d);
+        }
+
+        public double getPercentileMillis(double percentile) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile / 100d * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s %8d ops  %10.1f ops/s  p50 %7.3f ms  p99 %7.3f ms",
+                    name, operations, getOperationsPerSecond(), getPercentileMillis(50), getPercentileMillis(99));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import com.noofinc.dsm.webapi.client.TestConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class StubDsmContext {
+
+    private StubDsmContext() {
+        throw new UnsupportedOperationException("Cannot instantiate");
+    }
+
+    public static AnnotationConfigApplicationContext create(StubDsmServer server, Class<?>... overrides) {
+        return create(server, new HashMap<>(), overrides);
+    }
+
+    public static AnnotationConfigApplicationContext create(StubDsmServer server, Map<String, Object> properties, Class<?>... overrides) {
+        Map<String, Object> allProperties = new HashMap<>();
+        allProperties.put("dsm.webapi.scheme", "http");
+        allProperties.put("dsm.webapi.host", "127.0.0.1");
+        allProperties.put("dsm.webapi.port", Integer.toString(server.getPort()));
+        allProperties.put("dsm.webapi.username", "stub");
+        allProperties.put("dsm.webapi.password", "stub");
+        allProperties.put("dsm.webapi.session", "stub");
+        allProperties.put("dsm.webapi.timeZone", "UTC");
+        allProperties.put("dsm.webapi.apiInfo.cacheDirectory", "");
+        allProperties.putAll(properties);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("stub", allProperties));
+        context.register(TestConfiguration.class);
+        if(overrides.length > 0) {
+            context.register(overrides);
+        }
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,193 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Minimal in-process DSM webapi used by benchmarks. Answers SYNO.API.Info, SYNO.API.Auth and SYNO.Entry.Request
+ * (dispatching each compound entry to its handler) out of the box, any other api/method pair has to be registered
+ * with {@link #on(String, String, Function)}.
+ */
+public class StubDsmServer implements AutoCloseable {
+
+    public static final String SID = "stub-sid";
+
+    static {
+        // Without it headers and body go out in separate segments and every response waits for a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Function<Map<String, String>, String>> handlers = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong postCount = new AtomicLong();
+    private final Map<String, String> queriesByMethod = new ConcurrentHashMap<>();
+    private volatile long latencyMillis;
+
+    public StubDsmServer() throws IOException {
+        this(64);
+    }
+
+    public StubDsmServer(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/webapi/", this::handle);
+        on("SYNO.API.Info", "query", this::apiInfo);
+        on("SYNO.API.Auth", "login", parameters -> "{\"data\":{\"sid\":\"" + SID + "\"},\"success\":true}");
+        on("SYNO.API.Auth", "logout", parameters -> "{\"success\":true}");
+        on("SYNO.Entry.Request", "request", this::compound);
+        server.start();
+    }
+
+    public StubDsmServer on(String api, String method, Function<Map<String, String>, String> handler) {
+        handlers.put(api + "#" + method, handler);
+        return this;
+    }
+
+    public StubDsmServer latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void resetRequestCount() {
+        requestCount.set(0);
+        postCount.set(0);
+    }
+
+    public long getPostCount() {
+        return postCount.get();
+    }
+
+    /**
+     * Raw query string of the last request to this api method, empty when all parameters were posted.
+     */
+    public String getLastQuery(String api, String method) {
+        return queriesByMethod.get(api + "#" + method);
+    }
+
+    private String apiInfo(Map<String, String> parameters) {
+        String query = parameters.get("query");
+        StringBuilder data = new StringBuilder("{");
+        if("all".equals(query)) {
+            handlers.keySet().stream().map(key -> key.substring(0, key.indexOf('#'))).distinct().forEach(api -> appendApiInfo(data, api));
+        } else {
+            for (String api : query.split(",")) {
+                appendApiInfo(data, api);
+            }
+        }
+        return "{\"data\":" + data.append("}") + ",\"success\":true}";
+    }
+
+    private String compound(Map<String, String> parameters) {
+        try {
+            ArrayNode results = objectMapper.createArrayNode();
+            boolean hasFail = false;
+            for (JsonNode entry : objectMapper.readTree(parameters.get("compound"))) {
+                Map<String, String> entryParameters = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = entry.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    entryParameters.put(field.getKey(), field.getValue().asText());
+                }
+                Function<Map<String, String>, String> handler = handlers.get(entryParameters.get("api") + "#" + entryParameters.get("method"));
+                ObjectNode result = (ObjectNode) objectMapper.readTree(handler != null ? handler.apply(entryParameters) : "{\"error\":{\"code\":102},\"success\":false}");
+                result.put("api", entryParameters.get("api")).put("method", entryParameters.get("method")).put("version", entry.get("version").asInt());
+                hasFail |= !result.get("success").asBoolean();
+                results.add(result);
+            }
+            ObjectNode data = objectMapper.createObjectNode().put("has_fail", hasFail);
+            data.set("result", results);
+            return "{\"data\":" + objectMapper.writeValueAsString(data) + ",\"success\":true}";
+        } catch (IOException e) {
+            return "{\"error\":{\"code\":101},\"success\":false}";
+        }
+    }
+
+    private static void appendApiInfo(StringBuilder data, String api) {
+        if(data.length() > 1) {
+            data.append(',');
+        }
+        String path = api.startsWith("SYNO.API.") ? api.equals("SYNO.API.Info") ? "query.cgi" : "auth.cgi" : "entry.cgi";
+        data.append('"').append(api).append("\":{\"maxVersion\":\"3\",\"minVersion\":\"1\",\"path\":\"")
+                .append(path).append("\",\"requestFormat\":\"JSON\"}");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            Map<String, String> parameters = new HashMap<>();
+            parse(exchange.getRequestURI().getRawQuery(), parameters);
+            if("POST".equals(exchange.getRequestMethod())) {
+                postCount.incrementAndGet();
+                parse(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8), parameters);
+            }
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            queriesByMethod.put(parameters.get("api") + "#" + parameters.get("method"), rawQuery == null ? "" : rawQuery);
+            if(latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            Function<Map<String, String>, String> handler = handlers.get(parameters.get("api") + "#" + parameters.get("method"));
+            String body = handler != null ? handler.apply(parameters) : "{\"error\":{\"code\":102},\"success\":false}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void parse(String query, Map<String, String> parameters) throws IOException {
+        if(query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,157 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory remote tree answering SYNO.FileStation.List getinfo and list on a {@link StubDsmServer}. Like a real file
+ * system, adding, removing or renaming an entry updates the modification time of its parent, rewriting a file in
+ * place does not.
+ */
+public class StubFileTree {
+
+    private final NavigableMap<String, Node> nodes = new ConcurrentSkipListMap<>();
+    private final AtomicLong clock = new AtomicLong(1_500_000_000L);
+    private final AtomicInteger listCount = new AtomicInteger();
+    private final AtomicInteger getInfoCount = new AtomicInteger();
+    private final AtomicInteger failingLists = new AtomicInteger();
+    private volatile boolean wallClock;
+
+    public StubFileTree(String root) {
+        nodes.put(root, new Node(true, 0, tick()));
+    }
+
+    public StubFileTree register(StubDsmServer server) {
+        server.on("SYNO.FileStation.List", "getinfo", this::getInfo)
+                .on("SYNO.FileStation.List", "list", this::list);
+        return this;
+    }
+
+    /**
+     * Stamps the next changes with the current second, so that several of them may share a modification time.
+     */
+    public StubFileTree useWallClock() {
+        wallClock = true;
+        return this;
+    }
+
+    public StubFileTree directory(String path) {
+        return add(path, new Node(true, 0, tick()));
+    }
+
+    public StubFileTree file(String path, long size) {
+        return add(path, new Node(false, size, tick()));
+    }
+
+    /**
+     * Rewrites the file in place: its parent keeps its modification time.
+     */
+    public StubFileTree rewrite(String path, long size) {
+        nodes.put(path, new Node(false, size, tick()));
+        return this;
+    }
+
+    public StubFileTree delete(String path) {
+        nodes.keySet().removeIf(key -> key.equals(path) || key.startsWith(path + "/"));
+        touchParent(path);
+        return this;
+    }
+
+    /**
+     * Makes the next list calls fail with an unknown error.
+     */
+    public StubFileTree failLists(int count) {
+        failingLists.set(count);
+        return this;
+    }
+
+    public int getListCount() {
+        return listCount.get();
+    }
+
+    public int getGetInfoCount() {
+        return getInfoCount.get();
+    }
+
+    public void resetCounts() {
+        listCount.set(0);
+        getInfoCount.set(0);
+    }
+
+    private long tick() {
+        return wallClock ? System.currentTimeMillis() / 1000 : clock.incrementAndGet();
+    }
+
+    private StubFileTree add(String path, Node node) {
+        nodes.put(path, node);
+        touchParent(path);
+        return this;
+    }
+
+    private void touchParent(String path) {
+        String parent = path.substring(0, path.lastIndexOf('/'));
+        Node node = nodes.get(parent);
+        if(node != null) {
+            nodes.put(parent, new Node(true, node.size, tick()));
+        }
+    }
+
+    private String getInfo(Map<String, String> parameters) {
+        getInfoCount.incrementAndGet();
+        List<String> entries = new ArrayList<>();
+        for (String path : parameters.get("path").split(",")) {
+            Node node = nodes.get(path);
+            entries.add(node == null ? "{\"code\":408,\"path\":\"" + path + "\"}" : toJson(path, node));
+        }
+        return "{\"data\":{\"files\":[" + String.join(",", entries) + "]},\"success\":true}";
+    }
+
+    private String list(Map<String, String> parameters) {
+        listCount.incrementAndGet();
+        if(failingLists.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            return "{\"error\":{\"code\":100},\"success\":false}";
+        }
+        String folderPath = parameters.get("folder_path");
+        if(!nodes.containsKey(folderPath)) {
+            return "{\"error\":{\"code\":408},\"success\":false}";
+        }
+        String prefix = folderPath + "/";
+        List<String> children = new ArrayList<>();
+        for (Map.Entry<String, Node> entry : nodes.tailMap(prefix).entrySet()) {
+            if(!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if(entry.getKey().indexOf('/', prefix.length()) < 0) {
+                children.add(toJson(entry.getKey(), entry.getValue()));
+            }
+        }
+        int offset = Integer.parseInt(parameters.getOrDefault("offset", "0"));
+        int limit = Integer.parseInt(parameters.getOrDefault("limit", "0"));
+        List<String> page = children.subList(Math.min(offset, children.size()), limit > 0 ? Math.min(offset + limit, children.size()) : children.size());
+        return "{\"data\":{\"files\":[" + String.join(",", page) + "],\"offset\":" + offset + ",\"total\":" + children.size() + "},\"success\":true}";
+    }
+
+    private static String toJson(String path, Node node) {
+        return "{\"isdir\":" + node.directory + ",\"name\":\"" + path.substring(path.lastIndexOf('/') + 1) + "\",\"path\":\"" + path + "\","
+                + "\"additional\":{\"size\":" + node.size + ",\"time\":{\"atime\":" + node.modificationTime + ",\"crtime\":" + node.modificationTime
+                + ",\"ctime\":" + node.modificationTime + ",\"mtime\":" + node.modificationTime + "}}}";
+    }
+
+    private static class Node {
+
+        private final boolean directory;
+        private final long size;
+        private final long modificationTime;
+
+        private Node(boolean directory, long size, long modificationTime) {
+            this.directory = directory;
+            this.size = size;
+            this.modificationTime = modificationTime;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background task api (start, status and stop) on a {@link StubDsmServer}, as used by copy/move and delete. Each task
+ * finishes at its third status poll. Starting a task with {@link #MISSING_PATH} among its paths is refused with a
+ * per-path 408 error, like a real DSM does.
+ */
+public class StubTaskApi {
+
+    public static final String MISSING_PATH = "/share/src/missing";
+
+    private final String api;
+    private final String taskIdPrefix;
+    private final int refusedErrorCode;
+    private final String statusFields;
+
+    private final List<String> startedPaths = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    private final AtomicInteger taskIds = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile Runnable startListener = () -> { };
+
+    /**
+     * @param statusFields additional fields of the status data, starting with a comma
+     */
+    public StubTaskApi(String api, String taskIdPrefix, int refusedErrorCode, String statusFields) {
+        this.api = api;
+        this.taskIdPrefix = taskIdPrefix;
+        this.refusedErrorCode = refusedErrorCode;
+        this.statusFields = statusFields;
+    }
+
+    public StubTaskApi register(StubDsmServer server) {
+        server.on(api, "start", this::start)
+                .on(api, "status", this::status)
+                .on(api, "stop", parameters -> {
+                    running.decrementAndGet();
+                    return "{\"success\":true}";
+                });
+        return this;
+    }
+
+    /**
+     * Called before each task is accepted.
+     */
+    public StubTaskApi onStart(Runnable startListener) {
+        this.startListener = startListener;
+        return this;
+    }
+
+    /**
+     * Client properties packing paths of up to 200 characters per task, at most {@code maxConcurrentTasks} at a time,
+     * and polling often.
+     */
+    public static Map<String, Object> properties(String prefix, int maxConcurrentTasks) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(prefix + ".maxPathLength", "200");
+        properties.put(prefix + ".maxConcurrentTasks", Integer.toString(maxConcurrentTasks));
+        properties.put("dsm.webapi.polling.minInterval", "10");
+        return properties;
+    }
+
+    public List<String> getStartedPaths() {
+        return startedPaths;
+    }
+
+    public int getPollCount(String taskId) {
+        return polls.get(taskId).get();
+    }
+
+    public int getTaskCount() {
+        return taskIds.get();
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    public int getMaxRunningCount() {
+        return maxRunning.get();
+    }
+
+    private String start(Map<String, String> parameters) {
+        List<String> paths = Arrays.asList(parameters.get("path").split(","));
+        if(paths.contains(MISSING_PATH)) {
+            return "{\"error\":{\"code\":" + refusedErrorCode + ",\"errors\":[{\"code\":408,\"path\":\"" + MISSING_PATH + "\"}]},\"success\":false}";
+        }
+        startListener.run();
+        startedPaths.addAll(paths);
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        String taskId = taskIdPrefix + taskIds.incrementAndGet();
+        polls.put(taskId, new AtomicInteger());
+        return "{\"data\":{\"taskid\":\"" + taskId + "\"},\"success\":true}";
+    }
+
+    private String status(Map<String, String> parameters) {
+        int poll = polls.get(parameters.get("taskid")).incrementAndGet();
+        return "{\"data\":{\"finished\":" + (poll >= 3) + ",\"progress\":" + Math.min(1, poll / 3d) + statusFields + "},\"success\":true}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.noofinc.dsm.webapi.client.stub;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a generated tree through SYNO.FileStation.List on a {@link StubDsmServer}: every directory holds
+ * {@code directories} sub directories named d0, d1..., except at the last of the {@code depth} levels, then
+ * {@code files} files named f0, f1...
+ * <p>
+ * Each list call sleeps {@code listLatencyMillis}, and the highest number of list calls served at the same time is
+ * recorded.
+ */
+public class SyntheticTree {
+
+    private final String root;
+    private final int depth;
+    private final int directories;
+    private final int files;
+    private final long listLatencyMillis;
+    private final AtomicInteger concurrentLists = new AtomicInteger();
+    private final AtomicInteger maxConcurrentLists = new AtomicInteger();
+    private final AtomicInteger listCalls = new AtomicInteger();
+
+    public SyntheticTree(String root, int depth, int directories, int files, long listLatencyMillis) {
+        this.root = root;
+        this.depth = depth;
+        this.directories = directories;
+        this.files = files;
+        this.listLatencyMillis = listLatencyMillis;
+    }
+
+    public SyntheticTree serveOn(StubDsmServer server) {
+        server.on("SYNO.FileStation.List", "list", this::list)
+                .on("SYNO.FileStation.List", "getinfo", this::getInfo);
+        return this;
+    }
+
+    /**
+     * Number of entries below the root, directories included.
+     */
+    public long getEntryCount() {
+        long count = 0;
+        long directoriesAtLevel = 1;
+        for (int level = 0; level < depth; level++) {
+            count += directoriesAtLevel * (directoriesAt(level) + files);
+            directoriesAtLevel *= directories;
+        }
+        return count;
+    }
+
+    public int getMaxConcurrentLists() {
+        return maxConcurrentLists.get();
+    }
+
+    public int getListCalls() {
+        return listCalls.get();
+    }
+
+    public void reset() {
+        maxConcurrentLists.set(0);
+        listCalls.set(0);
+    }
+
+    private String getInfo(Map<String, String> parameters) {
+        String path = parameters.get("path");
+        int level = levelOf(path);
+        if(level < 0) {
+            return "{\"data\":{\"files\":[{\"code\":408,\"path\":\"" + path + "\"}]},\"success\":true}";
+        }
+        boolean directory = level == 0 || path.substring(path.lastIndexOf('/') + 1).startsWith("d");
+        return "{\"data\":{\"files\":[{\"isdir\":" + directory + ",\"name\":\"" + path.substring(path.lastIndexOf('/') + 1)
+                + "\",\"path\":\"" + path + "\"}]},\"success\":true}";
+    }
+
+    private String list(Map<String, String> parameters) {
+        listCalls.incrementAndGet();
+        int concurrent = concurrentLists.incrementAndGet();
+        maxConcurrentLists.accumulateAndGet(concurrent, Math::max);
+        try {
+            if(listLatencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(listLatencyMillis);
+            }
+            String folderPath = parameters.get("folder_path");
+            int level = levelOf(folderPath);
+            if(level < 0 || level >= depth) {
+                return "{\"error\":{\"code\":408},\"success\":false}";
+            }
+            int directoriesHere = directoriesAt(level);
+            int total = directoriesHere + files;
+            int offset = Integer.parseInt(parameters.get("offset"));
+            int limit = Integer.parseInt(parameters.get("limit"));
+            int end = limit <= 0 ? total : Math.min(total, offset + limit);
+            StringBuilder json = new StringBuilder("{\"data\":{\"total\":").append(total).append(",\"offset\":").append(offset).append(",\"files\":[");
+            for (int i = offset; i < end; i++) {
+                boolean directory = i < directoriesHere;
+                String name = directory ? "d" + i : "f" + (i - directoriesHere);
+                if(i > offset) {
+                    json.append(',');
+                }
+                json.append("{\"isdir\":").append(directory).append(",\"name\":\"").append(name)
+                        .append("\",\"path\":\"").append(folderPath).append('/').append(name).append("\"}");
+            }
+            return json.append("]},\"success\":true}").toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "{\"error\":{\"code\":100},\"success\":false}";
+        } finally {
+            concurrentLists.decrementAndGet();
+        }
+    }
+
+    private int directoriesAt(int level) {
+        return level < depth - 1 ? directories : 0;
+    }
+
+    private int levelOf(String path) {
+        if(path.equals(root)) {
+            return 0;
+        }
+        if(!path.startsWith(root + "/")) {
+            return -1;
+        }
+        return path.substring(root.length() + 1).split("/").length;
+    }
+}